@@ -0,0 +1,81 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring5.context.webflux;
+
+/**
+ * <p>
+ *   Interface to be implemented by context variables wrapping <em>asynchronous objects</em> in the form
+ *   of <em>reactive data streams</em> which are meant to <em>drive</em> the reactive-friendly execution of a
+ *   template, and for which the size of the buffers created from the data-driver stream can be adapted
+ *   during execution.
+ * </p>
+ * <p>
+ *   This interface adds to its parent {@link IReactiveDataDriverContextVariable} the possibility to specify
+ *   the bounds between which the engine will be allowed to adjust the size (in elements) of each buffer. The
+ *   value returned by {@link #getBufferSizeElements()} will be used for the first buffer, and from then on
+ *   the engine will grow or shrink the buffers depending on the time required for rendering each element and
+ *   on the amount of output it produces. Very small buffers mean executing the engine too many times, whereas
+ *   very large ones increase latency and the amount of data held in memory.
+ * </p>
+ * <p>
+ *   Buffers will have a fixed size (the one returned by {@link #getBufferSizeElements()}) if both bounds
+ *   are equal.
+ * </p>
+ * <p>
+ *   The {@link ReactiveDataDriverContextVariable} class contains a sensible implementation of this interface,
+ *   directly usable in most scenarios. Example use:
+ * </p>
+ * <pre><code>
+ * &#64;RequestMapping("/something")
+ * public String doSomething(final Model model) {
+ *     final Publisher&lt;Item&gt; data = ...; // This has to be MULTI-VALUED (e.g. Flux)
+ *     model.addAttribute("data", new ReactiveDataDriverContextVariable(data, 10, 1, 1000)); // min 1, max 1000
+ *     return "view";
+ * }
+ * </code></pre>
+ *
+ * @since 3.1.2
+ *
+ */
+public interface IReactiveAdaptiveDataDriverContextVariable extends IReactiveDataDriverContextVariable {
+
+
+    /**
+     * <p>
+     *   Returns the minimum size (in elements) the engine will be allowed to use for the buffers created
+     *   from the data-driver stream.
+     * </p>
+     *
+     * @return the minimum buffer size, which will be lower than or equal to {@link #getBufferSizeElements()}.
+     */
+    public int getMinBufferSizeElements();
+
+
+    /**
+     * <p>
+     *   Returns the maximum size (in elements) the engine will be allowed to use for the buffers created
+     *   from the data-driver stream.
+     * </p>
+     *
+     * @return the maximum buffer size, which will be greater than or equal to {@link #getBufferSizeElements()}.
+     */
+    public int getMaxBufferSizeElements();
+
+}
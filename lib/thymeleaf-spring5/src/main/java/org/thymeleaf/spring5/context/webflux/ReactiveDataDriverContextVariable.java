@@ -19,6 +19,8 @@
  */
 package org.thymeleaf.spring5.context.webflux;
 
+import java.time.Duration;
+
 import org.reactivestreams.Publisher;
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.thymeleaf.util.Validate;
@@ -27,7 +29,8 @@
 /**
  * <p>
  *   Basic implementation of the {@link IReactiveDataDriverContextVariable} interface, including also
- *   the extensions specified in {@link IReactiveSSEDataDriverContextVariable}.
+ *   the extensions specified in {@link IReactiveSSEDataDriverContextVariable} and
+ *   {@link IReactiveAdaptiveDataDriverContextVariable}.
  * </p>
  * <p>
  *   The <em>reactive data stream</em> wrapped by this class will usually have the shape of an implementation of the
@@ -82,7 +85,8 @@
  * @since 3.0.3
  *
  */
-public class ReactiveDataDriverContextVariable implements IReactiveSSEDataDriverContextVariable {
+public class ReactiveDataDriverContextVariable
+        implements IReactiveSSEDataDriverContextVariable, IReactiveAdaptiveDataDriverContextVariable {
 
     /**
      * <p>
@@ -101,8 +105,13 @@ public class ReactiveDataDriverContextVariable implements IReactiveSSEDataDriver
 
     private final Object dataStream;
     private final int dataStreamBufferSizeElements;
+    private final int minDataStreamBufferSizeElements;
+    private final int maxDataStreamBufferSizeElements;
     private final String sseEventsPrefix;
     private final long sseEventsFirstID;
+    private final Duration sseBatchingMaxDelay;
+    private final int sseBatchingMaxSizeBytes;
+    private final Duration sseHeartbeatInterval;
 
 
     /**
@@ -276,15 +285,163 @@ public ReactiveDataDriverContextVariable(
     public ReactiveDataDriverContextVariable(
             final Object dataStream, final int dataStreamBufferSizeElements,
             final String sseEventsPrefix, final long sseEventsFirstID) {
+        this(dataStream, dataStreamBufferSizeElements, dataStreamBufferSizeElements, dataStreamBufferSizeElements,
+                sseEventsPrefix, sseEventsFirstID);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new lazy context variable, wrapping a reactive asynchronous data stream and specifying an
+     *   initial buffer size and the bounds between which the engine will be allowed to adapt it.
+     * </p>
+     * <p>
+     *   See {@link IReactiveAdaptiveDataDriverContextVariable} for more info on how buffer sizes are adapted.
+     * </p>
+     * <p>
+     *   The specified {@code dataStream} must be <em>adaptable</em> to a Reactive Stream's
+     *   {@link Publisher} by means of Spring's {@link ReactiveAdapterRegistry} mechanism. If no
+     *   adapter has been registered for the type of the asynchronous object, and exception will be
+     *   thrown during lazy resolution. If no adapter registry has been set into the context
+     *   (see {@link org.thymeleaf.spring5.web.webflux.ISpringWebFluxWebApplication#getReactiveAdapterRegistry()})
+     *   this data stream must mandatorily be a {@link Flux}.
+     * </p>
+     * <p>
+     *   Note the specified {@code dataStream} must be <strong>multi-valued</strong>.
+     * </p>
+     *
+     * @param dataStream the asynchronous object, which must be convertible to a multi-valued {@link Publisher} by
+     *                    means of Spring's {@link ReactiveAdapterRegistry}.
+     * @param dataStreamBufferSizeElements the buffer size to be applied to the first buffer (in elements).
+     * @param minDataStreamBufferSizeElements the minimum buffer size (in elements).
+     * @param maxDataStreamBufferSizeElements the maximum buffer size (in elements).
+     *
+     * @since 3.1.2
+     */
+    public ReactiveDataDriverContextVariable(
+            final Object dataStream, final int dataStreamBufferSizeElements,
+            final int minDataStreamBufferSizeElements, final int maxDataStreamBufferSizeElements) {
+        this(dataStream, dataStreamBufferSizeElements, minDataStreamBufferSizeElements, maxDataStreamBufferSizeElements,
+                null, DEFAULT_FIRST_EVENT_ID);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new lazy context variable, wrapping a reactive asynchronous data stream and specifying an
+     *   initial buffer size, the bounds between which the engine will be allowed to adapt it, a value for the
+     *   ID of the first event generated in SSE scenarios and a prefix for all the names and IDs of events
+     *   generated from a specific SSE stream.
+     * </p>
+     * <p>
+     *   See {@link IReactiveAdaptiveDataDriverContextVariable} for more info on how buffer sizes are adapted.
+     * </p>
+     * <p>
+     *   The specified {@code dataStream} must be <em>adaptable</em> to a Reactive Stream's
+     *   {@link Publisher} by means of Spring's {@link ReactiveAdapterRegistry} mechanism. If no
+     *   adapter has been registered for the type of the asynchronous object, and exception will be
+     *   thrown during lazy resolution. If no adapter registry has been set into the context
+     *   (see {@link org.thymeleaf.spring5.web.webflux.ISpringWebFluxWebApplication#getReactiveAdapterRegistry()})
+     *   this data stream must mandatorily be a {@link Flux}.
+     * </p>
+     * <p>
+     *   Note the specified {@code dataStream} must be <strong>multi-valued</strong>.
+     * </p>
+     *
+     * @param dataStream the asynchronous object, which must be convertible to a multi-valued {@link Publisher} by
+     *                    means of Spring's {@link ReactiveAdapterRegistry}.
+     * @param dataStreamBufferSizeElements the buffer size to be applied to the first buffer (in elements).
+     * @param minDataStreamBufferSizeElements the minimum buffer size (in elements).
+     * @param maxDataStreamBufferSizeElements the maximum buffer size (in elements).
+     * @param sseEventsPrefix the prefix to be used for event names and IDs, so that events coming from a specific
+     *                        SSE stream can be identified (if applies). Can be null.
+     * @param sseEventsFirstID the first value to be used as event ID in SSE scenarios (if applies).
+     *
+     * @since 3.1.2
+     */
+    public ReactiveDataDriverContextVariable(
+            final Object dataStream, final int dataStreamBufferSizeElements,
+            final int minDataStreamBufferSizeElements, final int maxDataStreamBufferSizeElements,
+            final String sseEventsPrefix, final long sseEventsFirstID) {
+        this(dataStream, dataStreamBufferSizeElements, minDataStreamBufferSizeElements, maxDataStreamBufferSizeElements,
+                sseEventsPrefix, sseEventsFirstID, null, Integer.MAX_VALUE, null);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new lazy context variable, wrapping a reactive asynchronous data stream and specifying an
+     *   initial buffer size, the bounds between which the engine will be allowed to adapt it, a value for the
+     *   ID of the first event generated in SSE scenarios, a prefix for all the names and IDs of events
+     *   generated from a specific SSE stream, and the configuration of SSE batching and heartbeats.
+     * </p>
+     * <p>
+     *   See {@link IReactiveAdaptiveDataDriverContextVariable} for more info on how buffer sizes are adapted, and
+     *   {@link IReactiveSSEDataDriverContextVariable} for more info on how SSE events are batched and on how
+     *   heartbeats are sent.
+     * </p>
+     * <p>
+     *   The specified {@code dataStream} must be <em>adaptable</em> to a Reactive Stream's
+     *   {@link Publisher} by means of Spring's {@link ReactiveAdapterRegistry} mechanism. If no
+     *   adapter has been registered for the type of the asynchronous object, and exception will be
+     *   thrown during lazy resolution. If no adapter registry has been set into the context
+     *   (see {@link org.thymeleaf.spring5.web.webflux.ISpringWebFluxWebApplication#getReactiveAdapterRegistry()})
+     *   this data stream must mandatorily be a {@link Flux}.
+     * </p>
+     * <p>
+     *   Note the specified {@code dataStream} must be <strong>multi-valued</strong>.
+     * </p>
+     *
+     * @param dataStream the asynchronous object, which must be convertible to a multi-valued {@link Publisher} by
+     *                    means of Spring's {@link ReactiveAdapterRegistry}.
+     * @param dataStreamBufferSizeElements the buffer size to be applied to the first buffer (in elements).
+     * @param minDataStreamBufferSizeElements the minimum buffer size (in elements).
+     * @param maxDataStreamBufferSizeElements the maximum buffer size (in elements).
+     * @param sseEventsPrefix the prefix to be used for event names and IDs, so that events coming from a specific
+     *                        SSE stream can be identified (if applies). Can be null.
+     * @param sseEventsFirstID the first value to be used as event ID in SSE scenarios (if applies).
+     * @param sseBatchingMaxDelay the maximum time SSE events will be held in order to send them together with the
+     *                            events following them. Can be null (events are not batched).
+     * @param sseBatchingMaxSizeBytes the size (in bytes) that will make a batch of SSE events be sent without
+     *                                waiting for the batching delay to expire ({@link Integer#MAX_VALUE} if
+     *                                there is no limit).
+     * @param sseHeartbeatInterval the interval after which a heartbeat will be sent if no new data has been
+     *                             published. Can be null (no heartbeats are sent).
+     *
+     * @since 3.1.2
+     */
+    public ReactiveDataDriverContextVariable(
+            final Object dataStream, final int dataStreamBufferSizeElements,
+            final int minDataStreamBufferSizeElements, final int maxDataStreamBufferSizeElements,
+            final String sseEventsPrefix, final long sseEventsFirstID,
+            final Duration sseBatchingMaxDelay, final int sseBatchingMaxSizeBytes,
+            final Duration sseHeartbeatInterval) {
         super();
         Validate.notNull(dataStream, "Data stream cannot be null");
         Validate.isTrue(dataStreamBufferSizeElements > 0, "Data Buffer Size cannot be <= 0");
+        Validate.isTrue(minDataStreamBufferSizeElements > 0, "Min Data Buffer Size cannot be <= 0");
+        Validate.isTrue(
+                minDataStreamBufferSizeElements <= dataStreamBufferSizeElements &&
+                dataStreamBufferSizeElements <= maxDataStreamBufferSizeElements,
+                "Data Buffer Size must be between Min and Max Data Buffer Sizes");
         // The prefix for SSE events CAN be null
         Validate.isTrue(sseEventsFirstID >= 0L, "First Event ID cannot be < 0");
+        Validate.isTrue(
+                sseBatchingMaxDelay == null || !(sseBatchingMaxDelay.isNegative() || sseBatchingMaxDelay.isZero()),
+                "SSE Batching Max Delay must be null or > 0");
+        Validate.isTrue(sseBatchingMaxSizeBytes > 0, "SSE Batching Max Size cannot be <= 0");
+        Validate.isTrue(
+                sseHeartbeatInterval == null || !(sseHeartbeatInterval.isNegative() || sseHeartbeatInterval.isZero()),
+                "SSE Heartbeat Interval must be null or > 0");
         this.dataStream = dataStream;
         this.dataStreamBufferSizeElements = dataStreamBufferSizeElements;
+        this.minDataStreamBufferSizeElements = minDataStreamBufferSizeElements;
+        this.maxDataStreamBufferSizeElements = maxDataStreamBufferSizeElements;
         this.sseEventsPrefix = sseEventsPrefix;
         this.sseEventsFirstID = sseEventsFirstID;
+        this.sseBatchingMaxDelay = sseBatchingMaxDelay;
+        this.sseBatchingMaxSizeBytes = sseBatchingMaxSizeBytes;
+        this.sseHeartbeatInterval = sseHeartbeatInterval;
     }
 
 
@@ -307,6 +464,18 @@ public final int getBufferSizeElements() {
     }
 
 
+    @Override
+    public final int getMinBufferSizeElements() {
+        return this.minDataStreamBufferSizeElements;
+    }
+
+
+    @Override
+    public final int getMaxBufferSizeElements() {
+        return this.maxDataStreamBufferSizeElements;
+    }
+
+
     @Override
     public final String getSseEventsPrefix() {
         return this.sseEventsPrefix;
@@ -318,4 +487,22 @@ public final long getSseEventsFirstID() {
         return this.sseEventsFirstID;
     }
 
+
+    @Override
+    public final Duration getSseBatchingMaxDelay() {
+        return this.sseBatchingMaxDelay;
+    }
+
+
+    @Override
+    public final int getSseBatchingMaxSizeBytes() {
+        return this.sseBatchingMaxSizeBytes;
+    }
+
+
+    @Override
+    public final Duration getSseHeartbeatInterval() {
+        return this.sseHeartbeatInterval;
+    }
+
 }
@@ -19,12 +19,21 @@
  */
 package org.thymeleaf.spring6;
 
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 import org.reactivestreams.Publisher;
@@ -33,6 +42,7 @@
 import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.thymeleaf.IThrottledTemplateProcessor;
 import org.thymeleaf.TemplateEngine;
@@ -46,12 +56,14 @@
 import org.thymeleaf.engine.ThrottledTemplateProcessor;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.spring6.context.Contexts;
+import org.thymeleaf.spring6.context.webflux.IReactiveAdaptiveDataDriverContextVariable;
 import org.thymeleaf.spring6.context.webflux.IReactiveDataDriverContextVariable;
 import org.thymeleaf.spring6.context.webflux.IReactiveSSEDataDriverContextVariable;
 import org.thymeleaf.util.LoggingUtils;
 import org.thymeleaf.web.IWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import static org.thymeleaf.spring6.SpringWebFluxTemplateEngine.DataDrivenFluxStep.FluxStepPhase.DATA_DRIVEN_PHASE_BUFFER;
 import static org.thymeleaf.spring6.SpringWebFluxTemplateEngine.DataDrivenFluxStep.FluxStepPhase.DATA_DRIVEN_PHASE_HEAD;
@@ -82,6 +94,67 @@
     private static final String LOG_CATEGORY_DATADRIVEN_INPUT = SpringWebFluxTemplateEngine.class.getName() + ".UPSTREAM.DATA-DRIVEN";
     private static final String LOG_CATEGORY_DATADRIVEN_OUTPUT = SpringWebFluxTemplateEngine.class.getName() + ".DOWNSTREAM.DATA-DRIVEN";
 
+    /**
+     * <p>
+     *   Name of the logger that will output the buffer sizes chosen for adaptive data-driver variables (see
+     *   {@link IReactiveAdaptiveDataDriverContextVariable}), along with the time and output size measured for
+     *   each buffer, at {@code DEBUG} level.
+     * </p>
+     * <p>
+     *   The value of this constant is
+     *   {@code org.thymeleaf.spring6.SpringWebFluxTemplateEngine.DATA-DRIVEN-BUFFER-SIZE}. This allows you to set
+     *   a specific configuration and/or appenders for this info at your logging system configuration.
+     * </p>
+     *
+     * @since 3.1.2
+     */
+    public static final String DATA_DRIVEN_BUFFER_SIZE_LOGGER_NAME =
+            SpringWebFluxTemplateEngine.class.getName() + ".DATA-DRIVEN-BUFFER-SIZE";
+    private static final Logger bufferSizeLogger = LoggerFactory.getLogger(DATA_DRIVEN_BUFFER_SIZE_LOGGER_NAME);
+
+    // Size of the buffers FULL mode output will be written into once the first one (which is allocated with
+    // a small size, so that small outputs do not waste memory) is full. As many as needed will be used.
+    private static final int FULL_MODE_BUFFER_SIZE = 8192;
+
+    // Limits for the sizes of the buffers allocated for CHUNKED and DATA-DRIVEN mode output, which are estimated
+    // per template from the sizes of the chunks previously produced for it (but never larger than the max chunk size)
+    private static final int CHUNK_BUFFER_SIZE_MIN = 256;
+    private static final int CHUNK_BUFFER_SIZE_INITIAL = 4096;
+    private static final int CHUNK_SIZE_ESTIMATES_MAX_TEMPLATES = 1000;
+
+    // Max number of DATA-DRIVEN steps whose output will be waited for in order to coalesce them into a single buffer
+    private static final int COALESCING_MAX_STEPS = 64;
+
+    // Targets for the execution of each buffer of adaptive data-driver variables: the size of these buffers will be
+    // adjusted so that executing each one of them takes approximately this time and produces approximately this
+    // amount of output (the response max chunk size is used instead if there is one).
+    private static final long ADAPTIVE_BUFFER_TARGET_NANOS = 2000000L; // 2ms
+    private static final long ADAPTIVE_BUFFER_TARGET_BYTES = 65536L;
+
+    // Comment frame sent as heartbeat in idle SSE streams (comments are ignored by EventSource clients)
+    private static final String SSE_HEARTBEAT = ":\n\n";
+
+    // Max number of templates that will be remembered as not cacheable (so that they are not resolved in advance)
+    private static final int NON_CACHEABLE_TEMPLATES_MAX_SIZE = 500;
+
+
+
+
+    private Scheduler templateResolutionScheduler = null;
+    // Templates currently being resolved and parsed at the template resolution scheduler (if any)
+    private final ConcurrentHashMap<TemplateSpec,Mono<Void>> templatesInResolution =
+            new ConcurrentHashMap<TemplateSpec, Mono<Void>>(16);
+    // Templates found not to be cacheable when resolved in advance, so that this is not attempted again for them
+    private final ConcurrentHashMap<TemplateSpec,Boolean> nonCacheableTemplates =
+            new ConcurrentHashMap<TemplateSpec, Boolean>(16);
+
+    private Duration dataDrivenCoalescingMaxDelay = null;
+    // Estimated chunk output sizes for each template, for each of the CHUNKED and DATA-DRIVEN modes
+    private final ConcurrentHashMap<String,ChunkSizeEstimate> chunkedSizeEstimates =
+            new ConcurrentHashMap<String, ChunkSizeEstimate>(16);
+    private final ConcurrentHashMap<String,ChunkSizeEstimate> dataDrivenSizeEstimates =
+            new ConcurrentHashMap<String, ChunkSizeEstimate>(16);
+
 
 
 
@@ -92,6 +165,109 @@ public SpringWebFluxTemplateEngine() {
 
 
 
+    /**
+     * <p>
+     *   Returns the scheduler that will be used for resolving and parsing templates that are not
+     *   found at the template cache when creating a stream, if any.
+     * </p>
+     * <p>
+     *   See {@link #setTemplateResolutionScheduler(Scheduler)} for more info.
+     * </p>
+     *
+     * @return the template resolution scheduler, or {@code null} if none has been set.
+     *
+     * @since 3.1.2
+     */
+    public Scheduler getTemplateResolutionScheduler() {
+        return this.templateResolutionScheduler;
+    }
+
+
+    /**
+     * <p>
+     *   Sets the scheduler that will be used for resolving and parsing templates that are not found
+     *   at the template cache when creating a stream.
+     * </p>
+     * <p>
+     *   Reading template resources normally involves blocking I/O, which should not be performed at the
+     *   threads used by reactive servers (e.g. Netty event loops). When a scheduler is set, the template cache
+     *   will be checked before subscribing to the stream returned by
+     *   {@link #processStream(String, Set, IContext, DataBufferFactory, MediaType, Charset, int)}, and if the template
+     *   is not found there, it will be resolved and parsed (and cached) at this scheduler before the stream is
+     *   subscribed. Concurrent requests for the same template will wait for a single resolution.
+     * </p>
+     * <p>
+     *   Note that in such case the first output of the stream will be produced from one of the threads of
+     *   this scheduler. Also note that only the template being processed is resolved in advance: fragments
+     *   inserted from other templates will be resolved as they are needed during processing.
+     * </p>
+     * <p>
+     *   Templates that are not cacheable cannot be resolved in advance, because they have to be resolved and parsed
+     *   again each time they are processed. For these, the stream itself is subscribed at this scheduler, so that
+     *   its first step (in which the template is resolved and parsed) is executed there. Subsequent steps of
+     *   CHUNKED and DATA-DRIVEN streams are executed from the threads requesting them.
+     * </p>
+     * <p>
+     *   This should be a bounded scheduler appropriate for blocking tasks, such as
+     *   {@code Schedulers.boundedElastic()}. Default is {@code null}: templates are resolved and parsed
+     *   from the thread that subscribes to the stream.
+     * </p>
+     *
+     * @param templateResolutionScheduler the template resolution scheduler (can be null).
+     *
+     * @since 3.1.2
+     */
+    public void setTemplateResolutionScheduler(final Scheduler templateResolutionScheduler) {
+        this.templateResolutionScheduler = templateResolutionScheduler;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the maximum time the output of a data-driven step will be held in order to coalesce it
+     *   with the output of the steps following it, if any.
+     * </p>
+     * <p>
+     *   See {@link #setDataDrivenCoalescingMaxDelay(Duration)} for more info.
+     * </p>
+     *
+     * @return the maximum coalescing delay, or {@code null} if data-driven output is not coalesced.
+     *
+     * @since 3.1.2
+     */
+    public Duration getDataDrivenCoalescingMaxDelay() {
+        return this.dataDrivenCoalescingMaxDelay;
+    }
+
+
+    /**
+     * <p>
+     *   Sets the maximum time the output of a data-driven step will be held in order to coalesce it
+     *   with the output of the steps following it.
+     * </p>
+     * <p>
+     *   In data-driven mode, each buffer of elements published by the data-driver produces its own output
+     *   buffer, which for small buffers of elements (or small per-element markup) means many small network
+     *   writes. When a delay is set, the outputs of consecutive steps produced within that delay will be
+     *   joined into as few buffers as possible, none of them larger than the response max chunk size. This
+     *   trades a bounded increase in latency (including time to first byte) for fewer, larger writes.
+     * </p>
+     * <p>
+     *   Default is {@code null}: the output of each data-driven step is sent downstream as soon as it
+     *   is produced.
+     * </p>
+     *
+     * @param dataDrivenCoalescingMaxDelay the maximum coalescing delay (can be null).
+     *
+     * @since 3.1.2
+     */
+    public void setDataDrivenCoalescingMaxDelay(final Duration dataDrivenCoalescingMaxDelay) {
+        this.dataDrivenCoalescingMaxDelay = dataDrivenCoalescingMaxDelay;
+    }
+
+
+
+
     @Override
     public Publisher<DataBuffer> processStream(
             final String template, final Set<String> markupSelectors, final IContext context,
@@ -129,6 +305,84 @@ public Publisher<DataBuffer> processStream(
             return Flux.error(new IllegalArgumentException("Max Chunk Size cannot be zero"));
         }
 
+        /*
+         * CHECK IF THE TEMPLATE NEEDS TO BE RESOLVED BEFORE PROCESSING (in order to avoid blocking while processing)
+         */
+        if (this.templateResolutionScheduler != null) {
+            final TemplateSpec templateSpec;
+            try {
+                templateSpec = new TemplateSpec(template, markupSelectors, (String) null, null);
+                if (!getConfiguration().getTemplateManager().isTemplateCached(templateSpec)) {
+                    final Flux<DataBuffer> stream =
+                            Flux.defer(() ->
+                                    createStream(template, markupSelectors, context, bufferFactory, mediaType, charset, responseMaxChunkSizeBytes));
+                    if (this.nonCacheableTemplates.containsKey(templateSpec)) {
+                        // Requests are not moved to the scheduler: only the first step needs to resolve the template
+                        return stream.subscribeOn(this.templateResolutionScheduler, false);
+                    }
+                    // Once resolved, the stream is subscribed from the scheduler, so if the template turns out not
+                    // to be cacheable its first step will also be executed there
+                    return resolveTemplate(templateSpec).thenMany(stream);
+                }
+            } catch (final Throwable t) {
+                return Flux.error(t);
+            }
+        }
+
+        return createStream(template, markupSelectors, context, bufferFactory, mediaType, charset, responseMaxChunkSizeBytes);
+
+    }
+
+
+
+
+    private Mono<Void> resolveTemplate(final TemplateSpec templateSpec) {
+
+        Mono<Void> resolution = this.templatesInResolution.get(templateSpec);
+
+        if (resolution == null) {
+
+            final Mono<Void> newResolution =
+                    Mono.<Void>fromRunnable(() -> {
+                            if (logger.isTraceEnabled()) {
+                                logger.trace("[THYMELEAF][{}] RESOLVING AND PARSING TEMPLATE \"{}\" BEFORE STREAM PROCESS",
+                                        new Object[]{TemplateEngine.threadIndex(), LoggingUtils.loggifyTemplateName(templateSpec.getTemplate())});
+                            }
+                            try {
+                                if (!getConfiguration().getTemplateManager().parseAndCache(templateSpec)) {
+                                    if (this.nonCacheableTemplates.size() >= NON_CACHEABLE_TEMPLATES_MAX_SIZE) {
+                                        this.nonCacheableTemplates.clear();
+                                    }
+                                    this.nonCacheableTemplates.put(templateSpec, Boolean.TRUE);
+                                }
+                            } finally {
+                                this.templatesInResolution.remove(templateSpec);
+                            }
+                        })
+                        .subscribeOn(this.templateResolutionScheduler)
+                        // Executed only once, whatever the number of requests waiting for this template
+                        .cache();
+
+            resolution = this.templatesInResolution.putIfAbsent(templateSpec, newResolution);
+            if (resolution == null) {
+                resolution = newResolution;
+            }
+
+        }
+
+        // Requests waiting for the same resolution should not continue their processing in the same thread
+        return resolution.publishOn(this.templateResolutionScheduler);
+
+    }
+
+
+
+
+    private Publisher<DataBuffer> createStream(
+            final String template, final Set<String> markupSelectors, final IContext context,
+            final DataBufferFactory bufferFactory, final MediaType mediaType, final Charset charset,
+            final int responseMaxChunkSizeBytes) {
+
         // Normalize the chunk size in bytes (MAX_VALUE == no limit)
         final int chunkSizeBytes = (responseMaxChunkSizeBytes < 0? Integer.MAX_VALUE : responseMaxChunkSizeBytes);
 
@@ -189,15 +443,20 @@ private Mono<DataBuffer> createFullStream(
                                         new Object[]{TemplateEngine.threadIndex(), LoggingUtils.loggifyTemplateName(templateName), context.getLocale()});
                             }
 
-                            final DataBuffer dataBuffer = bufferFactory.allocateBuffer(1024);
-                            // OutputStreamWriter object have an 8K buffer, but process(...) will flush it at the end
-                            final OutputStreamWriter writer = new OutputStreamWriter(dataBuffer.asOutputStream(), charset);
+                            // Output is encoded directly into a sequence of fixed-size buffers that are never
+                            // reallocated, and which will be joined at the end (without copying, if the buffer
+                            // factory supports composite buffers)
+                            final DataBufferSequenceWriter writer =
+                                    new DataBufferSequenceWriter(bufferFactory, charset, FULL_MODE_BUFFER_SIZE);
 
+                            final DataBuffer dataBuffer;
                             try {
 
                                 process(templateName, markupSelectors, context, writer);
+                                dataBuffer = writer.finish();
 
                             } catch (final Throwable t) {
+                                writer.release();
                                 logger.error(
                                         String.format(
                                                 "[THYMELEAF][%s] Exception processing template \"%s\": %s",
@@ -234,6 +493,8 @@ private Flux<DataBuffer> createChunkedStream(
             final String templateName, final Set<String> markupSelectors, final IContext context,
             final DataBufferFactory bufferFactory, final Charset charset, final int responseMaxChunkSizeBytes) {
 
+        final ChunkSizeEstimate sizeEstimate = chunkSizeEstimate(this.chunkedSizeEstimates, templateName);
+
         final Flux<DataBuffer> stream = Flux.generate(
 
                 // Using the throttledProcessor as state in this Flux.generate allows us to delay the
@@ -261,17 +522,22 @@ private Flux<DataBuffer> createChunkedStream(
                                         LoggingUtils.loggifyTemplateName(templateName), context.getLocale()});
                     }
 
-                    final DataBuffer buffer = bufferFactory.allocateBuffer(responseMaxChunkSizeBytes);
+                    // Buffer will grow if needed, but we try to allocate only what we expect to be used
+                    final DataBuffer buffer =
+                            bufferFactory.allocateBuffer(sizeEstimate.allocationSize(responseMaxChunkSizeBytes));
 
                     final int bytesProduced;
                     try {
                         bytesProduced =
                                 throttledProcessor.process(responseMaxChunkSizeBytes, buffer.asOutputStream(), charset);
                     } catch (final Throwable t) {
+                        DataBufferUtils.release(buffer);
                         emitter.error(t);
                         return null;
                     }
 
+                    sizeEstimate.record(bytesProduced);
+
                     if (logger.isTraceEnabled()) {
                         logger.trace(
                                 "[THYMELEAF][{}][{}] FINISHED PARTIAL STREAM PROCESS (CHUNKED MODE, THROTTLER ID " +
@@ -304,7 +570,11 @@ private Flux<DataBuffer> createChunkedStream(
 
                     return throttledProcessor;
 
-                });
+                },
+
+                // If the stream is cancelled before processing finishes, resources held by processing (like
+                // streams being iterated) are released. Once processing has finished, this has no effect.
+                StreamThrottledTemplateProcessor::dispose);
 
         // Will add some logging to the data stream
         return stream.log(LOG_CATEGORY_CHUNKED_OUTPUT, Level.FINEST);
@@ -329,6 +599,30 @@ private Flux<DataBuffer> createDataDrivenStream(
         final long sseEventsID =
                 (dataDriver instanceof IReactiveSSEDataDriverContextVariable?
                         ((IReactiveSSEDataDriverContextVariable) dataDriver).getSseEventsFirstID() : 0L);
+        final Duration sseBatchingMaxDelay =
+                (sse && dataDriver instanceof IReactiveSSEDataDriverContextVariable?
+                        ((IReactiveSSEDataDriverContextVariable) dataDriver).getSseBatchingMaxDelay() : null);
+        final int sseBatchingMaxSizeBytes =
+                (sse && dataDriver instanceof IReactiveSSEDataDriverContextVariable?
+                        ((IReactiveSSEDataDriverContextVariable) dataDriver).getSseBatchingMaxSizeBytes() : Integer.MAX_VALUE);
+        final Duration sseHeartbeatInterval =
+                (sse && dataDriver instanceof IReactiveSSEDataDriverContextVariable?
+                        ((IReactiveSSEDataDriverContextVariable) dataDriver).getSseHeartbeatInterval() : null);
+        final AdaptiveBufferSize adaptiveBufferSize;
+        if (dataDriver instanceof IReactiveAdaptiveDataDriverContextVariable &&
+                ((IReactiveAdaptiveDataDriverContextVariable) dataDriver).getMinBufferSizeElements() <
+                        ((IReactiveAdaptiveDataDriverContextVariable) dataDriver).getMaxBufferSizeElements()) {
+            final IReactiveAdaptiveDataDriverContextVariable adaptiveDataDriver =
+                    (IReactiveAdaptiveDataDriverContextVariable) dataDriver;
+            adaptiveBufferSize =
+                    new AdaptiveBufferSize(
+                            bufferSizeElements, adaptiveDataDriver.getMinBufferSizeElements(),
+                            adaptiveDataDriver.getMaxBufferSizeElements(),
+                            (responseMaxChunkSizeBytes != Integer.MAX_VALUE ?
+                                    responseMaxChunkSizeBytes : ADAPTIVE_BUFFER_TARGET_BYTES));
+        } else {
+            adaptiveBufferSize = null;
+        }
         final ReactiveAdapterRegistry reactiveAdapterRegistry;
         if (Contexts.isSpringWebFluxWebContext(context)) {
             reactiveAdapterRegistry =
@@ -341,12 +635,25 @@ private Flux<DataBuffer> createDataDrivenStream(
         // STEP 2: Replace the data driver variable with a DataDrivenTemplateIterator
         final DataDrivenTemplateIterator dataDrivenIterator = new DataDrivenTemplateIterator();
         final IContext wrappedContext = applyDataDriverWrapper(context, dataDriverVariableName, dataDrivenIterator);
+        final ChunkSizeEstimate sizeEstimate = chunkSizeEstimate(this.dataDrivenSizeEstimates, templateName);
 
 
         // STEP 3: Create the data stream buffers, plus add some logging in order to know how the stream is being used
+        //         (if buffer size is adaptive, each buffer will be closed when it reaches the size current at the time)
+        final Flux<Object> dataDrivenStream = Flux.from(dataDriver.getDataStream(reactiveAdapterRegistry));
         final Flux<List<Object>> dataDrivenBufferedStream =
-                Flux.from(dataDriver.getDataStream(reactiveAdapterRegistry))
-                        .buffer(bufferSizeElements)
+                (adaptiveBufferSize != null ?
+                        Flux.defer(() -> {
+                            final int[] bufferedElements = new int[] { 0 };
+                            return dataDrivenStream.bufferUntil(value -> {
+                                if (++bufferedElements[0] < adaptiveBufferSize.getBufferSizeElements()) {
+                                    return false;
+                                }
+                                bufferedElements[0] = 0;
+                                return true;
+                            });
+                          }) :
+                        dataDrivenStream.buffer(bufferSizeElements))
                         .log(LOG_CATEGORY_DATADRIVEN_INPUT, Level.FINEST);
 
 
@@ -398,7 +705,7 @@ private Flux<DataBuffer> createDataDrivenStream(
                                     return DATA_DRIVEN_PHASE_BUFFER;
 
                                 case DATA_DRIVEN_PHASE_BUFFER:
-                                    emitter.next(dataDrivenBufferedStream.map(values -> DataDrivenFluxStep.forBuffer(throttledProcessor, values)));
+                                    emitter.next(createBufferSteps(dataDrivenBufferedStream, throttledProcessor, sseHeartbeatInterval));
                                     return DATA_DRIVEN_PHASE_TAIL;
 
                                 case DATA_DRIVEN_PHASE_TAIL:
@@ -412,14 +719,15 @@ private Flux<DataBuffer> createDataDrivenStream(
                         }
                 )),
 
-                // No need to explicitly dispose the throttled template processor.
+                // No need to dispose the throttled template processor here: this flux might complete before all its
+                // steps have been executed, so disposal on cancellation is performed by the steps (see STEP 5).
                 throttledProcessor -> { /* Nothing to be done here! */ });
 
 
         // STEP 5: React to each buffer of published data by creating one or many (concatMap) DataBuffers containing
         //         the result of processing only that buffer.
         final Flux<DataBuffer> stream = dataDrivenWithContextStream.concatMap(
-                (step) -> Flux.generate(
+                (step) -> Flux.<DataBuffer, Boolean>generate(
 
                         // We set initialize to TRUE as a state, so that the first step executed for this Flux
                         // performs the initialization of the dataDrivenIterator for the entire Flux. It is a need
@@ -446,6 +754,14 @@ private Flux<DataBuffer> createDataDrivenStream(
                                 return Boolean.FALSE;
                             }
 
+                            // Heartbeats are output between steps, so they will never be found in the middle of an
+                            // event. No processing of the template is needed for them.
+                            if (step.isHeartbeat()) {
+                                emitter.next(bufferFactory.wrap(SSE_HEARTBEAT.getBytes(charset)));
+                                emitter.complete();
+                                return Boolean.FALSE;
+                            }
+
                             // Initialize the dataDrivenIterator. This is a lateral effect, this variable is mutable,
                             // so it is important to do it here so that we make sure it is executed in the right order.
                             if (initialize.booleanValue()) {
@@ -483,10 +799,12 @@ private Flux<DataBuffer> createDataDrivenStream(
                                                 LoggingUtils.loggifyTemplateName(templateName), context.getLocale()});
                             }
 
+                            // Buffer will grow if needed, but we try to allocate only what we expect to be used
                             final DataBuffer buffer =
-                                    (responseMaxChunkSizeBytes != Integer.MAX_VALUE ?
-                                            bufferFactory.allocateBuffer(responseMaxChunkSizeBytes) :
-                                            bufferFactory.allocateBuffer(1024));
+                                    bufferFactory.allocateBuffer(sizeEstimate.allocationSize(responseMaxChunkSizeBytes));
+
+                            final boolean measure = (adaptiveBufferSize != null && step.isDataBuffer());
+                            final long startNanos = (measure ? System.nanoTime() : 0L);
 
                             final int bytesProduced;
                             try {
@@ -495,10 +813,16 @@ private Flux<DataBuffer> createDataDrivenStream(
                                         throttledProcessor.process(responseMaxChunkSizeBytes, buffer.asOutputStream(), charset);
 
                             } catch (final Throwable t) {
+                                DataBufferUtils.release(buffer);
                                 emitter.error(t);
                                 return Boolean.FALSE;
                             }
 
+                            sizeEstimate.record(bytesProduced);
+                            if (measure) {
+                                adaptiveBufferSize.recordExecution(System.nanoTime() - startNanos, bytesProduced);
+                            }
+
 
                             if (logger.isTraceEnabled()) {
                                 logger.trace(
@@ -576,23 +900,178 @@ private Flux<DataBuffer> createDataDrivenStream(
                             // If step finished, we have ot emit 'complete' now, giving the opportunity to execute
                             // again if processing has finished, but we still have some overflow to be flushed
                             if (phaseFinished && stepOutputFinished) {
+                                if (measure) {
+                                    adaptBufferSize(
+                                            adaptiveBufferSize, step.getValues().size(), throttledProcessor, templateName);
+                                }
                                 emitter.complete();
                             }
 
 
                             return Boolean.FALSE;
 
-                        }));
-
+                        })
+                        // If the stream is cancelled while a step is being executed, resources held by processing
+                        // (like streams being iterated) are released.
+                        .doOnCancel(() -> step.getThrottledProcessor().dispose()));
+
+
+        // STEP 6: If configured, coalesce the outputs of consecutive steps into larger buffers. Each window will
+        //         be closed after a max number of steps or a max delay, whichever happens first, and the outputs
+        //         in a window will be sent as soon as they reach the max size. SSE batching (if configured at the
+        //         data-driver variable) takes precedence over the coalescing configuration of the engine.
+        final Duration coalescingMaxDelay =
+                (sseBatchingMaxDelay != null ? sseBatchingMaxDelay : this.dataDrivenCoalescingMaxDelay);
+        final int coalescingMaxSizeBytes =
+                (sseBatchingMaxDelay != null ?
+                        Math.min(sseBatchingMaxSizeBytes, responseMaxChunkSizeBytes) : responseMaxChunkSizeBytes);
+        final Flux<DataBuffer> coalescedStream;
+        if (coalescingMaxDelay != null) {
+            coalescedStream =
+                    stream.windowTimeout(COALESCING_MAX_STEPS, coalescingMaxDelay, true)
+                          .concatMap(window -> Flux.defer(() -> {
+                              final long[] windowBytes = new long[] { 0L };
+                              return window.bufferUntil(buffer -> {
+                                  windowBytes[0] += buffer.readableByteCount();
+                                  if (windowBytes[0] < coalescingMaxSizeBytes) {
+                                      return false;
+                                  }
+                                  windowBytes[0] = 0L;
+                                  return true;
+                              });
+                            }))
+                          .concatMapIterable(buffers -> coalesce(buffers, bufferFactory, responseMaxChunkSizeBytes))
+                          .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        } else {
+            coalescedStream = stream;
+        }
 
         // Will add some logging to the data flow
-        return stream.log(LOG_CATEGORY_DATADRIVEN_OUTPUT, Level.FINEST);
+        return coalescedStream.log(LOG_CATEGORY_DATADRIVEN_OUTPUT, Level.FINEST);
+
+    }
+
+
+
+
+    /*
+     * Creates the flux of steps for the buffers of data-driver values. If a heartbeat interval has been specified (SSE),
+     * a heartbeat step will be added each time that interval passes without any buffer of values being available.
+     */
+    private static Flux<DataDrivenFluxStep> createBufferSteps(
+            final Flux<List<Object>> dataDrivenBufferedStream, final StreamThrottledTemplateProcessor throttledProcessor,
+            final Duration heartbeatInterval) {
+
+        final Flux<DataDrivenFluxStep> bufferSteps =
+                dataDrivenBufferedStream.map(values -> DataDrivenFluxStep.forBuffer(throttledProcessor, values));
+
+        if (heartbeatInterval == null) {
+            return bufferSteps;
+        }
+
+        // The interval is restarted with each buffer step, and ticks are dropped if there is no demand for them,
+        // as that means output is already pending to be consumed (so the stream is not idle).
+        return bufferSteps.publish(steps ->
+                Flux.merge(
+                        steps,
+                        steps.map(step -> Boolean.TRUE).startWith(Boolean.TRUE)
+                                .switchMap(restart -> Flux.interval(heartbeatInterval, heartbeatInterval).onBackpressureDrop())
+                                .map(tick -> DataDrivenFluxStep.forHeartbeat(throttledProcessor))
+                                .takeUntilOther(steps.then())));
+
+    }
+
+
+
+
+    /*
+     * Adapts the size of the next buffers of an adaptive data-driver once a buffer has been completely processed,
+     * and outputs the chosen size to the corresponding logger.
+     */
+    private static void adaptBufferSize(
+            final AdaptiveBufferSize adaptiveBufferSize, final int bufferElements,
+            final StreamThrottledTemplateProcessor throttledProcessor, final String templateName) {
+
+        final long stepNanos = adaptiveBufferSize.getStepNanos();
+        final long stepBytes = adaptiveBufferSize.getStepBytes();
+        final int newBufferSizeElements = adaptiveBufferSize.stepFinished(bufferElements);
+
+        if (bufferSizeLogger.isDebugEnabled()) {
+            bufferSizeLogger.debug(
+                    "[THYMELEAF][{}][{}] DATA-DRIVEN BUFFER OF {} ELEMENTS FOR TEMPLATE \"{}\" PROCESSED IN {} " +
+                            "NANOSECONDS, PRODUCING {} BYTES. NEXT BUFFER SIZE: {} ELEMENTS",
+                    new Object[]{
+                            TemplateEngine.threadIndex(), throttledProcessor.getProcessorIdentifier(),
+                            Integer.valueOf(bufferElements), LoggingUtils.loggifyTemplateName(templateName),
+                            Long.valueOf(stepNanos), Long.valueOf(stepBytes), Integer.valueOf(newBufferSizeElements)});
+        }
 
     }
 
 
 
 
+    /*
+     * Returns the chunk size estimate for a template, creating it if needed. The number of templates for which
+     * estimates are kept is limited so that, e.g., templates with dynamically-generated names do not make this
+     * grow without bounds (in such case, an estimate starting from scratch is returned).
+     */
+    private static ChunkSizeEstimate chunkSizeEstimate(
+            final ConcurrentHashMap<String,ChunkSizeEstimate> estimates, final String templateName) {
+        final ChunkSizeEstimate estimate = estimates.get(templateName);
+        if (estimate != null) {
+            return estimate;
+        }
+        if (estimates.size() >= CHUNK_SIZE_ESTIMATES_MAX_TEMPLATES) {
+            return new ChunkSizeEstimate();
+        }
+        return estimates.computeIfAbsent(templateName, name -> new ChunkSizeEstimate());
+    }
+
+
+
+
+    /*
+     * Joins a list of consecutive output buffers into as few buffers as possible, none of them larger than the
+     * max chunk size (unless one of the original ones already was). Empty buffers are simply released.
+     */
+    private static List<DataBuffer> coalesce(
+            final List<DataBuffer> buffers, final DataBufferFactory bufferFactory, final int responseMaxChunkSizeBytes) {
+
+        final List<DataBuffer> result = new ArrayList<DataBuffer>(2);
+        final List<DataBuffer> group = new ArrayList<DataBuffer>(buffers.size());
+        long groupSize = 0L;
+
+        for (final DataBuffer buffer : buffers) {
+            final int size = buffer.readableByteCount();
+            if (size == 0) {
+                DataBufferUtils.release(buffer);
+                continue;
+            }
+            if (!group.isEmpty() && groupSize + size > responseMaxChunkSizeBytes) {
+                result.add(join(group, bufferFactory));
+                group.clear();
+                groupSize = 0L;
+            }
+            group.add(buffer);
+            groupSize += size;
+        }
+        if (!group.isEmpty()) {
+            result.add(join(group, bufferFactory));
+        }
+
+        return result;
+
+    }
+
+
+    private static DataBuffer join(final List<DataBuffer> buffers, final DataBufferFactory bufferFactory) {
+        return (buffers.size() == 1 ? buffers.get(0) : bufferFactory.join(new ArrayList<DataBuffer>(buffers)));
+    }
+
+
+
+
     /*
      * This method will apply a wrapper on the data driver variable so that a DataDrivenTemplateIterator takes
      * the place of the original data-driver variable. This is done via a wrapper in order to not perform such a
@@ -657,6 +1136,277 @@ private static String findDataDriverInModel(final IContext context) {
 
 
 
+    /*
+     * Size of the buffers created from an adaptive data-driver variable. After each buffer is processed, its size is
+     * adjusted so that processing a buffer takes approximately the target time and produces approximately the
+     * target amount of output, estimated from the time and output measured for the last one. In order to avoid
+     * oscillations, the size can only be doubled or halved each time, and never out of the configured bounds.
+     *
+     * NOTE the buffer size is read from the thread publishing the data-driver values, but measurements are only
+     * performed and applied from the (sequential) execution of the data-driven steps.
+     */
+    static final class AdaptiveBufferSize {
+
+        private final int minBufferSizeElements;
+        private final int maxBufferSizeElements;
+        private final long targetBytes;
+        private volatile int bufferSizeElements;
+        private long stepNanos;
+        private long stepBytes;
+
+        AdaptiveBufferSize(
+                final int bufferSizeElements, final int minBufferSizeElements, final int maxBufferSizeElements,
+                final long targetBytes) {
+            super();
+            this.bufferSizeElements = bufferSizeElements;
+            this.minBufferSizeElements = minBufferSizeElements;
+            this.maxBufferSizeElements = maxBufferSizeElements;
+            this.targetBytes = targetBytes;
+            this.stepNanos = 0L;
+            this.stepBytes = 0L;
+        }
+
+        int getBufferSizeElements() {
+            return this.bufferSizeElements;
+        }
+
+        long getStepNanos() {
+            return this.stepNanos;
+        }
+
+        long getStepBytes() {
+            return this.stepBytes;
+        }
+
+        void recordExecution(final long nanos, final int bytes) {
+            this.stepNanos += nanos;
+            this.stepBytes += bytes;
+        }
+
+        int stepFinished(final int bufferElements) {
+
+            final int currentBufferSizeElements = this.bufferSizeElements;
+
+            long target = this.maxBufferSizeElements;
+            if (this.stepNanos > 0L) {
+                target = Math.min(target, ADAPTIVE_BUFFER_TARGET_NANOS * bufferElements / this.stepNanos);
+            }
+            if (this.stepBytes > 0L) {
+                target = Math.min(target, this.targetBytes * bufferElements / this.stepBytes);
+            }
+
+            final long lowest = Math.max(this.minBufferSizeElements, currentBufferSizeElements / 2);
+            final long highest = Math.min(this.maxBufferSizeElements, currentBufferSizeElements * 2L);
+            final int newBufferSizeElements = (int) Math.max(lowest, Math.min(highest, target));
+
+            this.bufferSizeElements = newBufferSizeElements;
+            this.stepNanos = 0L;
+            this.stepBytes = 0L;
+
+            return newBufferSizeElements;
+
+        }
+
+    }
+
+
+
+
+    /*
+     * Estimate of the size of the chunks produced for a template, computed as a moving average of the sizes of
+     * the chunks already produced for it, and used for sizing the buffers allocated for its output. Updates are
+     * not synchronized: concurrent executions of the same template might lose some samples, which is harmless.
+     */
+    static final class ChunkSizeEstimate {
+
+        private volatile int average = -1;
+
+        ChunkSizeEstimate() {
+            super();
+        }
+
+        int allocationSize(final int responseMaxChunkSizeBytes) {
+            final int currentAverage = this.average;
+            // Give some room (25%) over the average so that buffers do not need to grow in most cases
+            long size = (currentAverage < 0 ?
+                    CHUNK_BUFFER_SIZE_INITIAL : (long) currentAverage + (currentAverage >> 2));
+            size = ((size + CHUNK_BUFFER_SIZE_MIN - 1) / CHUNK_BUFFER_SIZE_MIN) * CHUNK_BUFFER_SIZE_MIN;
+            return (int) Math.min(size, (long) responseMaxChunkSizeBytes);
+        }
+
+        void record(final int bytesProduced) {
+            if (bytesProduced <= 0) {
+                // Empty chunks (e.g. when waiting for data) are not representative
+                return;
+            }
+            final int currentAverage = this.average;
+            this.average =
+                    (currentAverage < 0 ? bytesProduced : currentAverage + ((bytesProduced - currentAverage) >> 2));
+        }
+
+    }
+
+
+
+
+    /*
+     * This internal class is a Writer that encodes its output into a reusable heap byte buffer, from which it is
+     * written into a sequence of DataBuffers obtained from the buffer factory, allocating a new one each time the
+     * current one is full. This avoids the reallocation (and copy) of the contents of a single DataBuffer as it
+     * grows, and makes no assumptions about the memory of the DataBuffers (which might not be directly accessible
+     * as a ByteBuffer).
+     *
+     * NOTE this class is not thread-safe, it is meant to be used for FULL mode, in which all output is produced
+     * in a single step.
+     */
+    static final class DataBufferSequenceWriter extends Writer {
+
+        private final DataBufferFactory bufferFactory;
+        private final int bufferSize;
+        private final CharsetEncoder encoder;
+        private final List<DataBuffer> buffers;
+        private DataBuffer buffer;
+        // Chars are accumulated here before being encoded in order to avoid the overhead of calling the encoder
+        // for each (normally small) write operation.
+        private final char[] pending;
+        private int pendingLen;
+        // Encoded bytes, before being written into the DataBuffers
+        private final ByteBuffer encoded;
+
+        DataBufferSequenceWriter(final DataBufferFactory bufferFactory, final Charset charset, final int bufferSize) {
+            super();
+            this.bufferFactory = bufferFactory;
+            this.bufferSize = bufferSize;
+            // Same behaviour as an OutputStreamWriter regarding malformed or unmappable input
+            this.encoder =
+                    charset.newEncoder()
+                            .onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.buffers = new ArrayList<DataBuffer>(4);
+            this.buffer = this.bufferFactory.allocateBuffer(1024);
+            this.buffers.add(this.buffer);
+            this.pending = new char[1024];
+            this.pendingLen = 0;
+            this.encoded = ByteBuffer.allocate((int) Math.ceil(this.pending.length * this.encoder.maxBytesPerChar()));
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            if (this.pendingLen == this.pending.length) {
+                encodePending(false);
+            }
+            this.pending[this.pendingLen++] = (char) c;
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) throws IOException {
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (this.pendingLen == this.pending.length) {
+                    encodePending(false);
+                }
+                final int n = Math.min(remaining, this.pending.length - this.pendingLen);
+                str.getChars(offset, offset + n, this.pending, this.pendingLen);
+                this.pendingLen += n;
+                offset += n;
+                remaining -= n;
+            }
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (this.pendingLen == this.pending.length) {
+                    encodePending(false);
+                }
+                final int n = Math.min(remaining, this.pending.length - this.pendingLen);
+                System.arraycopy(cbuf, offset, this.pending, this.pendingLen, n);
+                this.pendingLen += n;
+                offset += n;
+                remaining -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            encodePending(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Nothing to do: output is obtained by means of finish()
+        }
+
+        DataBuffer finish() throws IOException {
+            encodePending(true);
+            while (true) {
+                final CoderResult result = this.encoder.flush(this.encoded);
+                writeEncoded();
+                if (!result.isOverflow()) {
+                    break;
+                }
+            }
+            if (this.buffers.size() == 1) {
+                return this.buffer;
+            }
+            return this.bufferFactory.join(this.buffers);
+        }
+
+        void release() {
+            for (final DataBuffer dataBuffer : this.buffers) {
+                DataBufferUtils.release(dataBuffer);
+            }
+            this.buffers.clear();
+        }
+
+        private void encodePending(final boolean endOfInput) throws IOException {
+            final CharBuffer in = CharBuffer.wrap(this.pending, 0, this.pendingLen);
+            while (true) {
+                final CoderResult result = this.encoder.encode(in, this.encoded, endOfInput);
+                writeEncoded();
+                if (result.isUnderflow()) {
+                    break;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                // Overflow: the encoded bytes have already been written, so encoding can go on
+            }
+            // Some chars might remain unencoded (e.g. the first half of a surrogate pair) until more input arrives
+            final int remaining = in.remaining();
+            if (remaining > 0) {
+                System.arraycopy(this.pending, in.position(), this.pending, 0, remaining);
+            }
+            this.pendingLen = remaining;
+        }
+
+        private void writeEncoded() {
+            final byte[] bytes = this.encoded.array();
+            final int len = this.encoded.position();
+            int offset = 0;
+            while (offset < len) {
+                int writable = this.buffer.writableByteCount();
+                if (writable == 0) {
+                    this.buffer = this.bufferFactory.allocateBuffer(this.bufferSize);
+                    this.buffers.add(this.buffer);
+                    writable = this.buffer.writableByteCount();
+                }
+                // Never more than what fits, so that DataBuffers are not reallocated in order to grow
+                final int n = Math.min(len - offset, writable);
+                this.buffer.write(bytes, offset, n);
+                offset += n;
+            }
+            this.encoded.clear();
+        }
+
+    }
+
+
+
+
     /*
      * This internal class is meant to be used in multi-step streams so that an account on the total
      * number of bytes and steps/chunks can be kept, and also other aspects such as SSE event management can be offered.
@@ -730,6 +1480,10 @@ boolean isFinished() {
             return this.throttledProcessor.isFinished();
         }
 
+        void dispose() {
+            this.throttledProcessor.dispose();
+        }
+
         void startChunk() {
             this.chunkCount++;
         }
@@ -766,27 +1520,33 @@ enum FluxStepPhase {DATA_DRIVEN_PHASE_HEAD, DATA_DRIVEN_PHASE_BUFFER, DATA_DRIVE
         private final StreamThrottledTemplateProcessor throttledProcessor;
         private final List<Object> values;
         private final FluxStepPhase phase;
+        private final boolean heartbeat;
 
 
         static DataDrivenFluxStep forHead(final StreamThrottledTemplateProcessor throttledProcessor) {
-            return new DataDrivenFluxStep(throttledProcessor, null, DATA_DRIVEN_PHASE_HEAD);
+            return new DataDrivenFluxStep(throttledProcessor, null, DATA_DRIVEN_PHASE_HEAD, false);
         }
 
         static DataDrivenFluxStep forBuffer(final StreamThrottledTemplateProcessor throttledProcessor, final List<Object> values) {
-            return new DataDrivenFluxStep(throttledProcessor, values, DATA_DRIVEN_PHASE_BUFFER);
+            return new DataDrivenFluxStep(throttledProcessor, values, DATA_DRIVEN_PHASE_BUFFER, false);
+        }
+
+        static DataDrivenFluxStep forHeartbeat(final StreamThrottledTemplateProcessor throttledProcessor) {
+            return new DataDrivenFluxStep(throttledProcessor, null, DATA_DRIVEN_PHASE_BUFFER, true);
         }
 
         static DataDrivenFluxStep forTail(final StreamThrottledTemplateProcessor throttledProcessor) {
-            return new DataDrivenFluxStep(throttledProcessor, null, DATA_DRIVEN_PHASE_TAIL);
+            return new DataDrivenFluxStep(throttledProcessor, null, DATA_DRIVEN_PHASE_TAIL, false);
         }
 
         private DataDrivenFluxStep(
                 final StreamThrottledTemplateProcessor throttledProcessor, final List<Object> values,
-                final FluxStepPhase phase) {
+                final FluxStepPhase phase, final boolean heartbeat) {
             super();
             this.throttledProcessor = throttledProcessor;
             this.values = values;
             this.phase = phase;
+            this.heartbeat = heartbeat;
         }
 
         StreamThrottledTemplateProcessor getThrottledProcessor() {
@@ -802,7 +1562,11 @@ boolean isHead() {
         }
 
         boolean isDataBuffer() {
-            return this.phase == DATA_DRIVEN_PHASE_BUFFER;
+            return this.phase == DATA_DRIVEN_PHASE_BUFFER && !this.heartbeat;
+        }
+
+        boolean isHeartbeat() {
+            return this.heartbeat;
         }
 
         boolean isTail() {
@@ -19,6 +19,8 @@
  */
 package org.thymeleaf.spring6.context.webflux;
 
+import java.time.Duration;
+
 /**
  * <p>
  *   Interface to be implemented by context variables wrapping <em>asynchronous objects</em> in the form
@@ -114,4 +116,57 @@ public interface IReactiveSSEDataDriverContextVariable extends IReactiveDataDriv
      */
     public long getSseEventsFirstID();
 
+
+    /**
+     * <p>
+     *   Returns the maximum time the SSE events produced for the data-driver values will be held in order to
+     *   send them to the browser together with the events following them, in a single response buffer.
+     * </p>
+     * <p>
+     *   For high-rate data streams, sending each buffer of events as soon as it is produced means performing
+     *   a network write for each of them. When batching is enabled, complete events will be packed into
+     *   larger response buffers, which will be sent when this delay expires or when they reach the size returned
+     *   by {@link #getSseBatchingMaxSizeBytes()}, whichever happens first.
+     * </p>
+     *
+     * @return the maximum batching delay, or {@code null} (default) if events are not batched.
+     * @since 3.1.2
+     */
+    public default Duration getSseBatchingMaxDelay() {
+        return null;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the size (in bytes) that will make a batch of SSE events be sent to the browser without waiting
+     *   for the batching delay to expire. Only applies if {@link #getSseBatchingMaxDelay()} is not null.
+     * </p>
+     * <p>
+     *   Note response buffers will never be larger than the response max chunk size, if one has been set.
+     * </p>
+     *
+     * @return the maximum size of a batch of events, {@link Integer#MAX_VALUE} (default) if there is no limit.
+     * @since 3.1.2
+     */
+    public default int getSseBatchingMaxSizeBytes() {
+        return Integer.MAX_VALUE;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the interval after which, if no new data has been published by the data-driver, a
+     *   heartbeat will be sent to the browser in the form of an SSE comment ({@code :}). This prevents idle
+     *   connections from being closed by proxies or load balancers without the need of any separate keep-alive
+     *   mechanism. Comments are ignored by {@code EventSource} clients.
+     * </p>
+     *
+     * @return the heartbeat interval, or {@code null} (default) if no heartbeats should be sent.
+     * @since 3.1.2
+     */
+    public default Duration getSseHeartbeatInterval() {
+        return null;
+    }
+
 }
@@ -147,5 +147,29 @@ public interface IThrottledTemplateProcessor {
      */
     public int process(final int maxOutputInBytes, final OutputStream outputStream, final Charset charset);
 
+    /**
+     * <p>
+     *   Releases any resources held by the processing of the template if it is abandoned before it
+     *   finishes (e.g. because the client consuming its output has gone away). Among these resources are the
+     *   {@link java.util.stream.BaseStream} objects being iterated, which will be closed.
+     * </p>
+     * <p>
+     *   The processor should not be used after calling this method. Calling it once processing has finished
+     *   has no effect, as the resources held during processing are released when processing finishes.
+     * </p>
+     * <p>
+     *   NOTE Implementations of this method must be <strong>thread-safe</strong>, as processing might be
+     *   abandoned from a thread other than the one executing it (e.g. a reactive subscriber cancelling).
+     * </p>
+     * <p>
+     *   Default implementation does nothing.
+     * </p>
+     *
+     * @since 3.1.2
+     */
+    public default void dispose() {
+        // Nothing to be done by default
+    }
+
 
 }
@@ -28,6 +28,7 @@
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -247,6 +248,7 @@ public class TemplateEngine implements ITemplateEngine {
     private static final int NANOS_IN_SECOND = 1000000;
 
     private volatile boolean initialized = false;
+    private final ReentrantLock initializationLock = new ReentrantLock();
 
     private final Set<DialectConfiguration> dialectConfigurations = new LinkedHashSet<DialectConfiguration>(3);
     private final Set<ITemplateResolver> templateResolvers = new LinkedHashSet<ITemplateResolver>(3);
@@ -323,7 +325,8 @@ final void initialize() {
 
         if (!this.initialized) {
 
-            synchronized (this) {
+            this.initializationLock.lock();
+            try {
 
                 if (!this.initialized) {
 
@@ -354,6 +357,8 @@ final void initialize() {
 
                 }
 
+            } finally {
+                this.initializationLock.unlock();
             }
 
         }
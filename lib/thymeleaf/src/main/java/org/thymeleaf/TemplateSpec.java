@@ -541,7 +541,7 @@ public boolean equals(final Object o) {
         if (this.templateMode != that.templateMode) {
             return false;
         }
-        if (!this.outputContentType.equals(that.outputContentType)) {
+        if (this.outputContentType != null ? !this.outputContentType.equals(that.outputContentType) : that.outputContentType != null) {
             return false;
         }
         // Note how it is important that template resolution attribute values correctly implement equals() and hashCode()
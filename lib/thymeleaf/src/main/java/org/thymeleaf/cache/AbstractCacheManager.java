@@ -21,6 +21,7 @@
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.thymeleaf.engine.TemplateModel;
 
@@ -45,6 +46,8 @@
 public abstract class AbstractCacheManager implements ICacheManager {
 
 
+    private final ReentrantLock lock = new ReentrantLock();
+
     private volatile ICache<TemplateCacheKey,TemplateModel> templateCache;
     private volatile boolean templateCacheInitialized = false;
 
@@ -59,11 +62,14 @@ protected AbstractCacheManager() {
     
     public final ICache<TemplateCacheKey, TemplateModel> getTemplateCache() {
         if (!this.templateCacheInitialized) {
-            synchronized(this) {
+            this.lock.lock();
+            try {
                 if (!this.templateCacheInitialized) {
                     this.templateCache = initializeTemplateCache();
                     this.templateCacheInitialized = true;
                 }
+            } finally {
+                this.lock.unlock();
             }
         }
         return this.templateCache;
@@ -71,11 +77,14 @@ public final ICache<TemplateCacheKey, TemplateModel> getTemplateCache() {
 
     public final ICache<ExpressionCacheKey, Object> getExpressionCache() {
         if (!this.expressionCacheInitialized) {
-            synchronized(this) {
+            this.lock.lock();
+            try {
                 if (!this.expressionCacheInitialized) {
                     this.expressionCache = initializeExpressionCache();
                     this.expressionCacheInitialized = true;
                 }
+            } finally {
+                this.lock.unlock();
             }
         }
         return this.expressionCache;
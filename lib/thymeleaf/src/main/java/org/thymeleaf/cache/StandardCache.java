@@ -25,6 +25,7 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.thymeleaf.TemplateEngine;
@@ -49,6 +50,7 @@
     private static final String REPORT_FORMAT =
             "[THYMELEAF][*][*][*][CACHE_REPORT] %8s elements | %12s puts | %12s gets | %12s hits | %12s misses | %.2f hit ratio | %.2f miss ratio - [%s]";
     private volatile long lastExecution = System.currentTimeMillis();
+    private final ReentrantLock reportLock = new ReentrantLock();
 
     private final String name;
     private final boolean useSoftReferences;
@@ -329,7 +331,11 @@ private void outputReportIfNeeded() {
 
         final long currentTime = System.currentTimeMillis();
         if ((currentTime - this.lastExecution) >= REPORT_INTERVAL) { // first check without need to sync
-            synchronized (this) {
+            // Note this is a non-blocking attempt: if another thread is already outputting the report, we just skip
+            if (!this.reportLock.tryLock()) {
+                return;
+            }
+            try {
                 if ((currentTime - this.lastExecution) >= REPORT_INTERVAL) {
                     long hitCount = getHitCount();
                     long missCount = getMissCount();
@@ -351,6 +357,8 @@ private void outputReportIfNeeded() {
                                     this.name));
                     this.lastExecution = currentTime;
                 }
+            } finally {
+                this.reportLock.unlock();
             }
         }
 
@@ -373,6 +381,10 @@ private void outputReportIfNeeded() {
         private final Object[] fifo;
         private int fifoPointer;
 
+        // Explicit locks are used instead of monitors so that threads waiting for them (e.g. virtual threads)
+        // can be unmounted from their carrier threads instead of pinning them.
+        private final ReentrantLock lock = new ReentrantLock();
+
 
         CacheDataContainer(final String name, final int initialCapacity,
                 final int maxSize, final boolean traceExecution, final Logger logger) {
@@ -433,13 +445,16 @@ private int putWithoutTracing(final K key, final CacheEntry<V> value) {
             }
 
             if (this.sizeLimit) {
-                synchronized (this.fifo) {
+                this.lock.lock();
+                try {
                     final Object removedKey = this.fifo[this.fifoPointer];
                     if (removedKey != null) {
                         this.container.remove(removedKey);
                     }
                     this.fifo[this.fifoPointer] = key;
                     this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
+                } finally {
+                    this.lock.unlock();
                 }
             }
 
@@ -447,26 +462,31 @@ private int putWithoutTracing(final K key, final CacheEntry<V> value) {
 
         }
 
-        private synchronized int putWithTracing(final K key, final CacheEntry<V> value) {
-
-            final CacheEntry<V> existing = this.container.putIfAbsent(key, value);
-            if (existing == null) {
-                if (this.sizeLimit) {
-                    final Object removedKey = this.fifo[this.fifoPointer];
-                    if (removedKey != null) {
-                        final CacheEntry<V> removed = this.container.remove(removedKey);
-                        if (removed != null) {
-                            final Integer newSize = Integer.valueOf(this.container.size());
-                            this.logger.trace(
-                                    "[THYMELEAF][{}][{}][CACHE_REMOVE][{}] Max size exceeded for cache \"{}\". Removing entry for key \"{}\". New size is {}.",
-                                    new Object[] {TemplateEngine.threadIndex(), this.name, newSize, this.name, removedKey, newSize});
+        private int putWithTracing(final K key, final CacheEntry<V> value) {
+
+            this.lock.lock();
+            try {
+                final CacheEntry<V> existing = this.container.putIfAbsent(key, value);
+                if (existing == null) {
+                    if (this.sizeLimit) {
+                        final Object removedKey = this.fifo[this.fifoPointer];
+                        if (removedKey != null) {
+                            final CacheEntry<V> removed = this.container.remove(removedKey);
+                            if (removed != null) {
+                                final Integer newSize = Integer.valueOf(this.container.size());
+                                this.logger.trace(
+                                        "[THYMELEAF][{}][{}][CACHE_REMOVE][{}] Max size exceeded for cache \"{}\". Removing entry for key \"{}\". New size is {}.",
+                                        new Object[] {TemplateEngine.threadIndex(), this.name, newSize, this.name, removedKey, newSize});
+                            }
                         }
+                        this.fifo[this.fifoPointer] = key;
+                        this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
                     }
-                    this.fifo[this.fifoPointer] = key;
-                    this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
                 }
+                return this.container.size();
+            } finally {
+                this.lock.unlock();
             }
-            return this.container.size();
 
         }
 
@@ -496,22 +516,27 @@ private int removeWithoutTracing(final K key) {
         }
 
 
-        private synchronized int removeWithTracing(final K key) {
-            // FIFO is also updated to avoid 'removed' keys remaining at FIFO (which could end up reducing cache size to 1)
-            final CacheEntry<V> removed = this.container.remove(key);
-            if (removed == null) {
-                // When tracing is active, this means nothing was removed
-                return -1;
-            }
-            if (this.sizeLimit && key != null) {
-                for (int i = 0; i < this.maxSize; i++) {
-                    if (key.equals(this.fifo[i])) {
-                        this.fifo[i] = null;
-                        break;
+        private int removeWithTracing(final K key) {
+            this.lock.lock();
+            try {
+                // FIFO is also updated to avoid 'removed' keys remaining at FIFO (which could end up reducing cache size to 1)
+                final CacheEntry<V> removed = this.container.remove(key);
+                if (removed == null) {
+                    // When tracing is active, this means nothing was removed
+                    return -1;
+                }
+                if (this.sizeLimit && key != null) {
+                    for (int i = 0; i < this.maxSize; i++) {
+                        if (key.equals(this.fifo[i])) {
+                            this.fifo[i] = null;
+                            break;
+                        }
                     }
                 }
+                return this.container.size();
+            } finally {
+                this.lock.unlock();
             }
-            return this.container.size();
         }
 
 
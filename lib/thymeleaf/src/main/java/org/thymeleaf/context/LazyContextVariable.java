@@ -19,6 +19,8 @@
  */
 package org.thymeleaf.context;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * <p>
  *   Basic abstract implementation for the {@link ILazyContextVariable} interface.
@@ -54,6 +56,7 @@
 public abstract class LazyContextVariable<T> implements ILazyContextVariable<T> {
 
 
+    private final ReentrantLock lock = new ReentrantLock();
     private volatile boolean initialized = false;
     private T value;
 
@@ -79,11 +82,14 @@ protected LazyContextVariable() {
      */
     public final T getValue() {
         if (!this.initialized) {
-            synchronized (this) {
+            this.lock.lock();
+            try {
                 if (!this.initialized) {
                     this.value = loadValue();
                     this.initialized = true;
                 }
+            } finally {
+                this.lock.unlock();
             }
         }
         return this.value;
@@ -25,7 +25,10 @@
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.BaseStream;
 
 import org.thymeleaf.IEngineConfiguration;
 import org.thymeleaf.context.IEngineContext;
@@ -56,7 +59,9 @@ enum IterationWhiteSpaceHandling {ZERO_ITER, SINGLE_ITER, MULTIPLE_ITER}
     private final String iterStatusVariableName;
     private final IterationStatusVar iterStatusVariable;
     private final Iterator<?> iterator;
+    private final BaseStream<?,?> iteratedStream;
     private final Text precedingWhitespace;
+    private final ProcessorExecutionVars iterationProcessorExecutionVars;
 
     private IterationModels iterationModels;
 
@@ -81,6 +86,12 @@ enum IterationWhiteSpaceHandling {ZERO_ITER, SINGLE_ITER, MULTIPLE_ITER}
         this.templateMode = context.getTemplateMode();
 
         this.iterator = computeIteratedObjectIterator(iteratedObject);
+        // Streams will be closed once iteration finishes (normally or not), as they might hold resources. If
+        // processing is throttled, the flow controller will close them if it is abandoned before that happens.
+        this.iteratedStream = (iteratedObject instanceof BaseStream<?,?>? (BaseStream<?,?>) iteratedObject : null);
+        if (this.iteratedStream != null && flowController != null) {
+            flowController.registerIteratedStream(this.iteratedStream);
+        }
 
         this.iterVariableName = iterVariableName;
 
@@ -93,9 +104,17 @@ enum IterationWhiteSpaceHandling {ZERO_ITER, SINGLE_ITER, MULTIPLE_ITER}
 
         this.iterStatusVariable = new IterationStatusVar();
         this.iterStatusVariable.index = 0;
-        this.iterStatusVariable.size = computeIteratedObjectSize(iteratedObject);
+        if (iteratedObject == null) {
+            this.iterStatusVariable.size = Integer.valueOf(0);
+        } else {
+            // Size will only be computed if it is actually asked for. Note that for streams and spliterators
+            // the iterator already wraps the spliterator, which is the only one that can tell us the size.
+            this.iterStatusVariable.sizeSource =
+                    (this.iterator instanceof SpliteratorIterator? this.iterator : iteratedObject);
+        }
 
         this.precedingWhitespace = precedingWhitespace;
+        this.iterationProcessorExecutionVars = new ProcessorExecutionVars();
 
         if (this.iterator != null && this.iterator instanceof DataDrivenTemplateIterator) {
             this.dataDrivenIterator = (DataDrivenTemplateIterator) iterator;
@@ -114,14 +133,54 @@ enum IterationWhiteSpaceHandling {ZERO_ITER, SINGLE_ITER, MULTIPLE_ITER}
 
     @Override
     public ProcessorExecutionVars initializeProcessorExecutionVars() {
-        // This will be called once per iteration, so we need to clone it every time it is requested
-        return super.initializeProcessorExecutionVars().cloneVars();
+        // This will be called once per iteration, so we need a fresh copy of the original vars every time it is
+        // requested. Iterations never overlap, so the same object can be reused for all of them.
+        this.iterationProcessorExecutionVars.resetAsCloneOf(super.initializeProcessorExecutionVars());
+        return this.iterationProcessorExecutionVars;
     }
 
 
 
     public boolean process() {
 
+        if (this.iteratedStream == null) {
+            return processIteration();
+        }
+
+        /*
+         * If we are iterating a stream, we need to make sure it is closed once iteration has finished, be it
+         * normally or because of an exception (streams backed by I/O resources like Files.lines(...) or database
+         * cursors will need it). If throttled processing is abandoned while iteration is stopped unfinished, the
+         * stream will be closed when the throttled processor is disposed.
+         */
+        final boolean processed;
+        try {
+            processed = processIteration();
+        } catch (final Throwable t) {
+            closeIteratedStream();
+            throw t;
+        }
+        if (processed) {
+            closeIteratedStream();
+        }
+        return processed;
+
+    }
+
+
+
+    private void closeIteratedStream() {
+        final TemplateFlowController flowController = getFlowController();
+        if (flowController != null) {
+            flowController.unregisterIteratedStream(this.iteratedStream);
+        }
+        this.iteratedStream.close();
+    }
+
+
+
+    private boolean processIteration() {
+
         final TemplateFlowController flowController = getFlowController();
 
         /*
@@ -405,12 +464,10 @@ private boolean processIterationModel(final TemplateFlowController flowControlle
     /*
      * Whenever possible, compute the total size of the iterated object. Note sometimes we will not be able
      * to compute this size without traversing the entire collection/iterator (which we want to avoid), so
-     * null will be returned.
+     * null will be returned. This is called lazily from the iteration status variable, only if the size is
+     * actually needed (and it will never be called for a null iterated object).
      */
-    private static Integer computeIteratedObjectSize(final Object iteratedObject) {
-        if (iteratedObject == null) {
-            return Integer.valueOf(0);
-        }
+    static Integer computeIteratedObjectSize(final Object iteratedObject) {
         if (iteratedObject instanceof Collection<?>) {
             return Integer.valueOf(((Collection<?>) iteratedObject).size());
         }
@@ -420,12 +477,20 @@ private static Integer computeIteratedObjectSize(final Object iteratedObject) {
         if (iteratedObject.getClass().isArray()) {
             return Integer.valueOf(Array.getLength(iteratedObject));
         }
+        if (iteratedObject instanceof SpliteratorIterator) {
+            // Streams and spliterators: we will only know the size if their source was sized
+            final long size = ((SpliteratorIterator) iteratedObject).size;
+            return (size >= 0L && size <= Integer.MAX_VALUE ? Integer.valueOf((int) size) : null);
+        }
         if (iteratedObject instanceof Iterable<?>) {
             return null; // Cannot determine before actually iterating
         }
         if (iteratedObject instanceof Iterator<?>) {
             return null; // Cannot determine before actually iterating
         }
+        if (iteratedObject instanceof Enumeration<?>) {
+            return null; // Cannot determine before actually iterating
+        }
         return Integer.valueOf(1); // In this case, we will iterate the object as a collection of size 1
     }
 
@@ -446,25 +511,7 @@ private static Iterator<?> computeIteratedObjectIterator(final Object iteratedOb
             return ((Map<?,?>)iteratedObject).entrySet().iterator();
         }
         if (iteratedObject.getClass().isArray()) {
-            return new Iterator<Object>() {
-
-                protected final Object array = iteratedObject;
-                protected final int length = Array.getLength(this.array);
-                private int i = 0;
-
-                public boolean hasNext() {
-                    return this.i < this.length;
-                }
-
-                public Object next() {
-                    return Array.get(this.array, i++);
-                }
-
-                public void remove() {
-                    throw new UnsupportedOperationException("Cannot remove from an array iterator");
-                }
-
-            };
+            return computeArrayIterator(iteratedObject);
         }
         if (iteratedObject instanceof Iterable<?>) {
             return ((Iterable<?>)iteratedObject).iterator();
@@ -492,8 +539,12 @@ public void remove() {
 
             };
         }
-        if (iteratedObject instanceof Stream<?>) {
-            return ((Stream<?>)iteratedObject).iterator();
+        if (iteratedObject instanceof BaseStream<?,?>) {
+            // Iteration is performed on the stream's spliterator, which will also let us know its size if possible
+            return new SpliteratorIterator(((BaseStream<?,?>)iteratedObject).spliterator());
+        }
+        if (iteratedObject instanceof Spliterator<?>) {
+            return new SpliteratorIterator((Spliterator<?>)iteratedObject);
         }
         return Collections.singletonList(iteratedObject).iterator();
     }
@@ -501,6 +552,41 @@ public void remove() {
 
 
 
+    /*
+     * Arrays are iterated directly (without reflection) by means of type-specific iterators. Note elements of
+     * primitive arrays still need to be boxed because they will be set as context variables.
+     */
+    private static Iterator<?> computeArrayIterator(final Object array) {
+        if (array instanceof Object[]) {
+            return new ObjectArrayIterator((Object[]) array);
+        }
+        if (array instanceof int[]) {
+            return new IntArrayIterator((int[]) array);
+        }
+        if (array instanceof long[]) {
+            return new LongArrayIterator((long[]) array);
+        }
+        if (array instanceof double[]) {
+            return new DoubleArrayIterator((double[]) array);
+        }
+        if (array instanceof boolean[]) {
+            return new BooleanArrayIterator((boolean[]) array);
+        }
+        if (array instanceof byte[]) {
+            return new ByteArrayIterator((byte[]) array);
+        }
+        if (array instanceof char[]) {
+            return new CharArrayIterator((char[]) array);
+        }
+        if (array instanceof short[]) {
+            return new ShortArrayIterator((short[]) array);
+        }
+        return new FloatArrayIterator((float[]) array);
+    }
+
+
+
+
 
 
 
@@ -705,6 +791,215 @@ private IterationModels computeIterationModels(final IterationWhiteSpaceHandling
 
 
 
+    private abstract static class AbstractArrayIterator implements Iterator<Object> {
+
+        private final int length;
+        int i = 0;
+
+        AbstractArrayIterator(final int length) {
+            super();
+            this.length = length;
+        }
+
+        public final boolean hasNext() {
+            return this.i < this.length;
+        }
+
+        public final Object next() {
+            if (this.i >= this.length) {
+                throw new NoSuchElementException();
+            }
+            return get(this.i++);
+        }
+
+        abstract Object get(final int index);
+
+        public final void remove() {
+            throw new UnsupportedOperationException("Cannot remove from an array iterator");
+        }
+
+    }
+
+
+    private static final class ObjectArrayIterator extends AbstractArrayIterator {
+
+        private final Object[] array;
+
+        ObjectArrayIterator(final Object[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return this.array[index];
+        }
+
+    }
+
+
+    private static final class IntArrayIterator extends AbstractArrayIterator {
+
+        private final int[] array;
+
+        IntArrayIterator(final int[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Integer.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class LongArrayIterator extends AbstractArrayIterator {
+
+        private final long[] array;
+
+        LongArrayIterator(final long[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Long.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class DoubleArrayIterator extends AbstractArrayIterator {
+
+        private final double[] array;
+
+        DoubleArrayIterator(final double[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Double.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class BooleanArrayIterator extends AbstractArrayIterator {
+
+        private final boolean[] array;
+
+        BooleanArrayIterator(final boolean[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Boolean.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class ByteArrayIterator extends AbstractArrayIterator {
+
+        private final byte[] array;
+
+        ByteArrayIterator(final byte[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Byte.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class CharArrayIterator extends AbstractArrayIterator {
+
+        private final char[] array;
+
+        CharArrayIterator(final char[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Character.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class ShortArrayIterator extends AbstractArrayIterator {
+
+        private final short[] array;
+
+        ShortArrayIterator(final short[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Short.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class FloatArrayIterator extends AbstractArrayIterator {
+
+        private final float[] array;
+
+        FloatArrayIterator(final float[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Float.valueOf(this.array[index]);
+        }
+
+    }
+
+
+
+
+    /*
+     * Iterates a spliterator one element at a time, so that streams are never materialized in memory. The
+     * exact size of the spliterator is obtained before starting (it will be -1 if it cannot be known without
+     * traversing), as the spliterator will only report its remaining size once iteration starts.
+     */
+    static final class SpliteratorIterator implements Iterator<Object> {
+
+        final long size;
+        private final Iterator<?> iterator;
+
+        SpliteratorIterator(final Spliterator<?> spliterator) {
+            super();
+            this.size = spliterator.getExactSizeIfKnown();
+            this.iterator = Spliterators.iterator(spliterator);
+        }
+
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        public Object next() {
+            return this.iterator.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove from a stream iterator");
+        }
+
+    }
+
+
+
+
     private static final class IterationModels  {
 
         static IterationModels EMPTY = new IterationModels(null, null, null);
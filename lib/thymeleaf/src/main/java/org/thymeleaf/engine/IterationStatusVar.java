@@ -31,6 +31,7 @@ public final class IterationStatusVar {
     int index;
     Integer size; // it can be null if we don't know the size of the iterated object beforehand!
     Object current;
+    Object sizeSource; // if not null, size has not been computed yet (it will be, lazily, from this object)
 
     IterationStatusVar() {
         super();
@@ -45,10 +46,14 @@ public int getCount() {
     }
 
     public boolean hasSize() {
-        return this.size != null;
+        return getSize() != null;
     }
 
     public Integer getSize() {
+        if (this.sizeSource != null) {
+            this.size = IteratedGatheringModelProcessable.computeIteratedObjectSize(this.sizeSource);
+            this.sizeSource = null;
+        }
         return this.size;
     }
 
@@ -70,13 +75,13 @@ public boolean isFirst() {
     }
 
     public boolean isLast() {
-        return (this.index == this.size - 1);
+        return (this.index == getSize() - 1);
     }
 
     @Override
     public String toString() {
         return "{index = " + this.index + ", count = " + (this.index + 1) +
-                ", size = " + this.size + ", current = " + (this.current == null? "null" : this.current.toString()) + "}";
+                ", size = " + getSize() + ", current = " + (this.current == null? "null" : this.current.toString()) + "}";
     }
 
 }
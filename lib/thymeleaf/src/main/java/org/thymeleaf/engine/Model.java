@@ -60,6 +60,10 @@ final class Model implements IModel {
     IEngineTemplateEvent[] queue;
     int queueSize;
 
+    // Positions of the close tags matching each open tag, lazily computed only if needed for skipping element bodies.
+    // Any modification of the queue will require these to be recomputed.
+    private int[] closeElementIndexes = null;
+
 
 
 
@@ -171,6 +175,7 @@ public void insert(final int pos, final ITemplateEvent event) {
         this.queue[pos] = engineEvent;
 
         this.queueSize++;
+        this.closeElementIndexes = null;
 
     }
 
@@ -192,6 +197,7 @@ public void replace(final int pos, final ITemplateEvent event) {
 
         // Set the new event in its new position
         this.queue[pos] = engineEvent;
+        this.closeElementIndexes = null;
 
     }
 
@@ -225,6 +231,8 @@ public void insertModel(final int pos, final IModel model) {
             this.queue = Arrays.copyOf(this.queue, Math.max(this.queueSize + model.size(), this.queue.length + INITIAL_EVENT_QUEUE_SIZE/2));
         }
 
+        this.closeElementIndexes = null;
+
         if (model instanceof TemplateModel) {
             doInsertTemplateModel(pos, (TemplateModel)model);
         } else if (model instanceof Model) {
@@ -268,18 +276,27 @@ private void doInsertOtherModel(final int pos, final IModel model) {
     public void remove(final int pos) {
         System.arraycopy(this.queue, pos + 1, this.queue, pos, this.queueSize - (pos + 1));
         this.queueSize--;
+        this.closeElementIndexes = null;
     }
 
 
     public void reset() {
         this.queueSize = 0;
+        this.closeElementIndexes = null;
     }
 
 
 
     void process(final ITemplateHandler handler) {
+        final ProcessorTemplateHandler processorTemplateHandler =
+                (handler instanceof ProcessorTemplateHandler ? (ProcessorTemplateHandler) handler : null);
         for (int i = 0; i < this.queueSize; i++) {
             this.queue[i].beHandled(handler);
+            if (processorTemplateHandler != null && this.queue[i] instanceof OpenElementTag &&
+                    processorTemplateHandler.isBodySkipped()) {
+                // The whole body of the element would be discarded, so we directly jump to its close tag
+                i = computeBodySkipPosition(i);
+            }
         }
     }
 
@@ -295,9 +312,18 @@ int process(final ITemplateHandler handler, final int offset, final TemplateFlow
             return 0;
         }
 
+        final ProcessorTemplateHandler processorTemplateHandler =
+                (handler instanceof ProcessorTemplateHandler ? (ProcessorTemplateHandler) handler : null);
+
         int i = offset;
         while (i < this.queueSize && !controller.stopProcessing) {
-            this.queue[i++].beHandled(handler);
+            this.queue[i].beHandled(handler);
+            if (processorTemplateHandler != null && this.queue[i] instanceof OpenElementTag &&
+                    processorTemplateHandler.isBodySkipped()) {
+                // The whole body of the element would be discarded, so we directly jump to its close tag
+                i = computeBodySkipPosition(i);
+            }
+            i++;
         }
 
         return (i - offset);
@@ -305,6 +331,19 @@ int process(final ITemplateHandler handler, final int offset, final TemplateFlow
     }
 
 
+    /*
+     * Returns the position of the last event in the body of the open element at the specified position, so that
+     * processing can continue directly at its close tag. If there is no matching close tag, no events are skipped.
+     */
+    private int computeBodySkipPosition(final int openElementPos) {
+        if (this.closeElementIndexes == null) {
+            this.closeElementIndexes = TemplateModel.computeCloseElementIndexes(this.queue, this.queueSize);
+        }
+        final int closeElementPos = this.closeElementIndexes[openElementPos];
+        return (closeElementPos > openElementPos ? closeElementPos - 1 : openElementPos);
+    }
+
+
 
 
 
@@ -322,6 +361,7 @@ void resetAsCloneOf(final Model model) {
         }
         System.arraycopy(model.queue, 0, this.queue, 0, model.queueSize);
         this.queueSize = model.queueSize;
+        this.closeElementIndexes = null;
     }
 
 
@@ -44,18 +44,57 @@ final class ProcessorExecutionVars {
 
     ProcessorExecutionVars cloneVars() {
         final ProcessorExecutionVars clone = new ProcessorExecutionVars();
-        clone.processorIterator.resetAsCloneOf(this.processorIterator);
+        clone.resetAsCloneOf(this);
+        return clone;
+    }
+
+
+    /*
+     * Re-initializes these vars as a copy of the original ones, reusing the already existing structures (processor
+     * iterator arrays, models) whenever possible. Empty models are considered equivalent to null ones.
+     */
+    void resetAsCloneOf(final ProcessorExecutionVars original) {
+        this.processorIterator.resetAsCloneOf(original.processorIterator);
+        this.modelBefore = resetAsCloneOf(this.modelBefore, original.modelBefore);
+        this.modelAfter = resetAsCloneOf(this.modelAfter, original.modelAfter);
+        this.modelAfterProcessable = original.modelAfterProcessable;
+        this.discardEvent = original.discardEvent;
+        this.skipBody = original.skipBody;
+        this.skipCloseTag = original.skipCloseTag;
+    }
+
+
+    /*
+     * Re-initializes these vars so that they can be used for processing a new element, reusing the already
+     * existing structures whenever possible.
+     */
+    void reset() {
+        this.processorIterator.reset();
         if (this.modelBefore != null) {
-            clone.modelBefore = (Model) this.modelBefore.cloneModel();
+            this.modelBefore.reset();
         }
         if (this.modelAfter != null) {
-            clone.modelAfter = (Model) this.modelAfter.cloneModel();
+            this.modelAfter.reset();
         }
-        clone.modelAfterProcessable = this.modelAfterProcessable;
-        clone.discardEvent = this.discardEvent;
-        clone.skipBody = this.skipBody;
-        clone.skipCloseTag = this.skipCloseTag;
-        return clone;
+        this.modelAfterProcessable = false;
+        this.discardEvent = false;
+        this.skipBody = TemplateModelController.SkipBody.PROCESS;
+        this.skipCloseTag = false;
+    }
+
+
+    private static Model resetAsCloneOf(final Model model, final Model original) {
+        if (original == null || original.size() == 0) {
+            if (model != null) {
+                model.reset();
+            }
+            return model;
+        }
+        if (model == null) {
+            return (Model) original.cloneModel();
+        }
+        model.resetAsCloneOf(original);
+        return model;
     }
 
 }
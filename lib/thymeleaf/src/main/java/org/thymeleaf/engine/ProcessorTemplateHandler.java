@@ -158,6 +158,13 @@ public final class ProcessorTemplateHandler implements ITemplateHandler {
     private IEngineProcessable[] pendingProcessings = null;
     private int pendingProcessingsSize = 0;
 
+    // Processor execution vars are needed for every element with associated processors, but most of them are only
+    // used during the execution of the corresponding handler method. So they will be reused by means of this pool,
+    // which will only grow as much as the nesting of elements being processed at the same time requires. Vars that
+    // are kept for later (throttled) processing are simply never returned to the pool.
+    private ProcessorExecutionVars[] processorExecutionVarsPool = null;
+    private int processorExecutionVarsPoolSize = 0;
+
     // This specific type of processable (used for throttling) does not depend on the specific event being processd,
     // so we can just create one and use it everytime it is needed.
     private DecreaseContextLevelProcessable decreaseContextLevelProcessable = null;
@@ -893,7 +900,7 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
          * model, we will just re-initialize to the original variables, the ones we had before suspending.
          */
         final ProcessorExecutionVars vars =
-                (currentGatheringModel == null? new ProcessorExecutionVars() : currentGatheringModel.initializeProcessorExecutionVars());
+                (currentGatheringModel == null? obtainProcessorExecutionVars() : currentGatheringModel.initializeProcessorExecutionVars());
 
 
         /*
@@ -945,6 +952,7 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
                     }
 
                     // Complete exit of the handler method: no more processing to do from here
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 } else if (tagStructureHandler.setBodyText) {
@@ -971,6 +979,7 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
                     }
 
                     // Complete exit of the handler method: no more processing to do from here
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 } else if (tagStructureHandler.setBodyModel) {
@@ -996,6 +1005,7 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
                     }
 
                     // Complete exit of the handler method: no more processing to do from here
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 } else if (tagStructureHandler.insertBeforeModel) {
@@ -1114,6 +1124,7 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
                     }
 
                     // Nothing else to be done by this handler... let's just queue the rest of the events in this element
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 }
@@ -1217,6 +1228,12 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
             queueProcessable(this.decreaseContextLevelProcessable);
         }
 
+
+        /*
+         * RETURN THE EXECUTION VARS, which are no longer needed
+         */
+        releaseProcessorExecutionVars(currentGatheringModel, vars);
+
     }
 
 
@@ -1289,7 +1306,7 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
          * model, we will just re-initialize to the original variables, the ones we had before suspending.
          */
         final ProcessorExecutionVars vars =
-                (currentGatheringModel == null? new ProcessorExecutionVars() : currentGatheringModel.initializeProcessorExecutionVars());
+                (currentGatheringModel == null? obtainProcessorExecutionVars() : currentGatheringModel.initializeProcessorExecutionVars());
 
 
         /*
@@ -1330,6 +1347,7 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
                             tagStructureHandler.iteratedObject);
 
                     // Nothing else to be done by this handler... let's just queue the rest of the events to be iterated
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 } else if (tagStructureHandler.setBodyText) {
@@ -1493,6 +1511,7 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
                     this.modelController.startGatheringDelayedModel(openElementTag, vars);
 
                     // Nothing else to be done by this handler... let's just queue the rest of the events in this element
+                    releaseProcessorExecutionVars(currentGatheringModel, vars);
                     return;
 
                 }
@@ -1593,6 +1612,12 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
          */
         this.modelController.skip(vars.skipBody, vars.skipCloseTag);
 
+
+        /*
+         * RETURN THE EXECUTION VARS, which are no longer needed
+         */
+        releaseProcessorExecutionVars(currentGatheringModel, vars);
+
     }
 
 
@@ -2177,6 +2202,47 @@ void setCurrentGatheringModel(final IGatheringModelProcessable gatheringModel) {
 
 
 
+    /*
+     * Models being processed will call this after handling an open tag in order to know whether they can directly
+     * jump to the corresponding close tag, because all events in its body would be discarded anyway (e.g. because
+     * of a 'th:if' evaluating as false). This cannot be done if execution is stopped or there is pending work.
+     */
+    boolean isBodySkipped() {
+        return (!this.throttleEngine || (!this.flowController.stopProcessing && this.pendingProcessingsSize == 0)) &&
+                this.modelController.isBodySkipped();
+    }
+
+
+    private ProcessorExecutionVars obtainProcessorExecutionVars() {
+        if (this.processorExecutionVarsPoolSize == 0) {
+            return new ProcessorExecutionVars();
+        }
+        this.processorExecutionVarsPoolSize--;
+        final ProcessorExecutionVars vars = this.processorExecutionVarsPool[this.processorExecutionVarsPoolSize];
+        this.processorExecutionVarsPool[this.processorExecutionVarsPoolSize] = null;
+        vars.reset();
+        return vars;
+    }
+
+
+    private void releaseProcessorExecutionVars(
+            final IGatheringModelProcessable currentGatheringModel, final ProcessorExecutionVars vars) {
+        if (currentGatheringModel != null) {
+            // These vars were not obtained from the pool: they belong to the gathering model being executed
+            return;
+        }
+        if (this.processorExecutionVarsPool == null) {
+            this.processorExecutionVarsPool = new ProcessorExecutionVars[5];
+        }
+        if (this.processorExecutionVarsPoolSize == this.processorExecutionVarsPool.length) {
+            this.processorExecutionVarsPool =
+                    Arrays.copyOf(this.processorExecutionVarsPool, this.processorExecutionVarsPool.length + 5);
+        }
+        this.processorExecutionVarsPool[this.processorExecutionVarsPoolSize] = vars;
+        this.processorExecutionVarsPoolSize++;
+    }
+
+
     private Model resetModel(final Model model, final boolean createIfNull) {
         if (model == null) {
             if (createIfNull) {
@@ -19,6 +19,10 @@
  */
 package org.thymeleaf.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.BaseStream;
+
 /*
  *
  * @author Daniel Fernandez
@@ -31,6 +35,11 @@ final class TemplateFlowController {
     boolean stopProcessing = false;
     boolean processorTemplateHandlerPending = false;
 
+    // Streams being iterated whose iteration has not finished yet. These might hold resources (files,
+    // database cursors...) that need to be released if processing is abandoned before they are exhausted. Access
+    // is synchronized because processing might be abandoned from a thread other than the one executing it.
+    private List<BaseStream<?,?>> iteratedStreams = null;
+
 
 
     TemplateFlowController() {
@@ -38,4 +47,52 @@ final class TemplateFlowController {
     }
 
 
+
+    synchronized void registerIteratedStream(final BaseStream<?,?> iteratedStream) {
+        if (this.iteratedStreams == null) {
+            this.iteratedStreams = new ArrayList<BaseStream<?,?>>(2);
+        }
+        this.iteratedStreams.add(iteratedStream);
+    }
+
+
+    synchronized void unregisterIteratedStream(final BaseStream<?,?> iteratedStream) {
+        if (this.iteratedStreams != null) {
+            this.iteratedStreams.remove(iteratedStream);
+        }
+    }
+
+
+    void closeIteratedStreams() {
+
+        final List<BaseStream<?,?>> streams;
+        synchronized (this) {
+            streams = this.iteratedStreams;
+            this.iteratedStreams = null;
+        }
+
+        if (streams == null) {
+            return;
+        }
+
+        // All streams are closed even if closing any of them fails
+        RuntimeException exception = null;
+        for (final BaseStream<?,?> stream : streams) {
+            try {
+                stream.close();
+            } catch (final RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+
+    }
+
+
 }
\ No newline at end of file
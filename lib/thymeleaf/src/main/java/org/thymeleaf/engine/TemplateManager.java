@@ -175,6 +175,106 @@ public void clearCachesFor(final String template) {
 
 
 
+    /**
+     * <p>
+     *   Checks whether the template specified is already available, parsed, at the template cache. No
+     *   template resolution or parsing will be performed by this method.
+     * </p>
+     * <p>
+     *   Only the template name, template selectors, template mode and template resolution attributes
+     *   of the template specification are taken into account.
+     * </p>
+     *
+     * @param templateSpec the specification of the template.
+     * @return {@code true} if the template is cached, {@code false} if not (or if there is no template cache).
+     *
+     * @since 3.1.2
+     */
+    public boolean isTemplateCached(final TemplateSpec templateSpec) {
+        Validate.notNull(templateSpec, "Template Specification cannot be null");
+        if (this.templateCache == null) {
+            return false;
+        }
+        final TemplateCacheKey cacheKey =
+                new TemplateCacheKey(
+                        null, // ownerTemplate
+                        templateSpec.getTemplate(), templateSpec.getTemplateSelectors(),
+                        0, 0, // lineOffset, colOffset
+                        templateSpec.getTemplateMode(),
+                        templateSpec.getTemplateResolutionAttributes());
+        return this.templateCache.get(cacheKey) != null;
+    }
+
+
+    /**
+     * <p>
+     *   Resolves and parses the template specified, storing the result at the template cache so that
+     *   subsequent executions of the template do not need to resolve it (and read its resource) again.
+     *   Nothing will be done if the template is already cached.
+     * </p>
+     * <p>
+     *   This allows performing template resolution and parsing (which might involve blocking I/O operations)
+     *   at a moment or a thread different from those used for processing the template.
+     * </p>
+     *
+     * @param templateSpec the specification of the template.
+     * @return {@code true} if the template is cached after this call, {@code false} if it is not (because
+     *         it is not cacheable or because there is no template cache).
+     *
+     * @since 3.1.2
+     */
+    public boolean parseAndCache(final TemplateSpec templateSpec) {
+
+        Validate.notNull(templateSpec, "Template Specification cannot be null");
+
+        if (this.templateCache == null) {
+            return false;
+        }
+
+        final String template = templateSpec.getTemplate();
+        final Set<String> templateSelectors = templateSpec.getTemplateSelectors();
+        final TemplateMode templateMode = templateSpec.getTemplateMode();
+        final Map<String, Object> templateResolutionAttributes = templateSpec.getTemplateResolutionAttributes();
+
+        final TemplateCacheKey cacheKey =
+                new TemplateCacheKey(
+                        null, // ownerTemplate
+                        template, templateSelectors,
+                        0, 0, // lineOffset, colOffset
+                        templateMode,
+                        templateResolutionAttributes);
+
+        if (this.templateCache.get(cacheKey) != null) {
+            return true;
+        }
+
+        final TemplateResolution templateResolution =
+                resolveTemplate(this.configuration, null, template, templateResolutionAttributes, true);
+
+        if (!templateResolution.getValidity().isCacheable()) {
+            // Parsing would be useless: the template would have to be parsed again when processed
+            return false;
+        }
+
+        final TemplateData templateData =
+                buildTemplateData(templateResolution, template, templateSelectors, templateMode, true);
+
+        final ModelBuilderTemplateHandler builderHandler = new ModelBuilderTemplateHandler(this.configuration, templateData);
+
+        final ITemplateParser parser = getParserForTemplateMode(templateData.getTemplateMode());
+        parser.parseStandalone(
+                this.configuration,
+                null, template, templateSelectors, templateData.getTemplateResource(),
+                templateData.getTemplateMode(), templateResolution.getUseDecoupledLogic(), builderHandler);
+
+        this.templateCache.put(cacheKey, builderHandler.getModel());
+
+        return true;
+
+    }
+
+
+
 
 
 
@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 import org.thymeleaf.IEngineConfiguration;
 import org.thymeleaf.exceptions.TemplateProcessingException;
@@ -43,6 +44,8 @@ public final class TemplateModel implements IModel {
     final IEngineConfiguration configuration;
     final TemplateData templateData;
     final IEngineTemplateEvent[] queue; // This is final because this IModel is IMMUTABLE
+    // For each open tag, the position of its matching close tag. Used for directly skipping discarded element bodies.
+    private final int[] closeElementIndexes;
 
 
     // Package-protected constructor, because we don't want anyone creating these objects from outside the engine.
@@ -64,6 +67,7 @@ public final class TemplateModel implements IModel {
         this.configuration = configuration;
         this.templateData = templateData;
         this.queue = queue;
+        this.closeElementIndexes = computeCloseElementIndexes(queue, queue.length);
 
     }
 
@@ -132,8 +136,15 @@ public final void reset() {
 
 
     void process(final ITemplateHandler handler) {
+        final ProcessorTemplateHandler processorTemplateHandler =
+                (handler instanceof ProcessorTemplateHandler ? (ProcessorTemplateHandler) handler : null);
         for (int i = 0; i < this.queue.length; i++) {
             this.queue[i].beHandled(handler);
+            if (processorTemplateHandler != null && this.closeElementIndexes[i] > i + 1 &&
+                    processorTemplateHandler.isBodySkipped()) {
+                // The whole body of the element would be discarded, so we directly jump to its close tag
+                i = this.closeElementIndexes[i] - 1;
+            }
         }
     }
 
@@ -149,11 +160,20 @@ int process(final ITemplateHandler handler, final int offset, final TemplateFlow
             return 0;
         }
 
+        final ProcessorTemplateHandler processorTemplateHandler =
+                (handler instanceof ProcessorTemplateHandler ? (ProcessorTemplateHandler) handler : null);
+
         int processed = 0;
 
         for (int i = offset; i < this.queue.length && !controller.stopProcessing; i++) {
             this.queue[i].beHandled(handler);
             processed++;
+            if (processorTemplateHandler != null && this.closeElementIndexes[i] > i + 1 &&
+                    processorTemplateHandler.isBodySkipped()) {
+                // The whole body of the element would be discarded, so we directly jump to its close tag
+                processed += this.closeElementIndexes[i] - (i + 1);
+                i = this.closeElementIndexes[i] - 1;
+            }
         }
 
         return processed;
@@ -161,6 +181,30 @@ int process(final ITemplateHandler handler, final int offset, final TemplateFlow
     }
 
 
+    /*
+     * Computes, for each open tag in the queue, the position of its matching close tag (zero for any other events,
+     * or for open tags with no matching close tag). Tags are matched in the same way the TemplateModelController
+     * does it when skipping bodies, i.e. by nesting level, not considering unmatched close tags.
+     */
+    static int[] computeCloseElementIndexes(final IEngineTemplateEvent[] queue, final int queueSize) {
+        final int[] closeElementIndexes = new int[queueSize];
+        int[] openElementIndexes = new int[16];
+        int level = 0;
+        for (int i = 0; i < queueSize; i++) {
+            final IEngineTemplateEvent event = queue[i];
+            if (event instanceof OpenElementTag) {
+                if (level == openElementIndexes.length) {
+                    openElementIndexes = Arrays.copyOf(openElementIndexes, level * 2);
+                }
+                openElementIndexes[level++] = i;
+            } else if (event instanceof CloseElementTag && !((CloseElementTag) event).isUnmatched() && level > 0) {
+                closeElementIndexes[openElementIndexes[--level]] = i;
+            }
+        }
+        return closeElementIndexes;
+    }
+
+
 
 
     public final IModel cloneModel() {
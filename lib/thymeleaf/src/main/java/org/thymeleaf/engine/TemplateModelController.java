@@ -293,6 +293,15 @@ void skip(final SkipBody skipBody, final boolean skipCloseTag) {
         skipCloseTag(skipCloseTag);
     }
 
+    /*
+     * Returns whether all the events in the body of the element that has just been opened are going to be discarded,
+     * so that they can be directly skipped (only its close tag will need to be handled).
+     */
+    boolean isBodySkipped() {
+        return this.gatheredModel == null && this.modelLevel > 0 && this.skipBody == SkipBody.SKIP_ALL;
+    }
+
+
     private void skipBody(final SkipBody skipBody) {
         this.skipBodyByLevel[this.modelLevel] = skipBody;
         this.skipBody = skipBody;
@@ -155,6 +155,14 @@ private void reportFinish(final String outputType) {
 
 
 
+    @Override
+    public void dispose() {
+        this.flowController.closeIteratedStreams();
+    }
+
+
+
+
     @Override
     public String getProcessorIdentifier() {
         return this.identifier;
@@ -298,6 +306,11 @@ private int process(final int maxOutput, final String outputType) {
 
         }
 
+        if (this.allProcessingFinished) {
+            // Output has been completely written and flushed, so resources in the writer can be released
+            this.writer.release();
+        }
+
         reportFinish(outputType);
 
         return writtenCount;
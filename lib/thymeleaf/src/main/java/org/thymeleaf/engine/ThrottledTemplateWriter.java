@@ -26,6 +26,9 @@
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.thymeleaf.exceptions.TemplateOutputException;
 
@@ -38,11 +41,18 @@
  */
 class ThrottledTemplateWriter extends Writer implements IThrottledTemplateWriterControl {
 
+    // CharsetEncoders are stateful (so they cannot be shared) but not cheap to create, so the ones used by throttled
+    // processors that finish their output are reset and pooled for reuse by new processors on the same charset.
+    private static final int MAX_POOLED_ENCODERS_PER_CHARSET = 32;
+    private static final ConcurrentHashMap<Charset,BlockingQueue<CharsetEncoder>> ENCODER_POOL =
+            new ConcurrentHashMap<Charset, BlockingQueue<CharsetEncoder>>(4, 0.75f, 1);
+
     private final String templateName;
     private final TemplateFlowController flowController;
 
     private IThrottledTemplateWriterAdapter adapter;
     private Writer writer;
+    private CharsetEncoder charsetEncoder;
 
     private boolean flushable;
 
@@ -53,6 +63,7 @@ class ThrottledTemplateWriter extends Writer implements IThrottledTemplateWriter
         this.flowController = flowController;
         this.adapter = null;
         this.writer = null;
+        this.charsetEncoder = null;
         this.flushable = false;
     }
 
@@ -85,7 +96,9 @@ void setOutput(final OutputStream outputStream, final Charset charset, final int
                             128 :
                             // output size could be too small, so we will set a minimum of 16b, and max of 128b
                             Math.min(128, Math.max(16, maxOutputInBytes / 8)));
-            this.adapter = new ThrottledTemplateWriterOutputStreamAdapter(this.templateName, this.flowController, adapterOverflowBufferIncrementBytes);
+            this.adapter =
+                    new ThrottledTemplateWriterOutputStreamAdapter(
+                            this.templateName, this.flowController, adapterOverflowBufferIncrementBytes * 8);
             // We cannot directly use a java.io.OutputStreamWriter here because that class uses a CharsetEncoder
             // underneath that always creates a 8192byte (8KB) buffer, and there is no way to configure that.
             //
@@ -108,7 +121,7 @@ void setOutput(final OutputStream outputStream, final Charset charset, final int
             //
             // Last, note that in order to avoid this 'loss of chars' we will combine this with 'flush' calls at the
             // 'isOverflown()' and 'isStopped()' calls.
-            final CharsetEncoder charsetEncoder = charset.newEncoder();
+            this.charsetEncoder = acquireEncoder(charset);
             int channelBufferSize =
                     (maxOutputInBytes == Integer.MAX_VALUE?
                             1024 :
@@ -117,7 +130,7 @@ void setOutput(final OutputStream outputStream, final Charset charset, final int
                             // will set a minimum of 64b and a max of 512b.
                             Math.min(512, Math.max(64, adapterOverflowBufferIncrementBytes * 2)));
             final WritableByteChannel channel = Channels.newChannel((ThrottledTemplateWriterOutputStreamAdapter)this.adapter);
-            this.writer = Channels.newWriter(channel, charsetEncoder, channelBufferSize);
+            this.writer = Channels.newWriter(channel, this.charsetEncoder, channelBufferSize);
             // Use of a wrapping BufferedWriter is recommended by OutputStreamWriter javadoc for improving efficiency,
             // avoiding frequent converter invocations (note that the character converter also has its own buffer).
             //this.writer = new BufferedWriter(new OutputStreamWriter((ThrottledTemplateWriterOutputStreamAdapter)this.adapter, charset));
@@ -171,6 +184,39 @@ void allow(final int limit) {
     }
 
 
+    /*
+     * Called once all output has been written and flushed, so that the CharsetEncoder used for byte-based
+     * output (if any) can be reused by other throttled processors. No more output can be written after this.
+     */
+    void release() {
+        if (this.charsetEncoder != null) {
+            releaseEncoder(this.charsetEncoder);
+            this.charsetEncoder = null;
+        }
+    }
+
+
+    private static CharsetEncoder acquireEncoder(final Charset charset) {
+        final BlockingQueue<CharsetEncoder> pool = ENCODER_POOL.get(charset);
+        final CharsetEncoder encoder = (pool != null? pool.poll() : null);
+        return (encoder != null? encoder : charset.newEncoder());
+    }
+
+
+    private static void releaseEncoder(final CharsetEncoder encoder) {
+        BlockingQueue<CharsetEncoder> pool = ENCODER_POOL.get(encoder.charset());
+        if (pool == null) {
+            pool = new ArrayBlockingQueue<CharsetEncoder>(MAX_POOLED_ENCODERS_PER_CHARSET);
+            final BlockingQueue<CharsetEncoder> existing = ENCODER_POOL.putIfAbsent(encoder.charset(), pool);
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+        // If the pool is already full, the encoder is simply discarded
+        pool.offer(encoder.reset());
+    }
+
+
 
     @Override
     public void write(final int c) throws IOException {
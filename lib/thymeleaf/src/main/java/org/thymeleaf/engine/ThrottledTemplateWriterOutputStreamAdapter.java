@@ -21,7 +21,6 @@
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Arrays;
 
 import org.thymeleaf.exceptions.TemplateOutputException;
 
@@ -39,18 +38,24 @@
     private final String templateName;
     private final TemplateFlowController flowController;
 
-    // We will use a different increment depending on the size of the chunks asked by the throttled template
+    // We will use a different segment size depending on the size of the chunks asked by the throttled template
     // client. This is a complex setup because this adapter will be fed by a byte array channel acting as a
     // Writer -> OutputStream bridge that will in fact have its own buffer, and due to this we will need at least
     // the same size as the buffer in this channel (in fact, a bit more) if we don't want to be continuously growing
-    // our overflow buffer. So if chunks are x in size, the channel's buffer will be x/4, and we will have an overflow
-    // of (x/8)*3, growing in chunks of x/8.
+    // our overflow buffer. So if chunks are x in size, the channel's buffer will be x/4, and our overflow will be
+    // stored in segments of x bytes.
+    // Segments are kept in a ring so that growing the overflow never needs copying the already-overflown bytes,
+    // and segments drained by allow() stay allocated for reuse by subsequent overflows.
     // See the implementation of this mechanism at ThrottledTemplateWriter for more info.
-    private final int overflowIncrementInBytes;
+    private final int overflowSegmentSize;
 
     private OutputStream os;
 
-    private byte[] overflow;
+    private byte[][] overflow;
+    private int overflowHead;       // ring position of the first segment in use
+    private int overflowSegments;   // number of segments in use
+    private int overflowReadPos;    // read position in the first segment in use
+    private int overflowWritePos;   // write position in the last segment in use
     private int overflowSize;
     private int maxOverflowSize;
     private int overflowGrowCount;
@@ -61,12 +66,16 @@
 
 
     ThrottledTemplateWriterOutputStreamAdapter(
-            final String templateName, final TemplateFlowController flowController, final int overflowIncrementInBytes) {
+            final String templateName, final TemplateFlowController flowController, final int overflowSegmentSizeInBytes) {
         super();
         this.templateName = templateName;
         this.flowController = flowController;
-        this.overflowIncrementInBytes = overflowIncrementInBytes;
+        this.overflowSegmentSize = overflowSegmentSizeInBytes;
         this.overflow = null;
+        this.overflowHead = 0;
+        this.overflowSegments = 0;
+        this.overflowReadPos = 0;
+        this.overflowWritePos = 0;
         this.overflowSize = 0;
         this.maxOverflowSize = 0;
         this.overflowGrowCount = 0;
@@ -127,20 +136,16 @@ public void allow(final int limit) {
         try {
 
             if (this.unlimited || this.limit > this.overflowSize) {
-                this.os.write(this.overflow, 0, this.overflowSize);
+                final int overflowSize = this.overflowSize;
+                drainOverflow(overflowSize);
                 if (!this.unlimited) {
-                    this.limit -= this.overflowSize;
+                    this.limit -= overflowSize;
                 }
-                this.writtenCount += this.overflowSize;
-                this.overflowSize = 0;
+                this.writtenCount += overflowSize;
                 return;
             }
 
-            this.os.write(this.overflow, 0, this.limit);
-            if (this.limit < this.overflowSize) {
-                System.arraycopy(this.overflow, this.limit, this.overflow, 0, this.overflowSize - this.limit);
-            }
-            this.overflowSize -= this.limit;
+            drainOverflow(this.limit);
             this.writtenCount += this.limit;
             this.limit = 0;
             this.flowController.stopProcessing = true;
@@ -224,8 +229,10 @@ public void write(final byte[] bytes) throws IOException {
 
 
     private void overflow(final int c) {
-        ensureOverflowCapacity(1);
-        this.overflow[this.overflowSize] = (byte)c;
+        if (this.overflowSegments == 0 || this.overflowWritePos == this.overflowSegmentSize) {
+            addOverflowSegment();
+        }
+        this.overflow[lastOverflowSegment()][this.overflowWritePos++] = (byte)c;
         this.overflowSize++;
         if (this.overflowSize > this.maxOverflowSize) {
             this.maxOverflowSize = this.overflowSize;
@@ -234,8 +241,18 @@ private void overflow(final int c) {
 
 
     private void overflow(final byte[] bytes, final int off, final int len) {
-        ensureOverflowCapacity(len);
-        System.arraycopy(bytes, off, this.overflow, this.overflowSize, len);
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.overflowSegments == 0 || this.overflowWritePos == this.overflowSegmentSize) {
+                addOverflowSegment();
+            }
+            final int n = Math.min(remaining, this.overflowSegmentSize - this.overflowWritePos);
+            System.arraycopy(bytes, offset, this.overflow[lastOverflowSegment()], this.overflowWritePos, n);
+            this.overflowWritePos += n;
+            offset += n;
+            remaining -= n;
+        }
         this.overflowSize += len;
         if (this.overflowSize > this.maxOverflowSize) {
             this.maxOverflowSize = this.overflowSize;
@@ -245,24 +262,52 @@ private void overflow(final byte[] bytes, final int off, final int len) {
 
 
 
-    private void ensureOverflowCapacity(final int len) {
+    private int lastOverflowSegment() {
+        return (this.overflowHead + this.overflowSegments - 1) % this.overflow.length;
+    }
+
+
+    private void addOverflowSegment() {
         if (this.overflow == null) {
-            int bufferInitialSize = this.overflowIncrementInBytes * 3;
-            while (bufferInitialSize < len) {
-                bufferInitialSize += this.overflowIncrementInBytes;
+            this.overflow = new byte[][] { new byte[this.overflowSegmentSize] };
+        } else if (this.overflowSegments == this.overflow.length) {
+            // All segments are in use, so a new one is needed: enlarge the ring, unwrapping it so that it starts
+            // at position 0 and the new segment is placed right after the last one in use.
+            final byte[][] newOverflow = new byte[this.overflow.length + 1][];
+            for (int i = 0; i < this.overflowSegments; i++) {
+                newOverflow[i] = this.overflow[(this.overflowHead + i) % this.overflow.length];
             }
-            this.overflow = new byte[bufferInitialSize];
-            return;
-        }
-        final int targetLen = this.overflowSize + len;
-        if (this.overflow.length < targetLen) {
-            int newLen = this.overflow.length;
-            do {
-                newLen += this.overflowIncrementInBytes;
-            } while (newLen < targetLen);
-            this.overflow = Arrays.copyOf(this.overflow, newLen);
+            newOverflow[this.overflowSegments] = new byte[this.overflowSegmentSize];
+            this.overflow = newOverflow;
+            this.overflowHead = 0;
             this.overflowGrowCount++;
         }
+        this.overflowSegments++;
+        this.overflowWritePos = 0;
+    }
+
+
+    private void drainOverflow(final int len) throws IOException {
+        int remaining = len;
+        while (remaining > 0) {
+            final int segmentEnd = (this.overflowSegments == 1? this.overflowWritePos : this.overflowSegmentSize);
+            final int n = Math.min(remaining, segmentEnd - this.overflowReadPos);
+            this.os.write(this.overflow[this.overflowHead], this.overflowReadPos, n);
+            this.overflowReadPos += n;
+            this.overflowSize -= n;
+            remaining -= n;
+            if (this.overflowReadPos == segmentEnd) {
+                // Segment fully drained: it stays allocated in the ring, available for reuse
+                this.overflowReadPos = 0;
+                if (this.overflowSegments == 1) {
+                    this.overflowSegments = 0;
+                    this.overflowWritePos = 0;
+                } else {
+                    this.overflowHead = (this.overflowHead + 1) % this.overflow.length;
+                    this.overflowSegments--;
+                }
+            }
+        }
     }
 
 
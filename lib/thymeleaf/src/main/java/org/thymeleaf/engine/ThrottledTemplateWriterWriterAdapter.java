@@ -21,7 +21,6 @@
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Arrays;
 
 import org.thymeleaf.exceptions.TemplateOutputException;
 
@@ -36,17 +35,23 @@
         extends Writer
         implements ThrottledTemplateWriter.IThrottledTemplateWriterAdapter {
 
-    // Given we will be directly writing chars we will use a 256-char buffer as a sensible, approximate
+    // Given we will be directly writing chars we will use 1024-char segments as a sensible, approximate
     // measure of the amount of overflow we will need, given the only influencing factor for us is
     // the size of the structures being written to this writer (elements, texts, etc.)
-    private static int OVERFLOW_BUFFER_INCREMENT = 256;
+    // Segments are kept in a ring so that growing the overflow never needs copying the already-overflown chars,
+    // and segments drained by allow() stay allocated for reuse by subsequent overflows.
+    private static final int OVERFLOW_SEGMENT_SIZE = 1024;
 
     private final String templateName;
     private final TemplateFlowController flowController;
 
     private Writer writer;
 
-    private char[] overflow;
+    private char[][] overflow;
+    private int overflowHead;       // ring position of the first segment in use
+    private int overflowSegments;   // number of segments in use
+    private int overflowReadPos;    // read position in the first segment in use
+    private int overflowWritePos;   // write position in the last segment in use
     private int overflowSize;
     private int maxOverflowSize;
     private int overflowGrowCount;
@@ -61,6 +66,10 @@
         this.templateName = templateName;
         this.flowController = flowController;
         this.overflow = null;
+        this.overflowHead = 0;
+        this.overflowSegments = 0;
+        this.overflowReadPos = 0;
+        this.overflowWritePos = 0;
         this.overflowSize = 0;
         this.maxOverflowSize = 0;
         this.overflowGrowCount = 0;
@@ -121,20 +130,16 @@ public void allow(final int limit) {
         try {
 
             if (this.unlimited || this.limit > this.overflowSize) {
-                this.writer.write(this.overflow, 0, this.overflowSize);
+                final int overflowSize = this.overflowSize;
+                drainOverflow(overflowSize);
                 if (!this.unlimited) {
-                    this.limit -= this.overflowSize;
+                    this.limit -= overflowSize;
                 }
-                this.writtenCount += this.overflowSize;
-                this.overflowSize = 0;
+                this.writtenCount += overflowSize;
                 return;
             }
 
-            this.writer.write(this.overflow, 0, this.limit);
-            if (this.limit < this.overflowSize) {
-                System.arraycopy(this.overflow, this.limit, this.overflow, 0, this.overflowSize - this.limit);
-            }
-            this.overflowSize -= this.limit;
+            drainOverflow(this.limit);
             this.writtenCount += this.limit;
             this.limit = 0;
             this.flowController.stopProcessing = true;
@@ -266,8 +271,10 @@ public void write(final char[] cbuf, final int off, final int len) throws IOExce
 
 
     private void overflow(final int c) {
-        ensureOverflowCapacity(1);
-        this.overflow[this.overflowSize] = (char)c;
+        if (this.overflowSegments == 0 || this.overflowWritePos == OVERFLOW_SEGMENT_SIZE) {
+            addOverflowSegment();
+        }
+        this.overflow[lastOverflowSegment()][this.overflowWritePos++] = (char)c;
         this.overflowSize++;
         if (this.overflowSize > this.maxOverflowSize) {
             this.maxOverflowSize = this.overflowSize;
@@ -276,8 +283,18 @@ private void overflow(final int c) {
 
 
     private void overflow(final String str, final int off, final int len) {
-        ensureOverflowCapacity(len);
-        str.getChars(off, off + len, this.overflow, this.overflowSize);
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.overflowSegments == 0 || this.overflowWritePos == OVERFLOW_SEGMENT_SIZE) {
+                addOverflowSegment();
+            }
+            final int n = Math.min(remaining, OVERFLOW_SEGMENT_SIZE - this.overflowWritePos);
+            str.getChars(offset, offset + n, this.overflow[lastOverflowSegment()], this.overflowWritePos);
+            this.overflowWritePos += n;
+            offset += n;
+            remaining -= n;
+        }
         this.overflowSize += len;
         if (this.overflowSize > this.maxOverflowSize) {
             this.maxOverflowSize = this.overflowSize;
@@ -286,8 +303,18 @@ private void overflow(final String str, final int off, final int len) {
 
 
     private void overflow(final char[] cbuf, final int off, final int len) {
-        ensureOverflowCapacity(len);
-        System.arraycopy(cbuf, off, this.overflow, this.overflowSize, len);
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.overflowSegments == 0 || this.overflowWritePos == OVERFLOW_SEGMENT_SIZE) {
+                addOverflowSegment();
+            }
+            final int n = Math.min(remaining, OVERFLOW_SEGMENT_SIZE - this.overflowWritePos);
+            System.arraycopy(cbuf, offset, this.overflow[lastOverflowSegment()], this.overflowWritePos, n);
+            this.overflowWritePos += n;
+            offset += n;
+            remaining -= n;
+        }
         this.overflowSize += len;
         if (this.overflowSize > this.maxOverflowSize) {
             this.maxOverflowSize = this.overflowSize;
@@ -297,16 +324,52 @@ private void overflow(final char[] cbuf, final int off, final int len) {
 
 
 
-    private void ensureOverflowCapacity(final int len) {
+    private int lastOverflowSegment() {
+        return (this.overflowHead + this.overflowSegments - 1) % this.overflow.length;
+    }
+
+
+    private void addOverflowSegment() {
         if (this.overflow == null) {
-            this.overflow = new char[((len / OVERFLOW_BUFFER_INCREMENT) + 1) * OVERFLOW_BUFFER_INCREMENT];
-            return;
-        }
-        final int targetLen = this.overflowSize + len;
-        if (this.overflow.length < targetLen) {
-            this.overflow = Arrays.copyOf(this.overflow, ((targetLen / OVERFLOW_BUFFER_INCREMENT) + 1) * OVERFLOW_BUFFER_INCREMENT);
+            this.overflow = new char[][] { new char[OVERFLOW_SEGMENT_SIZE] };
+        } else if (this.overflowSegments == this.overflow.length) {
+            // All segments are in use, so a new one is needed: enlarge the ring, unwrapping it so that it starts
+            // at position 0 and the new segment is placed right after the last one in use.
+            final char[][] newOverflow = new char[this.overflow.length + 1][];
+            for (int i = 0; i < this.overflowSegments; i++) {
+                newOverflow[i] = this.overflow[(this.overflowHead + i) % this.overflow.length];
+            }
+            newOverflow[this.overflowSegments] = new char[OVERFLOW_SEGMENT_SIZE];
+            this.overflow = newOverflow;
+            this.overflowHead = 0;
             this.overflowGrowCount++;
         }
+        this.overflowSegments++;
+        this.overflowWritePos = 0;
+    }
+
+
+    private void drainOverflow(final int len) throws IOException {
+        int remaining = len;
+        while (remaining > 0) {
+            final int segmentEnd = (this.overflowSegments == 1? this.overflowWritePos : OVERFLOW_SEGMENT_SIZE);
+            final int n = Math.min(remaining, segmentEnd - this.overflowReadPos);
+            this.writer.write(this.overflow[this.overflowHead], this.overflowReadPos, n);
+            this.overflowReadPos += n;
+            this.overflowSize -= n;
+            remaining -= n;
+            if (this.overflowReadPos == segmentEnd) {
+                // Segment fully drained: it stays allocated in the ring, available for reuse
+                this.overflowReadPos = 0;
+                if (this.overflowSegments == 1) {
+                    this.overflowSegments = 0;
+                    this.overflowWritePos = 0;
+                } else {
+                    this.overflowHead = (this.overflowHead + 1) % this.overflow.length;
+                    this.overflowSegments--;
+                }
+            }
+        }
     }
 
 
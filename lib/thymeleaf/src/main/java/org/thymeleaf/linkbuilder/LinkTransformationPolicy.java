@@ -0,0 +1,60 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.linkbuilder;
+
+/**
+ * <p>
+ *   Policies that can be applied by {@link StandardLinkBuilder} for deciding whether the links it builds
+ *   should be transformed by the web exchange (i.e. {@code HttpServletResponse.encodeURL(url)} in Servlet
+ *   environments) before being output.
+ * </p>
+ * <p>
+ *   URL transformation is mainly used for URL-based session tracking (adding {@code ;jsessionid=...} to links),
+ *   and it is performed for every link built in a web environment by default. Applications that never use
+ *   URL-based session tracking can avoid the cost of these calls by selecting a different policy.
+ * </p>
+ *
+ * @see StandardLinkBuilder#setLinkTransformationPolicy(LinkTransformationPolicy)
+ *
+ * @since 3.1.2
+ *
+ */
+public enum LinkTransformationPolicy {
+
+    /**
+     * Every link is transformed by the web exchange (default).
+     */
+    ALWAYS,
+
+    /**
+     * Links are never transformed by the web exchange.
+     */
+    NEVER,
+
+    /**
+     * The first context-relative or server-relative link built for each request is transformed by the web exchange
+     * and, if that transformation has no effect on it, no other links will be transformed for the rest of the
+     * request. Any other links (e.g. absolute ones) built before it are transformed, but do not take part in this
+     * decision. Note this means that URL rewriting for sessions created while a template is being rendered will only start being
+     * applied in the next request.
+     */
+    ONCE_PER_REQUEST
+
+}
@@ -19,17 +19,17 @@
  */
 package org.thymeleaf.linkbuilder;
 
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import org.thymeleaf.cache.StandardCache;
 import org.thymeleaf.context.Contexts;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.context.IWebContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.util.Validate;
+import org.thymeleaf.web.IWebExchange;
 import org.unbescape.uri.UriEscape;
 
 
@@ -53,6 +53,18 @@
  *   This implementation will only return {@code null} at {@link #buildLink(IExpressionContext, String, Map)}
  *   if the specified {@code base} argument is {@code null}.
  * </p>
+ * <p>
+ *   Link bases are analyzed only once: their type, URL fragment and variable template placeholders
+ *   (e.g. {@code /orders/{id}}) are precomputed and cached (in a bounded cache), so that building a
+ *   link only requires evaluating its parameters and writing all the parts into one exact-size buffer.
+ * </p>
+ * <p>
+ *   In web environments, the application (context) path is computed only once per request, and the transformation
+ *   of the built links by the web exchange (i.e. {@code HttpServletResponse.encodeURL(url)}) is governed by the
+ *   configured {@link LinkTransformationPolicy}, which can also be overridden for a specific request by setting
+ *   it as a request (exchange) attribute named {@link #LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME}. The policy
+ *   that applies to a request is resolved only once, when its first link is processed.
+ * </p>
  *
  * @author Daniel Fern&aacute;ndez
  *
@@ -60,11 +72,56 @@
  */
 public class StandardLinkBuilder extends AbstractLinkBuilder {
 
+    /**
+     * <p>
+     *   Name of the request (exchange) attribute that can be used for specifying the
+     *   {@link LinkTransformationPolicy} to be applied to the links built for a specific request, overriding
+     *   the one configured at the link builder. Values can be {@link LinkTransformationPolicy} objects or
+     *   their names as {@code String}. This attribute is read only once per request, when the first link is
+     *   processed, so it has to be set before the template is rendered.
+     * </p>
+     *
+     * @since 3.1.2
+     */
+    public static final String LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME =
+            StandardLinkBuilder.class.getName() + ".LINK_TRANSFORMATION_POLICY";
+
+    // Policy resolved for the current request: ONCE_PER_REQUEST is replaced by ALWAYS or NEVER once decided
+    private static final String REQUEST_LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME =
+            StandardLinkBuilder.class.getName() + ".REQUEST_LINK_TRANSFORMATION_POLICY";
+    private static final String APPLICATION_PATH_ATTRIBUTE_NAME =
+            StandardLinkBuilder.class.getName() + ".APPLICATION_PATH";
+
     protected enum LinkType { ABSOLUTE, CONTEXT_RELATIVE, SERVER_RELATIVE, BASE_RELATIVE }
 
     private static final char URL_TEMPLATE_DELIMITER_PREFIX = '{';
     private static final char URL_TEMPLATE_DELIMITER_SUFFIX = '}';
-    private static final String URL_TEMPLATE_DELIMITER_SEGMENT_PREFIX = "{/";
+    private static final char URL_TEMPLATE_DELIMITER_SEGMENT_CHAR = '/';
+
+    private static final int LINK_BASES_CACHE_MAX_SIZE = 1000;
+
+    /*
+     * Tables of the ASCII chars that are known NOT to need URI escaping in each part of the URL. These are
+     * computed by asking the escaping library itself, so that fast paths are always consistent with it.
+     */
+    private static final boolean[] URI_PATH_UNESCAPED_CHARS = new boolean[128];
+    private static final boolean[] URI_PATH_SEGMENT_UNESCAPED_CHARS = new boolean[128];
+    private static final boolean[] URI_QUERY_PARAM_UNESCAPED_CHARS = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            final String str = String.valueOf(c);
+            URI_PATH_UNESCAPED_CHARS[c] = str.equals(UriEscape.escapeUriPath(str));
+            URI_PATH_SEGMENT_UNESCAPED_CHARS[c] = str.equals(UriEscape.escapeUriPathSegment(str));
+            URI_QUERY_PARAM_UNESCAPED_CHARS[c] = str.equals(UriEscape.escapeUriQueryParam(str));
+        }
+    }
+
+
+    private final StandardCache<String,LinkBase> linkBasesCache =
+            new StandardCache<String,LinkBase>("LINK_BASES_CACHE", false, 16, LINK_BASES_CACHE_MAX_SIZE, null);
+
+    private LinkTransformationPolicy linkTransformationPolicy = LinkTransformationPolicy.ALWAYS;
 
 
 
@@ -72,6 +129,39 @@ public StandardLinkBuilder() {
         super();
     }
 
+
+
+
+    /**
+     * <p>
+     *   Returns the policy that will be applied for transforming links by the web exchange (i.e.
+     *   {@code HttpServletResponse.encodeURL(url)}) in web environments. Default is
+     *   {@link LinkTransformationPolicy#ALWAYS}.
+     * </p>
+     *
+     * @return the link transformation policy.
+     * @since 3.1.2
+     */
+    public final LinkTransformationPolicy getLinkTransformationPolicy() {
+        return this.linkTransformationPolicy;
+    }
+
+
+    /**
+     * <p>
+     *   Sets the policy that will be applied for transforming links by the web exchange (i.e.
+     *   {@code HttpServletResponse.encodeURL(url)}) in web environments. Default is
+     *   {@link LinkTransformationPolicy#ALWAYS}.
+     * </p>
+     *
+     * @param linkTransformationPolicy the link transformation policy.
+     * @since 3.1.2
+     */
+    public void setLinkTransformationPolicy(final LinkTransformationPolicy linkTransformationPolicy) {
+        Validate.notNull(linkTransformationPolicy, "Link transformation policy cannot be null");
+        this.linkTransformationPolicy = linkTransformationPolicy;
+    }
+
     
 
 
@@ -84,36 +174,8 @@ public final String buildLink(
             return null;
         }
 
-        // We need to create a copy that is: 1. defensive, 2. mutable
-        final Map<String,Object> linkParameters =
-                (parameters == null || parameters.size() == 0? null : new LinkedHashMap<String, Object>(parameters));
-
-        filterOutJavaScriptLinks(base);
-
-        final LinkType linkType;
-        if (isLinkBaseAbsolute(base)) {
-            linkType = LinkType.ABSOLUTE;
-        } else if (isLinkBaseContextRelative(base)) {
-            linkType = LinkType.CONTEXT_RELATIVE;
-        } else if (isLinkBaseServerRelative(base)) {
-            linkType = LinkType.SERVER_RELATIVE;
-        } else {
-            linkType = LinkType.BASE_RELATIVE;
-        }
-
-
-        /*
-         * Compute URL fragments (selectors after '#') so that they can be output at the end of
-         * the URL, after parameters.
-         */
-        final int hashPosition = findCharInSequence(base, '#');
-
-
-        /*
-         * Compute whether we might have variable templates (e.g. Spring Path Variables) inside this link base
-         * that we might need to resolve afterwards
-         */
-        final boolean mightHaveVariableTemplates = findCharInSequence(base, URL_TEMPLATE_DELIMITER_PREFIX) >= 0;
+        final LinkBase linkBase = computeLinkBase(base);
+        final LinkType linkType = linkBase.linkType;
 
 
         /*
@@ -128,102 +190,128 @@ public final String buildLink(
 
 
         /*
-         * SHORTCUT - just before starting to work with StringBuilders, and in the case that we know: 1. That the URL is
+         * SHORTCUT - just before starting to work with buffers, and in the case that we know: 1. That the URL is
          *            absolute, relative or context-relative with no context; 2. That there are no parameters; and
          *            3. That there are no URL fragments -> then just return the base URL String without further
          *            processing (except HttpServletResponse-encoding if needed, of course...)
          */
         if (contextPathEmpty && linkType != LinkType.SERVER_RELATIVE &&
-                (linkParameters == null || linkParameters.size() == 0) && hashPosition < 0 && !mightHaveVariableTemplates) {
+                (parameters == null || parameters.size() == 0) && linkBase.hashPosition < 0 &&
+                !linkBase.mightHaveVariableTemplates) {
             return processLink(context, base);
         }
 
 
         /*
-         * Build the StringBuilder that will be used as a base for all URL-related operations from now on: variable
-         * templates, parameters, URL fragments...
-         */
-        StringBuilder linkBase = new StringBuilder(base);
-
-
-        /*
-         * Compute URL fragments (selectors after '#') so that they can be output at the end of
-         * the URL, after parameters.
+         * Assign parameters to the variable templates that might appear referenced in the path itself, as for
+         * example, Spring "Path Variables" (e.g. '/something/{variable}/othersomething'). Those that do not match
+         * any variable templates will be output as query parameters.
+         *
+         * Parameters can be multivalued, in which case they will be comma-separated when used as variable template
+         * replacements. Parameter values will be URL-path-encoded. If they appear after a '?' char, they will be
+         * URL-query-encoded instead.
          */
-        String urlFragment = "";
-        // If hash position == 0 we will not consider it as marking an
-        // URL fragment.
-        if (hashPosition > 0) {
-            // URL fragment String will include the # sign
-            urlFragment = linkBase.substring(hashPosition);
-            linkBase.delete(hashPosition, linkBase.length());
-        }
+        final String[] replacements = (linkBase.placeholders.length == 0? null : new String[linkBase.placeholders.length]);
+        List<String> queryParts = null;
+        int len = linkBase.length;
 
+        if (parameters != null && parameters.size() > 0) {
 
-        /*
-         * Replace those variable templates that might appear referenced in the path itself, as for example, Spring
-         * "Path Variables" (e.g. '/something/{variable}/othersomething')
-         */
-        if (mightHaveVariableTemplates) {
-            linkBase = replaceTemplateParamsInBase(linkBase, linkParameters);
-        }
+            for (final Map.Entry<String,Object> parameter : parameters.entrySet()) {
 
+                final String parameterName = parameter.getKey();
+                final Object parameterValue = parameter.getValue();
 
-        /*
-         * Process parameters (those that have not already been processed as a result of replacing template
-         * parameters in base).
-         */
-        if (linkParameters != null && linkParameters.size() > 0) {
+                if (replacements != null && replaceTemplateParamInBase(linkBase, replacements, parameterName, parameterValue)) {
+                    continue;
+                }
 
-            final boolean linkBaseHasQuestionMark = findCharInSequence(linkBase,'?') >= 0;
+                if (queryParts == null) {
+                    queryParts = new ArrayList<String>(parameters.size() * 2);
+                }
+                len += addQueryParams(queryParts, parameterName, parameterValue);
 
-            // If there is no '?' in linkBase, we have to replace with first '&' with '?'
-            if (linkBaseHasQuestionMark) {
-                linkBase.append('&');
-            } else {
-                linkBase.append('?');
             }
 
-            // Build the parameters query. The result will always start with '&'
-            processAllRemainingParametersAsQueryParams(linkBase, linkParameters);
-
         }
 
+        if (replacements != null) {
+            for (int i = 0; i < replacements.length; i++) {
+                // Placeholders without a corresponding parameter are output as they are (including delimiters)
+                len += (replacements[i] != null? replacements[i].length() : linkBase.placeholders[i].length() + 2);
+            }
+        }
 
-        /*
-         * Once parameters have been added (if there are parameters), we can add the URL fragment
-         */
-        if (urlFragment.length() > 0) {
-            linkBase.append(urlFragment);
+        final boolean addContextPath = (linkType == LinkType.CONTEXT_RELATIVE && !contextPathEmpty);
+        if (addContextPath) {
+            len += contextPath.length();
         }
 
 
         /*
-         * If link base is server relative, we will delete now the leading '~' character so that it starts with '/'
+         * Build the link in one single buffer of the exact size needed
          */
-        if (linkType == LinkType.SERVER_RELATIVE) {
-            linkBase.delete(0,1);
+        final StringBuilder strBuilder = new StringBuilder(len);
+
+        // Insert the application's context path at the beginning (if needed)
+        if (addContextPath) {
+            strBuilder.append(contextPath);
         }
 
+        strBuilder.append(linkBase.literals[0]);
+        for (int i = 0; i < linkBase.placeholders.length; i++) {
+            if (replacements[i] != null) {
+                strBuilder.append(replacements[i]);
+            } else {
+                strBuilder.append(URL_TEMPLATE_DELIMITER_PREFIX);
+                strBuilder.append(linkBase.placeholders[i]);
+                strBuilder.append(URL_TEMPLATE_DELIMITER_SUFFIX);
+            }
+            strBuilder.append(linkBase.literals[i + 1]);
+        }
 
-        /*
-         * It's finally a good moment to insert the context path if it is not empty
-         */
-        if (linkType == LinkType.CONTEXT_RELATIVE && !contextPathEmpty) {
-            // Add the application's context path at the beginning
-            linkBase.insert(0, contextPath);
+        // If there is no '?' in the link base, we have to start parameters with '?' instead of '&'
+        if (queryParts != null) {
+            strBuilder.append(linkBase.hasQuestionMark? '&' : '?');
+            final int queryPartsLen = queryParts.size();
+            for (int i = 0; i < queryPartsLen; i += 2) {
+                if (i > 0) {
+                    strBuilder.append('&');
+                }
+                strBuilder.append(queryParts.get(i));
+                final String value = queryParts.get(i + 1);
+                if (value != null) {
+                    strBuilder.append('=');
+                    strBuilder.append(value);
+                }
+            }
         }
 
+        // Once parameters have been added (if there are parameters), we can add the URL fragment
+        strBuilder.append(linkBase.urlFragment);
+
 
         /*
          * Return the link, first performing the last processing on it. This will normally perform a standard
          * HttpServletResponse.encodeUrl(...) operation on it, but will give any subclasses the opportunity to
          * customize this behaviour (in case, for instance, they don't want to rely on the Java Servlet API).
          */
-        return processLink(context, linkBase.toString());
+        return processLink(context, strBuilder.toString());
 
     }
 
+
+
+
+    private LinkBase computeLinkBase(final String base) {
+        LinkBase linkBase = this.linkBasesCache.get(base);
+        if (linkBase == null) {
+            linkBase = new LinkBase(base);
+            this.linkBasesCache.put(base, linkBase);
+        }
+        return linkBase;
+    }
+
     
 
 
@@ -312,86 +400,73 @@ private static boolean isLinkBaseServerRelative(final CharSequence linkBase) {
 
 
 
-    private static StringBuilder replaceTemplateParamsInBase(final StringBuilder linkBase, final Map<String, Object> parameters) {
-
-        /*
-         * If parameters is null, there's nothing to do
-         */
-        if (parameters == null) {
-            return linkBase;
-        }
-
-        /*
-         * Search {templateVar} in linkBase, and replace with value.
-         * Parameters can be multivalued, in which case they will be comma-separated.
-         * Parameter values will be URL-path-encoded. If there is a '?' char, only parameter values before this
-         * char will be URL-path-encoded, whereas parameters after it will be URL-query-encoded.
-         */
-
-        final int questionMarkPosition = findCharInSequence(linkBase, '?');
-
-        final Set<String> parameterNames = parameters.keySet();
-        Set<String> alreadyProcessedParameters = null;
-
-        for (final String parameterName : parameterNames) {
-
-            // We default to escaping as a path, not a path segment
-            boolean escapeAsPathSegment = false;
-
-            // We use the text repository in order to avoid the unnecessary creation of too many instances of the same string
-            String template = URL_TEMPLATE_DELIMITER_PREFIX + parameterName + URL_TEMPLATE_DELIMITER_SUFFIX;
-
-            int templateIndex = linkBase.indexOf(template); // not great, because StringBuilder.indexOf ends up calling template.toCharArray(), but...
+    /*
+     * Search {templateVar} placeholders in the link base matching this parameter, and assign the (escaped) replacement
+     * to them. If no '{param}' placeholders exist, '{/param}' will be searched, and the value will be escaped as a
+     * path segment (i.e. escaping '/') instead of a path. Returns whether any placeholders were matched.
+     */
+    private static boolean replaceTemplateParamInBase(
+            final LinkBase linkBase, final String[] replacements, final String parameterName, final Object parameterValue) {
 
-            if (templateIndex < 0) {
-                template = URL_TEMPLATE_DELIMITER_SEGMENT_PREFIX + parameterName + URL_TEMPLATE_DELIMITER_SUFFIX;
-                templateIndex = linkBase.indexOf(template);
+        // We default to escaping as a path, not a path segment
+        boolean escapeAsPathSegment = false;
 
-                if (templateIndex < 0) {
-                    // This parameter is not one of those used in path variables
-                    continue;
-                }
-
-                // We need to escape this parameter value as a path segment rather than a path
-                escapeAsPathSegment = true;
+        boolean found = false;
+        for (int i = 0; i < linkBase.placeholders.length; i++) {
+            if (linkBase.placeholders[i].equals(parameterName)) {
+                found = true;
+                break;
             }
+        }
 
-            // Add the parameter name to the set of processed ones so that it is later removed from the parameters object
-            if (alreadyProcessedParameters == null) {
-                alreadyProcessedParameters = new HashSet<String>(parameterNames.size());
+        if (!found) {
+            for (int i = 0; i < linkBase.placeholders.length; i++) {
+                if (isSegmentPlaceholderFor(linkBase.placeholders[i], parameterName)) {
+                    found = true;
+                    break;
+                }
             }
-            alreadyProcessedParameters.add(parameterName);
-
-            // Compute the replacement (unescaped!)
-            final Object parameterValue = parameters.get(parameterName);
-            final String templateReplacement = formatParameterValueAsUnescapedVariableTemplate(parameterValue);
-            final int templateReplacementLen = templateReplacement.length();
-
-            // We will now use a the StringBuilder itself for replacing all appearances of the variable template in
-            // the link base. Note we do this instead of using String#replace() because String#replace internally uses
-            // pattern matching and is very slow :-(
-            final int templateLen = template.length();
-            int start = templateIndex;
-            while (start > -1) {
-                // Depending on whether the template appeared before or after the ?, we will apply different escaping
-                final String escapedReplacement =
-                        (questionMarkPosition == -1 || start < questionMarkPosition?
-                                (escapeAsPathSegment ? UriEscape.escapeUriPathSegment(templateReplacement) : UriEscape.escapeUriPath(templateReplacement))
-                                : UriEscape.escapeUriQueryParam(templateReplacement));
-                linkBase.replace(start, start + templateLen, escapedReplacement);
-                start = linkBase.indexOf(template, start + templateReplacementLen);
+            if (!found) {
+                // This parameter is not one of those used in path variables
+                return false;
             }
-
+            // We need to escape this parameter value as a path segment rather than a path
+            escapeAsPathSegment = true;
         }
 
-        if (alreadyProcessedParameters != null) {
-            for (final String alreadyProcessedParameter : alreadyProcessedParameters) {
-                parameters.remove(alreadyProcessedParameter);
+        // Compute the replacement (unescaped!)
+        final String templateReplacement = formatParameterValueAsUnescapedVariableTemplate(parameterValue);
+
+        String pathReplacement = null;
+        String queryReplacement = null;
+        for (int i = 0; i < linkBase.placeholders.length; i++) {
+            final String placeholder = linkBase.placeholders[i];
+            if (escapeAsPathSegment? isSegmentPlaceholderFor(placeholder, parameterName) : placeholder.equals(parameterName)) {
+                // Depending on whether the template appeared before or after the ?, we will apply different escaping
+                if (linkBase.placeholdersInQuery[i]) {
+                    if (queryReplacement == null) {
+                        queryReplacement = escapeUriQueryParam(templateReplacement);
+                    }
+                    replacements[i] = queryReplacement;
+                } else {
+                    if (pathReplacement == null) {
+                        pathReplacement =
+                                (escapeAsPathSegment? escapeUriPathSegment(templateReplacement) : escapeUriPath(templateReplacement));
+                    }
+                    replacements[i] = pathReplacement;
+                }
             }
         }
 
-        return linkBase;
+        return true;
+
+    }
+
 
+    private static boolean isSegmentPlaceholderFor(final String placeholder, final String parameterName) {
+        return placeholder.length() == parameterName.length() + 1 &&
+                placeholder.charAt(0) == URL_TEMPLATE_DELIMITER_SEGMENT_CHAR &&
+                placeholder.regionMatches(1, parameterName, 0, parameterName.length());
     }
 
 
@@ -427,60 +502,77 @@ private static String formatParameterValueAsUnescapedVariableTemplate(final Obje
 
 
 
-    private static void processAllRemainingParametersAsQueryParams(final StringBuilder strBuilder, final Map<String, Object> parameters) {
+    /*
+     * Adds the (escaped) names and values of the specified parameter to the list of query parts, as pairs in which
+     * the value will be null if only the name has to be output. Returns the length these parts will take in the
+     * link, including the '=' and '&' separators (and the initial '?' or '&').
+     */
+    private static int addQueryParams(final List<String> queryParts, final String parameterName, final Object value) {
 
-        final int parameterSize = parameters.size();
+        final String escapedParameterName = escapeUriQueryParam(parameterName);
 
-        if (parameterSize <= 0) {
-            return;
+        if (value == null) {
+            queryParts.add(escapedParameterName);
+            queryParts.add(null);
+            return escapedParameterName.length() + 1;
         }
 
-        final Set<String> parameterNames = parameters.keySet();
+        if (!(value instanceof List<?>)) {
+            final String escapedValue = escapeUriQueryParam(value.toString()); // we know it's not null
+            queryParts.add(escapedParameterName);
+            queryParts.add(escapedValue);
+            return escapedParameterName.length() + escapedValue.length() + 2;
+        }
 
-        int i = 0;
-        for (final String parameterName : parameterNames) {
+        // It is multivalued, so iterate and process each value
+        final List<?> values = (List<?>)value;
+        final int valuesLen = values.size();
+        int len = 0;
+        for (int j = 0; j < valuesLen; j++) {
+            final Object valueItem = values.get(j);
+            queryParts.add(escapedParameterName);
+            len += escapedParameterName.length() + 1;
+            if (valueItem != null) {
+                final String escapedValue = escapeUriQueryParam(valueItem.toString());
+                queryParts.add(escapedValue);
+                len += escapedValue.length() + 1;
+            } else {
+                queryParts.add(null);
+            }
+        }
+        return len;
 
-            final Object value = parameters.get(parameterName);
+    }
 
-            if (value == null) {
-                if (i > 0) {
-                    strBuilder.append('&');
-                }
-                strBuilder.append(UriEscape.escapeUriQueryParam(parameterName));
-                i++;
-                continue;
-            }
 
-            if (!(value instanceof List<?>)) {
-                if (i > 0) {
-                    strBuilder.append('&');
-                }
-                strBuilder.append(UriEscape.escapeUriQueryParam(parameterName));
-                strBuilder.append('=');
-                strBuilder.append(UriEscape.escapeUriQueryParam(value.toString())); // we know it's not null
-                i++;
-                continue;
-            }
 
-            // It is multivalued, so iterate and process each value
-            final List<?> values = (List<?>)value;
-            final int valuesLen = values.size();
-            for (int j = 0; j < valuesLen; j++) {
-                final Object valueItem = values.get(j);
-                if (i > 0 || j > 0) {
-                    strBuilder.append('&');
-                }
-                strBuilder.append(UriEscape.escapeUriQueryParam(parameterName));
-                if (valueItem != null) {
-                    strBuilder.append('=');
-                    strBuilder.append(UriEscape.escapeUriQueryParam(valueItem.toString()));
-                }
-            }
 
-            i++;
+    /*
+     * Escaping methods with a fast path for the (very common) case of ASCII values not needing escaping at all,
+     * which are returned without further processing.
+     */
 
-        }
+    private static String escapeUriPath(final String text) {
+        return (isUnescapedAscii(text, URI_PATH_UNESCAPED_CHARS)? text : UriEscape.escapeUriPath(text));
+    }
+
+    private static String escapeUriPathSegment(final String text) {
+        return (isUnescapedAscii(text, URI_PATH_SEGMENT_UNESCAPED_CHARS)? text : UriEscape.escapeUriPathSegment(text));
+    }
+
+    private static String escapeUriQueryParam(final String text) {
+        return (isUnescapedAscii(text, URI_QUERY_PARAM_UNESCAPED_CHARS)? text : UriEscape.escapeUriQueryParam(text));
+    }
 
+    private static boolean isUnescapedAscii(final String text, final boolean[] unescapedChars) {
+        final int textLen = text.length();
+        for (int i = 0; i < textLen; i++) {
+            final char c = text.charAt(i);
+            if (c >= 128 || !unescapedChars[c]) {
+                return false;
+            }
+        }
+        return true;
     }
 
 
@@ -492,7 +584,8 @@ private static void processAllRemainingParametersAsQueryParams(final StringBuild
      * <p>
      *   By default, this method will obtain the context path from {@code HttpServletRequest.getContextPath()},
      *   throwing an exception if {@code context} is not an instance of {@code IWebContext} given context-relative
-     *   URLs are (by default) only allowed in web contexts.
+     *   URLs are (by default) only allowed in web contexts. The obtained path is stored as a request (exchange)
+     *   attribute so that it is only computed once per request.
      * </p>
      * <p>
      *   This method can be overridden by any subclasses that want to change this behaviour (e.g. in order to
@@ -515,7 +608,16 @@ protected String computeContextPath(
         }
 
         // If it is context-relative, it has to be a web context
-        return Contexts.getWebExchange(context).getRequest().getApplicationPath();
+        final IWebExchange webExchange = Contexts.getWebExchange(context);
+
+        String applicationPath = (String) webExchange.getAttributeValue(APPLICATION_PATH_ATTRIBUTE_NAME);
+        if (applicationPath == null) {
+            applicationPath = webExchange.getRequest().getApplicationPath();
+            if (applicationPath != null) {
+                webExchange.setAttributeValue(APPLICATION_PATH_ATTRIBUTE_NAME, applicationPath);
+            }
+        }
+        return applicationPath;
 
     }
 
@@ -527,7 +629,8 @@ protected String computeContextPath(
      * <p>
      *   By default, this method will apply the {@code HttpServletResponse.encodeURL(url)} mechanism, as standard
      *   when using the Java Servlet API. Note however that this will only be applied if {@code context} is
-     *   an implementation of {@code IWebContext} (i.e. the Servlet API will only be applied in web environments).
+     *   an implementation of {@code IWebContext} (i.e. the Servlet API will only be applied in web environments),
+     *   and according to the {@link LinkTransformationPolicy} that applies to the current request.
      * </p>
      * <p>
      *   This method can be overridden by any subclasses that want to change this behaviour (e.g. in order to
@@ -544,7 +647,166 @@ protected String processLink(final IExpressionContext context, final String link
             return link;
         }
 
-        return Contexts.getWebExchange(context).transformURL(link);
+        final IWebExchange webExchange = Contexts.getWebExchange(context);
+
+        LinkTransformationPolicy policy =
+                (LinkTransformationPolicy) webExchange.getAttributeValue(REQUEST_LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME);
+        if (policy == null) {
+            policy = computeLinkTransformationPolicy(webExchange);
+            webExchange.setAttributeValue(REQUEST_LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME, policy);
+        }
+
+        switch (policy) {
+
+            case NEVER:
+                return link;
+
+            case ONCE_PER_REQUEST:
+                final String transformedLink = webExchange.transformURL(link);
+                if (isLinkLocalToServer(link)) {
+                    // Only context-relative and server-relative links decide for the rest of the request: absolute
+                    // ones are usually left untransformed even when URL-based session tracking is being used
+                    webExchange.setAttributeValue(
+                            REQUEST_LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME,
+                            (link.equals(transformedLink)? LinkTransformationPolicy.NEVER : LinkTransformationPolicy.ALWAYS));
+                }
+                return transformedLink;
+
+            default:
+                return webExchange.transformURL(link);
+
+        }
+
+    }
+
+
+    /*
+     * Built context-relative and server-relative links start with a single '/'
+     */
+    private static boolean isLinkLocalToServer(final String link) {
+        return link.length() > 0 && link.charAt(0) == '/' && (link.length() == 1 || link.charAt(1) != '/');
+    }
+
+
+    private LinkTransformationPolicy computeLinkTransformationPolicy(final IWebExchange webExchange) {
+
+        final Object requestPolicy = webExchange.getAttributeValue(LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME);
+        if (requestPolicy == null) {
+            return this.linkTransformationPolicy;
+        }
+        if (requestPolicy instanceof LinkTransformationPolicy) {
+            return (LinkTransformationPolicy) requestPolicy;
+        }
+        try {
+            return LinkTransformationPolicy.valueOf(requestPolicy.toString().trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new TemplateProcessingException(
+                    "Invalid value for request attribute \"" + LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME + "\": " +
+                    "\"" + requestPolicy + "\"", e);
+        }
+
+    }
+
+
+
+
+
+
+    /*
+     * Precomputed structure of a link base: its type, its URL fragment and the literal parts and variable template
+     * placeholders (e.g. '{id}' or '{/id}') it is composed of. Objects of this class are immutable.
+     */
+    private static final class LinkBase {
+
+        final LinkType linkType;
+        final int hashPosition;
+        final boolean mightHaveVariableTemplates;
+        final boolean hasQuestionMark;
+        final String urlFragment;
+        // literals.length == placeholders.length + 1
+        final String[] literals;
+        final String[] placeholders;
+        final boolean[] placeholdersInQuery;
+        // Length of all literals and the URL fragment
+        final int length;
+
+
+        LinkBase(final String base) {
+
+            super();
+
+            filterOutJavaScriptLinks(base);
+
+            if (isLinkBaseAbsolute(base)) {
+                this.linkType = LinkType.ABSOLUTE;
+            } else if (isLinkBaseContextRelative(base)) {
+                this.linkType = LinkType.CONTEXT_RELATIVE;
+            } else if (isLinkBaseServerRelative(base)) {
+                this.linkType = LinkType.SERVER_RELATIVE;
+            } else {
+                this.linkType = LinkType.BASE_RELATIVE;
+            }
+
+            /*
+             * Compute URL fragments (selectors after '#') so that they can be output at the end of
+             * the URL, after parameters. If hash position == 0 we will not consider it as marking an URL fragment.
+             */
+            this.hashPosition = findCharInSequence(base, '#');
+            final String path = (this.hashPosition > 0? base.substring(0, this.hashPosition) : base);
+            this.urlFragment = (this.hashPosition > 0? base.substring(this.hashPosition) : "");
+
+            this.mightHaveVariableTemplates = findCharInSequence(base, URL_TEMPLATE_DELIMITER_PREFIX) >= 0;
+
+            final int questionMarkPosition = findCharInSequence(path, '?');
+            this.hasQuestionMark = questionMarkPosition >= 0;
+
+            // If link base is server relative, we will remove the leading '~' character so that it starts with '/'
+            final int pathStart = (this.linkType == LinkType.SERVER_RELATIVE? 1 : 0);
+
+            final List<String> literals = new ArrayList<String>(4);
+            final List<String> placeholders = new ArrayList<String>(3);
+            final List<Boolean> placeholdersInQuery = new ArrayList<Boolean>(3);
+
+            if (this.mightHaveVariableTemplates) {
+
+                // Placeholders are '{...}' sequences not containing any other '{' chars
+                final int pathLen = path.length();
+                int literalStart = pathStart;
+                int placeholderStart = -1;
+                for (int i = pathStart; i < pathLen; i++) {
+                    final char c = path.charAt(i);
+                    if (c == URL_TEMPLATE_DELIMITER_PREFIX) {
+                        placeholderStart = i;
+                    } else if (c == URL_TEMPLATE_DELIMITER_SUFFIX && placeholderStart >= 0) {
+                        literals.add(path.substring(literalStart, placeholderStart));
+                        placeholders.add(path.substring(placeholderStart + 1, i));
+                        placeholdersInQuery.add(Boolean.valueOf(this.hasQuestionMark && placeholderStart > questionMarkPosition));
+                        literalStart = i + 1;
+                        placeholderStart = -1;
+                    }
+                }
+                literals.add(path.substring(literalStart));
+
+            } else {
+
+                literals.add(pathStart == 0? path : path.substring(pathStart));
+
+            }
+
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+            this.placeholdersInQuery = new boolean[this.placeholders.length];
+            for (int i = 0; i < this.placeholdersInQuery.length; i++) {
+                this.placeholdersInQuery[i] = placeholdersInQuery.get(i).booleanValue();
+            }
+
+            int length = this.urlFragment.length();
+            for (int i = 0; i < this.literals.length; i++) {
+                length += this.literals[i].length();
+            }
+            this.length = length;
+
+        }
 
     }
 
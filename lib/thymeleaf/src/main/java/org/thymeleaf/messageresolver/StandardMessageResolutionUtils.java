@@ -29,12 +29,15 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Date;
 import java.util.Map;
 import java.util.Properties;
 
+import org.thymeleaf.cache.StandardCache;
 import org.thymeleaf.exceptions.TemplateInputException;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.templateresource.ITemplateResource;
+import org.thymeleaf.util.FormatPool;
 import org.thymeleaf.util.StringUtils;
 
 /**
@@ -51,6 +54,14 @@ final class StandardMessageResolutionUtils {
     private static final String PROPERTIES_FILE_EXTENSION = ".properties";
     private static final Object[] EMPTY_MESSAGE_PARAMETERS = new Object[0];
 
+    /*
+     * Bounded cache of compiled message formats, so that message patterns are parsed only once per locale.
+     */
+    private static final int MESSAGE_FORMATS_CACHE_MAX_SIZE = 1000;
+    private static final StandardCache<MessageFormatKey,CompiledMessageFormat> messageFormats =
+            new StandardCache<MessageFormatKey,CompiledMessageFormat>(
+                    "MESSAGE_FORMATS_CACHE", false, 16, MESSAGE_FORMATS_CACHE_MAX_SIZE, null);
+
 
 
     static Map<String,String> resolveMessagesForTemplate(final ITemplateResource templateResource, final Locale locale) {
@@ -253,7 +264,12 @@ static String formatMessage(final Locale locale, final String message, final Obj
         if (!isFormatCandidate(message)) { // trying to avoid creating MessageFormat if not needed
             return message;
         }
-        final MessageFormat messageFormat = new MessageFormat(message, locale);
+        final MessageFormatKey key = new MessageFormatKey(message, locale);
+        CompiledMessageFormat messageFormat = messageFormats.get(key);
+        if (messageFormat == null) {
+            messageFormat = new CompiledMessageFormat(message, locale);
+            messageFormats.put(key, messageFormat);
+        }
         return messageFormat.format((messageParameters != null? messageParameters : EMPTY_MESSAGE_PARAMETERS));
     }
 
@@ -280,4 +296,178 @@ private StandardMessageResolutionUtils() {
         super();
     }
 
+
+
+
+    /*
+     * Message pattern compiled for a specific locale.
+     *
+     * Patterns containing only simple "{n}" placeholders (no format types or styles, no quotes) are split into
+     * literals and argument indexes, and formatted by direct substitution as long as no arguments need locale-aware
+     * formatting (numbers and dates). Any other case is delegated to a FormatPool of (pre-parsed) MessageFormat
+     * objects, as these are not thread-safe.
+     */
+    static final class CompiledMessageFormat {
+
+        private final String message;
+        private final Locale locale;
+
+        // Only for simple patterns: literals.length == argumentIndexes.length + 1
+        private final String[] literals;
+        private final int[] argumentIndexes;
+
+        private volatile FormatPool<MessageFormat> messageFormatPool;
+
+
+        CompiledMessageFormat(final String message, final Locale locale) {
+
+            super();
+
+            this.message = message;
+            this.locale = locale;
+
+            final List<String> literals = new ArrayList<String>(4);
+            final List<Integer> argumentIndexes = new ArrayList<Integer>(3);
+            if (parseSimplePattern(message, literals, argumentIndexes)) {
+                this.literals = literals.toArray(new String[literals.size()]);
+                this.argumentIndexes = new int[argumentIndexes.size()];
+                for (int i = 0; i < this.argumentIndexes.length; i++) {
+                    this.argumentIndexes[i] = argumentIndexes.get(i).intValue();
+                }
+                this.messageFormatPool = null; // Will be lazily created if ever needed
+            } else {
+                this.literals = null;
+                this.argumentIndexes = null;
+                // Creating the MessageFormat right away will make wrong patterns fail here, as they always have
+                this.messageFormatPool = new FormatPool<MessageFormat>(new MessageFormat(message, locale));
+            }
+
+        }
+
+
+        String format(final Object[] messageParameters) {
+            if (this.literals != null && isSubstitutable(messageParameters)) {
+                return substitute(messageParameters);
+            }
+            FormatPool<MessageFormat> pool = this.messageFormatPool;
+            if (pool == null) {
+                // No need to synchronize: in the worst case, several equivalent pools will be created
+                pool = new FormatPool<MessageFormat>(new MessageFormat(this.message, this.locale));
+                this.messageFormatPool = pool;
+            }
+            return pool.format(messageParameters);
+        }
+
+
+        private boolean isSubstitutable(final Object[] messageParameters) {
+            for (int i = 0; i < this.argumentIndexes.length; i++) {
+                final int argumentIndex = this.argumentIndexes[i];
+                if (argumentIndex < messageParameters.length) {
+                    final Object parameter = messageParameters[argumentIndex];
+                    if (parameter instanceof Number || parameter instanceof Date) {
+                        // These would be formatted by MessageFormat using locale-dependent formats
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+
+        private String substitute(final Object[] messageParameters) {
+            final StringBuilder strBuilder = new StringBuilder(this.message.length() + 16 * this.argumentIndexes.length);
+            strBuilder.append(this.literals[0]);
+            for (int i = 0; i < this.argumentIndexes.length; i++) {
+                final int argumentIndex = this.argumentIndexes[i];
+                if (argumentIndex >= messageParameters.length) {
+                    // Same as MessageFormat: placeholders with no argument are output as they are
+                    strBuilder.append('{').append(argumentIndex).append('}');
+                } else {
+                    strBuilder.append(messageParameters[argumentIndex]); // null -> "null", same as MessageFormat
+                }
+                strBuilder.append(this.literals[i + 1]);
+            }
+            return strBuilder.toString();
+        }
+
+
+        /*
+         * Returns true if the pattern only contains literal text (without quotes, which have special meaning in
+         * MessageFormat) and simple "{n}" placeholders.
+         */
+        private static boolean parseSimplePattern(
+                final String message, final List<String> literals, final List<Integer> argumentIndexes) {
+
+            final int messageLen = message.length();
+            int literalStart = 0;
+            int i = 0;
+            while (i < messageLen) {
+                final char c = message.charAt(i);
+                if (c == '\'') {
+                    return false;
+                }
+                if (c != '{') {
+                    i++;
+                    continue;
+                }
+                int argumentIndex = 0;
+                int j = i + 1;
+                while (j < messageLen && j - i <= 4) {
+                    final char d = message.charAt(j);
+                    if (d < '0' || d > '9') {
+                        break;
+                    }
+                    argumentIndex = (argumentIndex * 10) + (d - '0');
+                    j++;
+                }
+                if (j == i + 1 || j >= messageLen || message.charAt(j) != '}') {
+                    // Not a simple placeholder (format types/styles, whitespace, unclosed braces...)
+                    return false;
+                }
+                literals.add(message.substring(literalStart, i));
+                argumentIndexes.add(Integer.valueOf(argumentIndex));
+                i = j + 1;
+                literalStart = i;
+            }
+            literals.add(message.substring(literalStart));
+            return true;
+
+        }
+
+    }
+
+
+
+
+    static final class MessageFormatKey {
+
+        private final String message;
+        private final Locale locale;
+
+        MessageFormatKey(final String message, final Locale locale) {
+            super();
+            this.message = message;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.message.hashCode() + (this.locale == null ? 0 : this.locale.hashCode());
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final MessageFormatKey other = (MessageFormatKey) obj;
+            return this.message.equals(other.message) &&
+                    (this.locale == null ? other.locale == null : this.locale.equals(other.locale));
+        }
+
+    }
+
 }
@@ -19,14 +19,22 @@
  */
 package org.thymeleaf.messageresolver;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.StandardCache;
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.TemplateData;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+import org.thymeleaf.templateresolver.TemplateResolution;
 import org.thymeleaf.templateresource.ITemplateResource;
 import org.thymeleaf.util.Validate;
 
@@ -126,6 +134,18 @@
  *   Origin-based messages will be always cached.
  * </p>
  * <p>
+ *   <strong>Flattened messages</strong>
+ * </p>
+ * <p>
+ *   When {@link #setUseFlattenedMessages(boolean)} is enabled, for each combination of template stack
+ *   (all of them <em>cacheable</em>), origin and locale, the results of the three resolution steps above
+ *   will be merged into one single immutable map, so that each message is resolved with one single
+ *   lookup. As these maps contain all the messages that can be resolved for their combination, keys that
+ *   cannot be found in them are known to be absent without needing to examine any other sources.
+ *   These maps can be built in advance for a set of templates and locales by means of
+ *   {@link #prebuildFlattenedMessages(IEngineConfiguration, Collection, Collection)}.
+ * </p>
+ * <p>
  *   <strong>Extensibility</strong>
  * </p>
  * <p>
@@ -155,6 +175,12 @@ public class StandardMessageResolver extends AbstractMessageResolver {
             new ConcurrentHashMap<Class<?>,ConcurrentHashMap<Locale,Map<String,String>>>(20, 0.9f, 2);
     private final Properties defaultMessages;
 
+    private static final int FLATTENED_MESSAGES_CACHE_MAX_SIZE = 500;
+    private final StandardCache<FlattenedMessagesKey,Map<String,String>> flattenedMessagesCache =
+            new StandardCache<FlattenedMessagesKey,Map<String,String>>(
+                    "FLATTENED_MESSAGES_CACHE", false, 16, FLATTENED_MESSAGES_CACHE_MAX_SIZE, null);
+    private boolean useFlattenedMessages = false;
+
 
     public StandardMessageResolver() {
         super();
@@ -188,6 +214,7 @@ public final Properties getDefaultMessages() {
     public final void setDefaultMessages(final Properties defaultMessages) {
         if (defaultMessages != null) {
             this.defaultMessages.putAll(defaultMessages);
+            this.flattenedMessagesCache.clear();
         }
     }
     
@@ -204,6 +231,7 @@ public final void addDefaultMessage(final String key, final String value) {
         Validate.notNull(key, "Key for default message cannot be null");
         Validate.notNull(value, "Value for default message cannot be null");
         this.defaultMessages.put(key, value);
+        this.flattenedMessagesCache.clear();
     }
 
     
@@ -214,6 +242,47 @@ public final void addDefaultMessage(final String key, final String value) {
      */
     public final void clearDefaultMessages() {
         this.defaultMessages.clear();
+        this.flattenedMessagesCache.clear();
+    }
+
+
+    /**
+     * <p>
+     *   Returns whether messages should be resolved from <em>flattened</em> maps, merging the results of
+     *   template-based, origin-based and defaults-based resolution for each combination of template stack,
+     *   origin and locale.
+     * </p>
+     * <p>
+     *   Default value is {@code false}.
+     * </p>
+     *
+     * @return whether flattened messages are used or not.
+     * @since 3.1.2
+     */
+    public final boolean getUseFlattenedMessages() {
+        return this.useFlattenedMessages;
+    }
+
+
+    /**
+     * <p>
+     *   Sets whether messages should be resolved from <em>flattened</em> maps, merging the results of
+     *   template-based, origin-based and defaults-based resolution for each combination of template stack,
+     *   origin and locale.
+     * </p>
+     * <p>
+     *   Flattened maps are only used when all the templates in the stack are <em>cacheable</em>, and they
+     *   also act as a negative cache: a key not contained in a flattened map is known to be absent.
+     * </p>
+     * <p>
+     *   Default value is {@code false}.
+     * </p>
+     *
+     * @param useFlattenedMessages whether flattened messages should be used or not.
+     * @since 3.1.2
+     */
+    public final void setUseFlattenedMessages(final boolean useFlattenedMessages) {
+        this.useFlattenedMessages = useFlattenedMessages;
     }
 
 
@@ -239,6 +308,26 @@ public final String resolveMessage(
 
         final Locale locale = context.getLocale();
 
+        /*
+         * FLATTENED MESSAGES: if enabled (and possible), perform all three steps with one lookup
+         */
+        if (this.useFlattenedMessages &&
+                performTemplateBasedResolution && performOriginBasedResolution && performDefaultBasedResolution) {
+
+            final Map<String,String> flattenedMessages = resolveFlattenedMessages(context.getTemplateStack(), origin, locale);
+            if (flattenedMessages != null) {
+                final String message = flattenedMessages.get(key);
+                if (message != null) {
+                    return formatMessage(locale, message, messageParameters);
+                }
+                // Flattened messages are complete, so if the key is not there it will not be found anywhere else
+                return null;
+            }
+
+            // Flattening was not possible (non-cacheable templates), so normal resolution will be performed
+
+        }
+
         /*
          * FIRST STEP: Look for the message using template-based resolution
          *
@@ -251,40 +340,10 @@ public final String resolveMessage(
 
             for (final TemplateData templateData : context.getTemplateStack()) {
 
-                final String template = templateData.getTemplate();
-                final ITemplateResource templateResource = templateData.getTemplateResource();
-                final boolean templateCacheable = templateData.getValidity().isCacheable();
-
-                Map<String, String> messagesForLocaleForTemplate;
-
-                // We will ONLY cache messages for cacheable templates. This should adequately control cache growth
-                if (templateCacheable) {
-
-                    ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
-                    if (messagesByLocaleForTemplate == null) {
-                        this.messagesByLocaleByTemplate.putIfAbsent(template, new ConcurrentHashMap<Locale, Map<String, String>>(4));
-                        messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
-                    }
-
-                    messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
-                    if (messagesForLocaleForTemplate == null) {
-                        messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
-                        if (messagesForLocaleForTemplate == null) {
-                            messagesForLocaleForTemplate = Collections.emptyMap();
-                        }
-                        messagesByLocaleForTemplate.putIfAbsent(locale, messagesForLocaleForTemplate);
-                        // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
-                        messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
-                    }
-
-                } else {
-
-                    messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
-                    if (messagesForLocaleForTemplate == null) {
-                        messagesForLocaleForTemplate = Collections.emptyMap();
-                    }
-
-                }
+                final Map<String, String> messagesForLocaleForTemplate =
+                        getMessagesForTemplate(
+                                templateData.getTemplate(), templateData.getTemplateResource(),
+                                templateData.getValidity().isCacheable(), locale);
 
                 // Once the messages map has been retrieved, just use it
                 final String message = messagesForLocaleForTemplate.get(key);
@@ -304,22 +363,7 @@ public final String resolveMessage(
          */
         if (performOriginBasedResolution && origin != null) {
 
-            ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
-            if (messagesByLocaleForOrigin == null) {
-                this.messagesByLocaleByOrigin.putIfAbsent(origin, new ConcurrentHashMap<Locale, Map<String, String>>(4));
-                messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
-            }
-
-            Map<String, String> messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
-            if (messagesForLocaleForOrigin == null) {
-                messagesForLocaleForOrigin = resolveMessagesForOrigin(origin, locale);
-                if (messagesForLocaleForOrigin == null) {
-                    messagesForLocaleForOrigin = Collections.emptyMap();
-                }
-                messagesByLocaleForOrigin.putIfAbsent(locale, messagesForLocaleForOrigin);
-                // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
-                messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
-            }
+            final Map<String, String> messagesForLocaleForOrigin = getMessagesForOrigin(origin, locale);
 
             // Once the messages map has been retrieved, just use it
             final String message = messagesForLocaleForOrigin.get(key);
@@ -356,6 +400,189 @@ public final String resolveMessage(
 
 
 
+    /**
+     * <p>
+     *   Builds (in advance) the <em>flattened</em> messages for the specified templates and locales, so that
+     *   they do not need to be built the first time a message is resolved during the execution of each of these
+     *   templates. Only messages for the first-level template (i.e. not for inserted fragments) are built, using
+     *   a {@code null} origin, as used by {@code #{...}} message expressions and the {@code #messages}
+     *   expression utility object.
+     * </p>
+     * <p>
+     *   Templates will be resolved using the template resolvers in the specified configuration. Templates that
+     *   cannot be resolved, or are resolved as non-<em>cacheable</em>, will be ignored.
+     * </p>
+     * <p>
+     *   This will have no effect unless {@link #setUseFlattenedMessages(boolean)} is enabled.
+     * </p>
+     *
+     * @param configuration the engine configuration, used for resolving the templates.
+     * @param templates the names of the templates.
+     * @param locales the locales for which messages should be built.
+     * @since 3.1.2
+     */
+    public final void prebuildFlattenedMessages(
+            final IEngineConfiguration configuration, final Collection<String> templates, final Collection<Locale> locales) {
+
+        Validate.notNull(configuration, "Engine configuration cannot be null");
+        Validate.notNull(templates, "Templates cannot be null");
+        Validate.notNull(locales, "Locales cannot be null");
+
+        if (!this.useFlattenedMessages) {
+            return;
+        }
+
+        for (final String template : templates) {
+
+            TemplateResolution templateResolution = null;
+            for (final ITemplateResolver templateResolver : configuration.getTemplateResolvers()) {
+                templateResolution = templateResolver.resolveTemplate(configuration, null, template, null);
+                if (templateResolution != null) {
+                    break;
+                }
+            }
+            if (templateResolution == null || !templateResolution.getValidity().isCacheable()) {
+                continue;
+            }
+
+            final String[] stackTemplates = new String[] { template };
+            final ITemplateResource[] stackTemplateResources = new ITemplateResource[] { templateResolution.getTemplateResource() };
+            for (final Locale locale : locales) {
+                final FlattenedMessagesKey flattenedMessagesKey = new FlattenedMessagesKey(stackTemplates, null, locale);
+                this.flattenedMessagesCache.put(
+                        flattenedMessagesKey, buildFlattenedMessages(stackTemplates, stackTemplateResources, null, locale));
+            }
+
+        }
+
+    }
+
+
+
+
+    /*
+     * Returns null if flattening is not possible because some of the templates in the stack are not cacheable.
+     */
+    private Map<String,String> resolveFlattenedMessages(
+            final List<TemplateData> templateStack, final Class<?> origin, final Locale locale) {
+
+        final int templateStackSize = templateStack.size();
+        final String[] stackTemplates = new String[templateStackSize];
+        for (int i = 0; i < templateStackSize; i++) {
+            final TemplateData templateData = templateStack.get(i);
+            if (!templateData.getValidity().isCacheable()) {
+                return null;
+            }
+            stackTemplates[i] = templateData.getTemplate();
+        }
+
+        final FlattenedMessagesKey flattenedMessagesKey = new FlattenedMessagesKey(stackTemplates, origin, locale);
+        Map<String,String> flattenedMessages = this.flattenedMessagesCache.get(flattenedMessagesKey);
+        if (flattenedMessages == null) {
+            final ITemplateResource[] stackTemplateResources = new ITemplateResource[templateStackSize];
+            for (int i = 0; i < templateStackSize; i++) {
+                stackTemplateResources[i] = templateStack.get(i).getTemplateResource();
+            }
+            flattenedMessages = buildFlattenedMessages(stackTemplates, stackTemplateResources, origin, locale);
+            this.flattenedMessagesCache.put(flattenedMessagesKey, flattenedMessages);
+        }
+        return flattenedMessages;
+
+    }
+
+
+    private Map<String,String> buildFlattenedMessages(
+            final String[] stackTemplates, final ITemplateResource[] stackTemplateResources,
+            final Class<?> origin, final Locale locale) {
+
+        // Sources are merged from less to more precedence, so that more specific values overwrite less specific ones
+        final Map<String,String> flattenedMessages = new HashMap<String,String>(64);
+
+        for (final String defaultMessageKey : this.defaultMessages.stringPropertyNames()) {
+            flattenedMessages.put(defaultMessageKey, this.defaultMessages.getProperty(defaultMessageKey));
+        }
+
+        if (origin != null) {
+            flattenedMessages.putAll(getMessagesForOrigin(origin, locale));
+        }
+
+        for (int i = stackTemplates.length - 1; i >= 0; i--) {
+            flattenedMessages.putAll(getMessagesForTemplate(stackTemplates[i], stackTemplateResources[i], true, locale));
+        }
+
+        return Collections.unmodifiableMap(flattenedMessages);
+
+    }
+
+
+    private Map<String,String> getMessagesForTemplate(
+            final String template, final ITemplateResource templateResource, final boolean templateCacheable,
+            final Locale locale) {
+
+        Map<String, String> messagesForLocaleForTemplate;
+
+        // We will ONLY cache messages for cacheable templates. This should adequately control cache growth
+        if (templateCacheable) {
+
+            ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
+            if (messagesByLocaleForTemplate == null) {
+                this.messagesByLocaleByTemplate.putIfAbsent(template, new ConcurrentHashMap<Locale, Map<String, String>>(4));
+                messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
+            }
+
+            messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
+            if (messagesForLocaleForTemplate == null) {
+                messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
+                if (messagesForLocaleForTemplate == null) {
+                    messagesForLocaleForTemplate = Collections.emptyMap();
+                }
+                messagesByLocaleForTemplate.putIfAbsent(locale, messagesForLocaleForTemplate);
+                // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
+                messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
+            }
+
+        } else {
+
+            messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
+            if (messagesForLocaleForTemplate == null) {
+                messagesForLocaleForTemplate = Collections.emptyMap();
+            }
+
+        }
+
+        return messagesForLocaleForTemplate;
+
+    }
+
+
+    private Map<String,String> getMessagesForOrigin(final Class<?> origin, final Locale locale) {
+
+        ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
+        if (messagesByLocaleForOrigin == null) {
+            this.messagesByLocaleByOrigin.putIfAbsent(origin, new ConcurrentHashMap<Locale, Map<String, String>>(4));
+            messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
+        }
+
+        Map<String, String> messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
+        if (messagesForLocaleForOrigin == null) {
+            messagesForLocaleForOrigin = resolveMessagesForOrigin(origin, locale);
+            if (messagesForLocaleForOrigin == null) {
+                messagesForLocaleForOrigin = Collections.emptyMap();
+            }
+            messagesByLocaleForOrigin.putIfAbsent(locale, messagesForLocaleForOrigin);
+            // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
+            messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
+        }
+
+        return messagesForLocaleForOrigin;
+
+    }
+
+
+
+
+
+
     /**
      * <p>
      *   Resolve messages for a specific template and locale.
@@ -441,4 +668,49 @@ public String createAbsentMessageRepresentation(
     }
 
 
+
+
+
+
+    private static final class FlattenedMessagesKey {
+
+        private final String[] templates;
+        private final Class<?> origin;
+        private final Locale locale;
+        private final int h;
+
+        FlattenedMessagesKey(final String[] templates, final Class<?> origin, final Locale locale) {
+            super();
+            this.templates = templates;
+            this.origin = origin;
+            this.locale = locale;
+            int result = Arrays.hashCode(this.templates);
+            result = 31 * result + (this.origin == null ? 0 : this.origin.hashCode());
+            result = 31 * result + this.locale.hashCode();
+            this.h = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.h;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final FlattenedMessagesKey other = (FlattenedMessagesKey) obj;
+            return this.h == other.h &&
+                    this.origin == other.origin &&
+                    this.locale.equals(other.locale) &&
+                    Arrays.equals(this.templates, other.templates);
+        }
+
+    }
+
+
 }
@@ -25,7 +25,6 @@
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -105,16 +104,15 @@ static Object executeAddition(
             rightValue = "null";
         }
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        if (leftNumberValue != null) {
-            final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-            if (rightNumberValue != null) {
-                // Addition will act as a mathematical 'plus'
-                return leftNumberValue.add(rightNumberValue);
-            }
+        final BigDecimal numberResult = NumericOperationUtil.add(leftValue, rightValue);
+        if (numberResult != null) {
+            // Addition will act as a mathematical 'plus'
+            return numberResult;
         }
 
-        return new LiteralValue(LiteralValue.unwrap(leftValue).toString() + (LiteralValue.unwrap(rightValue).toString()));
+        // Texts are concatenated lazily, so that chained concatenations (e.g. |Hello ${name}!|) don't create
+        // intermediate Strings, and the result might be directly written to output without ever being built
+        return LiteralValue.concat(leftValue, rightValue);
 
     }
 
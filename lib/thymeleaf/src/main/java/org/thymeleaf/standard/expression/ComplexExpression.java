@@ -44,6 +44,12 @@ public abstract class ComplexExpression extends Expression {
     private static final long serialVersionUID = -3807499386899890260L;
 
 
+    // Complex expressions that only operate on literals (e.g. 'a' + 'b', true? 'x' : 'y') will always return the
+    // same result, so this result is computed the first time they are executed and reused afterwards.
+    private boolean constant = false;
+    private transient volatile Object constantValue = null;
+
+
 
     protected ComplexExpression() {
         super();
@@ -53,10 +59,83 @@ protected ComplexExpression() {
 
 
 
-    
+    /*
+     * Marks all the complex expressions in the expression tree that only operate on literals as constant, and
+     * returns whether the whole expression is constant. Meant to be called once an expression has been parsed.
+     */
+    static boolean computeConstants(final IStandardExpression expression) {
+
+        if (expression instanceof TextLiteralExpression) {
+            return true;
+        }
+        if (expression instanceof Token) {
+            // Number, boolean, null and generic tokens are constant, but no-op tokens have a special meaning
+            return !(expression instanceof NoOpTokenExpression);
+        }
+        if (expression instanceof VariableExpression) {
+            return ((VariableExpression) expression).isConstant();
+        }
+        if (!(expression instanceof ComplexExpression)) {
+            return false;
+        }
+
+        final boolean constant;
+        if (expression instanceof BinaryOperationExpression) {
+            final BinaryOperationExpression binaryExpression = (BinaryOperationExpression) expression;
+            // Both operands need to be always checked so that any constant subexpressions are marked
+            final boolean leftConstant = computeConstants(binaryExpression.getLeft());
+            final boolean rightConstant = computeConstants(binaryExpression.getRight());
+            constant = leftConstant && rightConstant;
+        } else if (expression instanceof ConditionalExpression) {
+            final ConditionalExpression conditionalExpression = (ConditionalExpression) expression;
+            final boolean conditionConstant = computeConstants(conditionalExpression.getConditionExpression());
+            final boolean thenConstant = computeConstants(conditionalExpression.getThenExpression());
+            final boolean elseConstant = computeConstants(conditionalExpression.getElseExpression());
+            constant = conditionConstant && thenConstant && elseConstant;
+        } else if (expression instanceof DefaultExpression) {
+            final DefaultExpression defaultExpression = (DefaultExpression) expression;
+            final boolean queriedConstant = computeConstants(defaultExpression.getQueriedExpression());
+            final boolean defaultConstant = computeConstants(defaultExpression.getDefaultExpression());
+            constant = queriedConstant && defaultConstant;
+        } else if (expression instanceof MinusExpression) {
+            constant = computeConstants(((MinusExpression) expression).getOperand());
+        } else if (expression instanceof NegationExpression) {
+            constant = computeConstants(((NegationExpression) expression).getOperand());
+        } else {
+            constant = false;
+        }
+
+        ((ComplexExpression) expression).constant = constant;
+        return constant;
+
+    }
+
+
+
+
     static Object executeComplex(
             final IExpressionContext context,
             final ComplexExpression expression, final StandardExpressionExecutionContext expContext) {
+
+        if (!expression.constant) {
+            return executeComplexExpression(context, expression, expContext);
+        }
+
+        Object value = expression.constantValue;
+        if (value == null) {
+            // Note null results will not be reused, but they are computed in the same way anyway. Also, no
+            // exceptions will be cached: an error will be raised every time the expression is executed.
+            value = executeComplexExpression(context, expression, expContext);
+            expression.constantValue = value;
+        }
+        return value;
+
+    }
+
+
+    private static Object executeComplexExpression(
+            final IExpressionContext context,
+            final ComplexExpression expression, final StandardExpressionExecutionContext expContext) {
         
         if (expression instanceof AdditionExpression) {
             return AdditionExpression.executeAddition(context, (AdditionExpression)expression, expContext);
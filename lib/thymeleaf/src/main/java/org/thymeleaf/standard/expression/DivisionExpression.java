@@ -20,14 +20,12 @@
 package org.thymeleaf.standard.expression;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -90,19 +88,9 @@ static Object executeDivision(
             rightValue = "null";
         }
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-        if (leftNumberValue != null && rightNumberValue != null) {
-            try {
-                return leftNumberValue.divide(rightNumberValue);
-            } catch (final ArithmeticException ignored) {
-                // Result has a non-terminating decimal expansion (like 100/3), so
-                // we just use a minimum arbitrary scale (10) and HALF_UP rounding mode
-                return leftNumberValue.divide(
-                        rightNumberValue, 
-                        Math.max(Math.max(leftNumberValue.scale(),rightNumberValue.scale()), 10), 
-                        RoundingMode.HALF_UP);
-            }
+        final BigDecimal numberResult = NumericOperationUtil.divide(leftValue, rightValue);
+        if (numberResult != null) {
+            return numberResult;
         }
         
         throw new TemplateProcessingException(
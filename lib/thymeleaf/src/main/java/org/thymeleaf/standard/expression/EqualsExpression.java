@@ -19,13 +19,10 @@
  */
 package org.thymeleaf.standard.expression;
 
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -83,11 +80,10 @@ static Object executeEquals(
         
         Boolean result = null;
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-        
-        if (leftNumberValue != null && rightNumberValue != null) {
-            result = Boolean.valueOf(leftNumberValue.compareTo(rightNumberValue) == 0);
+        final Integer numberComparison = NumericOperationUtil.compare(leftValue, rightValue);
+
+        if (numberComparison != null) {
+            result = Boolean.valueOf(numberComparison.intValue() == 0);
         } else {
             if (leftValue instanceof Character) {
                 leftValue = leftValue.toString();  // Just a character, no need to use conversionService here
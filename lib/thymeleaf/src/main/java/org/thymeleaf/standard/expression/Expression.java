@@ -88,7 +88,13 @@ static Expression parse(final String input) {
             return null;
         }
 
-        return result.get(0).getExpression();
+        /*
+         * PHASE 03: Identification of constant (literal-only) subexpressions
+         */
+        final Expression expression = result.get(0).getExpression();
+        ComplexExpression.computeConstants(expression);
+
+        return expression;
 
     }
     
@@ -141,5 +147,38 @@ public Object execute(
     }
 
 
+
+    /**
+     * <p>
+     *   Executes the expression in the same way as {@link #execute(IExpressionContext, StandardExpressionExecutionContext)},
+     *   but textual results coming from concatenations (including literal substitutions) will not be built into
+     *   a {@link String}, but returned as an {@link org.thymeleaf.util.AggregateCharSequence} containing all their
+     *   parts instead.
+     * </p>
+     * <p>
+     *   This is meant to be used by processors that can directly write these results to output, avoiding the
+     *   creation of the whole text in memory.
+     * </p>
+     *
+     * @param context the context
+     * @param expContext the expression execution context
+     * @return the result of executing the expression
+     * @since 3.1.2
+     */
+    public Object executeWithLazyText(
+            final IExpressionContext context,
+            final StandardExpressionExecutionContext expContext) {
+
+        Validate.notNull(context, "Context cannot be null");
+
+        final IStandardVariableExpressionEvaluator variableExpressionEvaluator =
+                StandardExpressions.getVariableExpressionEvaluator(context.getConfiguration());
+
+        final Object result = execute(context, this, variableExpressionEvaluator, expContext);
+        return LiteralValue.unwrapWithLazyText(result);
+
+    }
+
+
     
 }
@@ -38,6 +38,7 @@ final class ExpressionCache {
     private static final String EXPRESSION_CACHE_TYPE_EXPRESSION_SEQUENCE = "eseq";
     private static final String EXPRESSION_CACHE_TYPE_EACH = "each";
     private static final String EXPRESSION_CACHE_TYPE_FRAGMENT_SIGNATURE = "fsig";
+    private static final String EXPRESSION_CACHE_TYPE_PREPROCESSING_PLAN = "prep";
 
     
     
@@ -132,4 +133,14 @@ static void putFragmentSignatureIntoCache(final IEngineConfiguration configurati
         putIntoCache(configuration, input, value, EXPRESSION_CACHE_TYPE_FRAGMENT_SIGNATURE);
     }
 
+
+
+    static StandardExpressionPreprocessor.PreprocessingPlan getPreprocessingPlanFromCache(final IEngineConfiguration configuration, final String input) {
+        return (StandardExpressionPreprocessor.PreprocessingPlan) getFromCache(configuration, input, EXPRESSION_CACHE_TYPE_PREPROCESSING_PLAN);
+    }
+
+    static void putPreprocessingPlanIntoCache(final IEngineConfiguration configuration, final String input, final StandardExpressionPreprocessor.PreprocessingPlan value) {
+        putIntoCache(configuration, input, value, EXPRESSION_CACHE_TYPE_PREPROCESSING_PLAN);
+    }
+
 }
@@ -19,14 +19,11 @@
  */
 package org.thymeleaf.standard.expression;
 
-import java.math.BigDecimal;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -90,11 +87,10 @@ static Object executeLessOrEqualTo(
 
         Boolean result = null;
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-        
-        if (leftNumberValue != null && rightNumberValue != null) {
-            result = Boolean.valueOf(leftNumberValue.compareTo(rightNumberValue) != 1);
+        final Integer numberComparison = NumericOperationUtil.compare(leftValue, rightValue);
+
+        if (numberComparison != null) {
+            result = Boolean.valueOf(numberComparison.intValue() != 1);
         } else {
             if (leftValue != null && rightValue != null &&
                     leftValue.getClass().equals(rightValue.getClass()) && 
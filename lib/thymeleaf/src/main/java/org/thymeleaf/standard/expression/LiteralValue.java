@@ -21,6 +21,8 @@
 
 import java.io.Serializable;
 
+import org.thymeleaf.util.AggregateCharSequence;
+
 
 
 /**
@@ -40,19 +42,66 @@ public final class LiteralValue implements Serializable {
     
     private static final long serialVersionUID = -4769586410724418224L;
     
-    private final String value;
+    // Text literals resulting from concatenations are kept as their separate parts, so that no intermediate
+    // Strings are created for chained concatenations and the whole text is only built if really needed.
+    private String value;
+    private final String[] parts;
 
     
     public LiteralValue(final String value) {
         super();
         this.value = value;
+        this.parts = null;
+    }
+
+
+    private LiteralValue(final String[] parts) {
+        super();
+        this.value = null;
+        this.parts = parts;
     }
     
     
     
     public String getValue() {
+        if (this.value == null && this.parts != null) {
+            // Concurrent executions (e.g. of cached constant expressions) might compute this more than once,
+            // but the result will be the same
+            int len = 0;
+            for (final String part : this.parts) {
+                len += part.length();
+            }
+            final StringBuilder strBuilder = new StringBuilder(len);
+            for (final String part : this.parts) {
+                strBuilder.append(part);
+            }
+            this.value = strBuilder.toString();
+        }
         return this.value;
     }
+
+
+
+    static LiteralValue concat(final Object left, final Object right) {
+
+        final String[] leftParts = computeParts(left);
+        final String[] rightParts = computeParts(right);
+
+        final String[] parts = new String[leftParts.length + rightParts.length];
+        System.arraycopy(leftParts, 0, parts, 0, leftParts.length);
+        System.arraycopy(rightParts, 0, parts, leftParts.length, rightParts.length);
+
+        return new LiteralValue(parts);
+
+    }
+
+
+    private static String[] computeParts(final Object obj) {
+        if (obj instanceof LiteralValue && ((LiteralValue)obj).parts != null) {
+            return ((LiteralValue)obj).parts;
+        }
+        return new String[] { unwrap(obj).toString() };
+    }
     
     
     public static Object unwrap(final Object obj) {
@@ -66,4 +115,17 @@ public static Object unwrap(final Object obj) {
     }
 
 
+    /*
+     * Same as unwrap(Object), but results of concatenations are returned as a CharSequence that will not build
+     * the whole text unless needed (e.g. writing it to output will just write its parts one after another).
+     */
+    static Object unwrapWithLazyText(final Object obj) {
+        if (obj instanceof LiteralValue && ((LiteralValue)obj).parts != null) {
+            final LiteralValue literalValue = (LiteralValue)obj;
+            return (literalValue.value != null? literalValue.value : new AggregateCharSequence(literalValue.parts));
+        }
+        return unwrap(obj);
+    }
+
+
 }
@@ -26,7 +26,6 @@
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
-import org.thymeleaf.util.EvaluationUtils;
 import org.thymeleaf.util.StringUtils;
 import org.thymeleaf.util.Validate;
 
@@ -146,10 +145,9 @@ static Object executeMinus(
             operandValue = "null";
         }
 
-        final BigDecimal operandNumberValue = EvaluationUtils.evaluateAsNumber(operandValue);
-        if (operandNumberValue != null) {
-            // Addition will act as a mathematical 'plus'
-            return operandNumberValue.multiply(BigDecimal.valueOf(-1));
+        final BigDecimal numberResult = NumericOperationUtil.negate(operandValue);
+        if (numberResult != null) {
+            return numberResult;
         }
         
         throw new TemplateProcessingException(
@@ -26,7 +26,6 @@
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -87,11 +86,10 @@ static Object executeMultiplication(
             rightValue = "null";
         }
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-        if (leftNumberValue != null && rightNumberValue != null) {
+        final BigDecimal numberResult = NumericOperationUtil.multiply(leftValue, rightValue);
+        if (numberResult != null) {
             // Addition will act as a mathematical 'plus'
-            return leftNumberValue.multiply(rightNumberValue);
+            return numberResult;
         }
         
         throw new TemplateProcessingException(
@@ -0,0 +1,255 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import org.thymeleaf.util.EvaluationUtils;
+
+/**
+ * <p>
+ *   Numeric operations used by the arithmetic and comparison expressions.
+ * </p>
+ * <p>
+ *   Operands are normally converted into {@link BigDecimal} objects before being operated, but that
+ *   means several allocations per evaluation even for the most common case of operating with small
+ *   integer values (e.g. {@code ${i} > 0}, {@code ${row.count} * 2}). When both operands are integral
+ *   numbers that fit into a {@code long} (or, for comparisons, finite floating point numbers) the operation
+ *   is performed on primitive values instead, falling back to {@link BigDecimal} whenever the operation
+ *   overflows or its result could not be exactly represented. Results are the same in both cases.
+ * </p>
+ *
+ * @since 3.1.2
+ *
+ */
+final class NumericOperationUtil {
+
+    // Largest magnitude for which every long value can be exactly represented as a double
+    private static final long MAX_EXACT_DOUBLE_LONG = 1L << 53;
+
+
+
+    private NumericOperationUtil() {
+        super();
+    }
+
+
+
+
+    /*
+     * Returns null if any of the values cannot be evaluated as a number.
+     */
+    static BigDecimal add(final Object left, final Object right) {
+        if (isLongValue(left) && isLongValue(right)) {
+            final long l = ((Number)left).longValue();
+            final long r = ((Number)right).longValue();
+            final long result = l + r;
+            if (((l ^ result) & (r ^ result)) >= 0) { // No overflow
+                return BigDecimal.valueOf(result);
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        return leftNumberValue.add(rightNumberValue);
+    }
+
+
+    /*
+     * Returns null if any of the values cannot be evaluated as a number.
+     */
+    static BigDecimal subtract(final Object left, final Object right) {
+        if (isLongValue(left) && isLongValue(right)) {
+            final long l = ((Number)left).longValue();
+            final long r = ((Number)right).longValue();
+            final long result = l - r;
+            if (((l ^ r) & (l ^ result)) >= 0) { // No overflow
+                return BigDecimal.valueOf(result);
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        return leftNumberValue.subtract(rightNumberValue);
+    }
+
+
+    /*
+     * Returns null if any of the values cannot be evaluated as a number.
+     */
+    static BigDecimal multiply(final Object left, final Object right) {
+        if (isLongValue(left) && isLongValue(right)) {
+            final long l = ((Number)left).longValue();
+            final long r = ((Number)right).longValue();
+            // If both operands fit in 31 bits no overflow is possible, any other case is left to BigDecimal
+            if (((Math.abs(l) | Math.abs(r)) >>> 31) == 0L) {
+                return BigDecimal.valueOf(l * r);
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        return leftNumberValue.multiply(rightNumberValue);
+    }
+
+
+    /*
+     * Returns null if any of the values cannot be evaluated as a number. Only exact integer divisions are
+     * computed on primitive values, as any other result will need the scale computed by BigDecimal.
+     */
+    static BigDecimal divide(final Object left, final Object right) {
+        if (isLongValue(left) && isLongValue(right)) {
+            final long l = ((Number)left).longValue();
+            final long r = ((Number)right).longValue();
+            if (r != 0L && !(r == -1L && l == Long.MIN_VALUE) && l % r == 0L) {
+                return BigDecimal.valueOf(l / r);
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        try {
+            return leftNumberValue.divide(rightNumberValue);
+        } catch (final ArithmeticException ignored) {
+            // Result has a non-terminating decimal expansion (like 100/3), so
+            // we just use a minimum arbitrary scale (10) and HALF_UP rounding mode
+            return leftNumberValue.divide(
+                    rightNumberValue,
+                    Math.max(Math.max(leftNumberValue.scale(),rightNumberValue.scale()), 10),
+                    RoundingMode.HALF_UP);
+        }
+    }
+
+
+    /*
+     * Returns null if any of the values cannot be evaluated as a number.
+     */
+    static BigDecimal remainder(final Object left, final Object right) {
+        if (isLongValue(left) && isLongValue(right)) {
+            final long r = ((Number)right).longValue();
+            if (r != 0L) { // Division by zero will be reported by BigDecimal
+                return BigDecimal.valueOf(((Number)left).longValue() % r);
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        return leftNumberValue.remainder(rightNumberValue);
+    }
+
+
+    /*
+     * Returns null if the value cannot be evaluated as a number.
+     */
+    static BigDecimal negate(final Object operand) {
+        if (isLongValue(operand)) {
+            final long value = ((Number)operand).longValue();
+            if (value != Long.MIN_VALUE) {
+                return BigDecimal.valueOf(-value);
+            }
+        }
+        final BigDecimal operandNumberValue = EvaluationUtils.evaluateAsNumber(operand);
+        if (operandNumberValue == null) {
+            return null;
+        }
+        return operandNumberValue.negate();
+    }
+
+
+    /*
+     * Returns the signum (-1, 0 or 1) of comparing both values as numbers, or null if any of them
+     * cannot be evaluated as a number.
+     */
+    static Integer compare(final Object left, final Object right) {
+        if (isLongValue(left)) {
+            if (isLongValue(right)) {
+                return Integer.valueOf(Long.compare(((Number)left).longValue(), ((Number)right).longValue()));
+            }
+            if (isDoubleValue(right) && isExactDoubleValue(((Number)left).longValue())) {
+                return compare(((Number)left).longValue(), ((Number)right).doubleValue());
+            }
+        } else if (isDoubleValue(left)) {
+            if (isDoubleValue(right)) {
+                return compare(((Number)left).doubleValue(), ((Number)right).doubleValue());
+            }
+            if (isLongValue(right) && isExactDoubleValue(((Number)right).longValue())) {
+                return compare(((Number)left).doubleValue(), ((Number)right).longValue());
+            }
+        }
+        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(right);
+        if (leftNumberValue == null || rightNumberValue == null) {
+            return null;
+        }
+        return Integer.valueOf(leftNumberValue.compareTo(rightNumberValue));
+    }
+
+
+    private static Integer compare(final double left, final double right) {
+        // Both values are finite, and note that -0.0 and 0.0 must be equal here (as they are for BigDecimal)
+        return Integer.valueOf(left < right ? -1 : (left > right ? 1 : 0));
+    }
+
+
+
+
+    /*
+     * Values that can be converted into a long without loss, and for which EvaluationUtils.evaluateAsNumber
+     * would return an integer (scale = 0) BigDecimal.
+     */
+    private static boolean isLongValue(final Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+                (value instanceof BigInteger && ((BigInteger)value).bitLength() < 64);
+    }
+
+
+    /*
+     * Floating point values that EvaluationUtils.evaluateAsNumber would convert exactly into a BigDecimal
+     * (NaN and infinite values are left to the BigDecimal conversion, so that they are reported the usual way).
+     */
+    private static boolean isDoubleValue(final Object value) {
+        if (value instanceof Double) {
+            return !Double.isNaN(((Double)value).doubleValue()) && !Double.isInfinite(((Double)value).doubleValue());
+        }
+        if (value instanceof Float) {
+            return !Float.isNaN(((Float)value).floatValue()) && !Float.isInfinite(((Float)value).floatValue());
+        }
+        return false;
+    }
+
+
+    private static boolean isExactDoubleValue(final long value) {
+        return value <= MAX_EXACT_DOUBLE_LONG && value >= -MAX_EXACT_DOUBLE_LONG;
+    }
+
+
+}
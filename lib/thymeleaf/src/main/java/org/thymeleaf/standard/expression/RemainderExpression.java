@@ -26,7 +26,6 @@
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
-import org.thymeleaf.util.EvaluationUtils;
 
 
 /**
@@ -88,11 +87,10 @@ static Object executeRemainder(
             rightValue = "null";
         }
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
-        if (leftNumberValue != null && rightNumberValue != null) {
+        final BigDecimal numberResult = NumericOperationUtil.remainder(leftValue, rightValue);
+        if (numberResult != null) {
             // Addition will act as a mathematical 'plus'
-            return leftNumberValue.remainder(rightNumberValue);
+            return numberResult;
         }
         
         throw new TemplateProcessingException(
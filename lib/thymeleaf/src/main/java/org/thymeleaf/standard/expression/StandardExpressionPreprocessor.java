@@ -19,9 +19,10 @@
  */
 package org.thymeleaf.standard.expression;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.thymeleaf.IEngineConfiguration;
 import org.thymeleaf.context.IExpressionContext;
 
 
@@ -43,8 +44,7 @@ final class StandardExpressionPreprocessor {
 
 
     private static final char PREPROCESS_DELIMITER = '_';
-    private static final String PREPROCESS_EVAL = "\\_\\_(.*?)\\_\\_";
-    private static final Pattern PREPROCESS_EVAL_PATTERN = Pattern.compile(PREPROCESS_EVAL, Pattern.DOTALL);
+    private static final String PREPROCESS_MARK = "__";
 
 
 
@@ -66,46 +66,84 @@ static String preprocess(
             return input;
         }
 
-        final Matcher matcher = PREPROCESS_EVAL_PATTERN.matcher(input);
-        
-        if (matcher.find()) {
-
-            final StringBuilder strBuilder = new StringBuilder(input.length() + 24);
-            int curr = 0;
-            
-            do {
-                
-                final String previousText = 
-                        checkPreprocessingMarkUnescaping(input.substring(curr,matcher.start(0)));
-                final String expressionText = 
-                        checkPreprocessingMarkUnescaping(matcher.group(1));
-                        
-                strBuilder.append(previousText);
-                
-                final IStandardExpression expression =
-                        StandardExpressionParser.parseExpression(context, expressionText, false);
-                if (expression == null) {
-                    return null;
-                }
-                
-                final Object result = expression.execute(context, StandardExpressionExecutionContext.RESTRICTED);
-                
-                strBuilder.append(result);
-                
-                curr = matcher.end(0);
-                
-            } while (matcher.find());
-            
-            final String remaining = checkPreprocessingMarkUnescaping(input.substring(curr));
-            
-            strBuilder.append(remaining);
-            
-            return strBuilder.toString().trim();
-            
+        if (input.indexOf(PREPROCESS_MARK) == -1) {
+            // No preprocessing fragments, but we might still need to unescape some preprocessing marks
+            return checkPreprocessingMarkUnescaping(input);
         }
-        
-        return checkPreprocessingMarkUnescaping(input);
-        
+
+        final IEngineConfiguration configuration = context.getConfiguration();
+
+        // The way the input is split into preprocessing fragments is cached, so that only the expressions
+        // inside these fragments have to be executed each time the input is preprocessed
+        PreprocessingPlan plan = ExpressionCache.getPreprocessingPlanFromCache(configuration, input);
+        if (plan == null) {
+            plan = computePreprocessingPlan(context, input);
+            if (plan == null) {
+                return null;
+            }
+            ExpressionCache.putPreprocessingPlanIntoCache(configuration, input, plan);
+        }
+
+        if (plan.expressions.length == 0) {
+            return plan.texts[0];
+        }
+
+        final StringBuilder strBuilder = new StringBuilder(input.length() + 24);
+        for (int i = 0; i < plan.expressions.length; i++) {
+            strBuilder.append(plan.texts[i]);
+            strBuilder.append(plan.expressions[i].execute(context, StandardExpressionExecutionContext.RESTRICTED));
+        }
+        strBuilder.append(plan.texts[plan.expressions.length]);
+
+        return strBuilder.toString().trim();
+
+    }
+
+
+
+    /*
+     * Splits the input into the (already unescaped) texts and the parsed expressions of the __...__ fragments
+     * they surround. A fragment starts at the first "__" found and ends at the next "__" (so "____" is an empty
+     * fragment), and an unclosed "__" means no more fragments are to be found.
+     */
+    private static PreprocessingPlan computePreprocessingPlan(final IExpressionContext context, final String input) {
+
+        final List<String> texts = new ArrayList<String>(3);
+        final List<IStandardExpression> expressions = new ArrayList<IStandardExpression>(2);
+
+        final int inputLen = input.length();
+        int curr = 0;
+        int fragmentStart;
+
+        while (curr < inputLen && (fragmentStart = input.indexOf(PREPROCESS_MARK, curr)) != -1) {
+
+            final int fragmentEnd = input.indexOf(PREPROCESS_MARK, fragmentStart + 2);
+            if (fragmentEnd == -1) {
+                break;
+            }
+
+            final String expressionText =
+                    checkPreprocessingMarkUnescaping(input.substring(fragmentStart + 2, fragmentEnd));
+
+            final IStandardExpression expression =
+                    StandardExpressionParser.parseExpression(context, expressionText, false);
+            if (expression == null) {
+                return null;
+            }
+
+            texts.add(checkPreprocessingMarkUnescaping(input.substring(curr, fragmentStart)));
+            expressions.add(expression);
+
+            curr = fragmentEnd + 2;
+
+        }
+
+        texts.add(checkPreprocessingMarkUnescaping(input.substring(curr)));
+
+        return new PreprocessingPlan(
+                texts.toArray(new String[texts.size()]),
+                expressions.toArray(new IStandardExpression[expressions.size()]));
+
     }
 
     
@@ -171,5 +209,23 @@ private StandardExpressionPreprocessor() {
         super();
     }
 
+
+
+
+    static final class PreprocessingPlan {
+
+        // There will always be one more text than expressions, texts being the ones before each expression
+        // and after the last one
+        final String[] texts;
+        final IStandardExpression[] expressions;
+
+        PreprocessingPlan(final String[] texts, final IStandardExpression[] expressions) {
+            super();
+            this.texts = texts;
+            this.expressions = expressions;
+        }
+
+    }
+
     
 }
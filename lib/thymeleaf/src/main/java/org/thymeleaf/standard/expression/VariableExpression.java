@@ -60,6 +60,11 @@ public final class VariableExpression extends SimpleExpression implements IStand
     private final String expression;
     private final boolean convertToString;
 
+    // Expressions consisting only of a boolean or null literal (like the implicit 'else' of conditional
+    // expressions) always evaluate to the same value, so they need not be sent to the expression evaluator
+    private final boolean constant;
+    private final Boolean constantValue;
+
     private volatile Object cachedExpression = null;
     
     
@@ -80,6 +85,18 @@ public VariableExpression(final String expression, final boolean convertToString
         Validate.notNull(expression, "Expression cannot be null");
         this.expression = expression;
         this.convertToString = convertToString;
+        // If conversion to String is needed, the result might depend on the configured conversion service
+        final String trimmedExpression = (convertToString ? null : expression.trim());
+        if ("true".equals(trimmedExpression)) {
+            this.constant = true;
+            this.constantValue = Boolean.TRUE;
+        } else if ("false".equals(trimmedExpression)) {
+            this.constant = true;
+            this.constantValue = Boolean.FALSE;
+        } else {
+            this.constant = "null".equals(trimmedExpression);
+            this.constantValue = null;
+        }
     }
 
 
@@ -104,6 +121,12 @@ public boolean getConvertToString() {
 
 
 
+    boolean isConstant() {
+        return this.constant;
+    }
+
+
+
     // Meant only to be used internally, in order to avoid cache calls
     public Object getCachedExpression() {
         return this.cachedExpression;
@@ -160,6 +183,10 @@ static Object executeVariableExpression(
             logger.trace("[THYMELEAF][{}] Evaluating variable expression: \"{}\"", TemplateEngine.threadIndex(), expression.getStringRepresentation());
         }
         
+        if (expression.constant) {
+            return expression.constantValue;
+        }
+
         final StandardExpressionExecutionContext evalExpContext =
             (expression.getConvertToString()? expContext.withTypeConversion() : expContext.withoutTypeConversion());
 
@@ -25,6 +25,7 @@
 import org.thymeleaf.model.IProcessableElementTag;
 import org.thymeleaf.processor.element.AbstractAttributeTagProcessor;
 import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.standard.expression.Expression;
 import org.thymeleaf.standard.expression.FragmentExpression;
 import org.thymeleaf.standard.expression.IStandardExpression;
 import org.thymeleaf.standard.expression.NoOpToken;
@@ -111,6 +112,25 @@ protected AbstractStandardExpressionAttributeTagProcessor(
 
 
 
+    /**
+     * <p>
+     *   Whether this processor is able to process textual expression results that have not been built into
+     *   a {@link String} (e.g. concatenations, see {@link Expression#executeWithLazyText(org.thymeleaf.context.IExpressionContext, StandardExpressionExecutionContext)}),
+     *   in which case these results will be received as {@link org.thymeleaf.util.AggregateCharSequence} objects.
+     * </p>
+     * <p>
+     *   Default is {@code false}.
+     * </p>
+     *
+     * @return whether lazy textual results are allowed.
+     * @since 3.1.2
+     */
+    protected boolean allowsLazyTextResults() {
+        return false;
+    }
+
+
+
     @Override
     protected final void doProcess(
             final ITemplateContext context,
@@ -141,7 +161,10 @@ protected final void doProcess(
                  * Some attributes will require the execution of the expressions contained in them in RESTRICTED
                  * mode, so that e.g. access to request parameters is forbidden.
                  */
-                expressionResult = expression.execute(context, this.expressionExecutionContext);
+                expressionResult =
+                        (expression instanceof Expression && allowsLazyTextResults()?
+                                ((Expression) expression).executeWithLazyText(context, this.expressionExecutionContext) :
+                                expression.execute(context, this.expressionExecutionContext));
 
             }
 
@@ -26,12 +26,10 @@
 import org.thymeleaf.engine.AttributeName;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.model.IProcessableElementTag;
-import org.thymeleaf.standard.expression.EqualsExpression;
 import org.thymeleaf.standard.expression.IStandardExpression;
 import org.thymeleaf.standard.expression.IStandardExpressionParser;
 import org.thymeleaf.standard.expression.StandardExpressions;
 import org.thymeleaf.templatemode.TemplateMode;
-import org.thymeleaf.util.EvaluationUtils;
 import org.thymeleaf.util.LoggingUtils;
 
 /**
@@ -101,11 +99,8 @@ protected boolean isVisible(
         final IStandardExpression caseExpression =
                 expressionParser.parseExpression(context, attributeValue);
 
-        final EqualsExpression equalsExpression = new EqualsExpression(switchStructure.getExpression(), caseExpression);
-
-        final Object value = equalsExpression.execute(context);
-
-        final boolean visible = EvaluationUtils.evaluateAsBoolean(value);
+        // The switch expression is evaluated only once for all cases, and each case is matched against its value
+        final boolean visible = switchStructure.matches(context, caseExpression.execute(context));
 
         if (this.logger.isTraceEnabled()) {
             this.logger.trace("[THYMELEAF][{}][{}] Case expression \"{}\" in attribute \"{}\" has been evaluated as: \"{}\"",
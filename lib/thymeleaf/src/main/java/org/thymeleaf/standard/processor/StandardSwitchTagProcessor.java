@@ -19,6 +19,8 @@
  */
 package org.thymeleaf.standard.processor;
 
+import java.math.BigDecimal;
+
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.AttributeName;
 import org.thymeleaf.model.IProcessableElementTag;
@@ -26,10 +28,22 @@
 import org.thymeleaf.processor.element.IElementTagStructureHandler;
 import org.thymeleaf.standard.expression.IStandardExpression;
 import org.thymeleaf.standard.expression.IStandardExpressionParser;
+import org.thymeleaf.standard.expression.LiteralValue;
 import org.thymeleaf.standard.expression.StandardExpressions;
 import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.EvaluationUtils;
 
 /**
+ * <p>
+ *   Processor for the {@code th:switch} attribute.
+ * </p>
+ * <p>
+ *   The switch expression is evaluated only once, in the context of the first {@code th:case} that needs its value
+ *   (i.e. the first non-default case). Its value is then compared against each case value using the same semantics
+ *   as the equality ({@code ==}) operator. Therefore, local variables modified between cases (for example, by a
+ *   {@code th:with} on an element containing nested cases) do not affect the result of the switch expression for
+ *   the cases that follow.
+ * </p>
  *
  * @author Daniel Fern&aacute;ndez
  *
@@ -72,10 +86,16 @@ public static final class SwitchStructure {
         private final IStandardExpression expression;
         private boolean executed;
 
+        // The switch expression will only be evaluated once, the first time a (non-default) case needs it
+        private boolean evaluated;
+        private Object value;
+        private BigDecimal numberValue;
+
         public SwitchStructure(final IStandardExpression expression) {
             super();
             this.expression = expression;
             this.executed = false;
+            this.evaluated = false;
         }
 
         public IStandardExpression getExpression() {
@@ -90,6 +110,45 @@ public void setExecuted(final boolean executed) {
             this.executed = executed;
         }
 
+        /*
+         * Checks whether the value of a case matches the value of the switch expression, using the same
+         * semantics as the equality ('==') operator in Standard Expressions.
+         */
+        @SuppressWarnings("unchecked")
+        boolean matches(final ITemplateContext context, final Object caseValue) {
+
+            if (!this.evaluated) {
+                final Object switchValue = LiteralValue.unwrap(this.expression.execute(context));
+                this.numberValue = EvaluationUtils.evaluateAsNumber(switchValue);
+                this.value = (switchValue instanceof Character ? switchValue.toString() : switchValue);
+                this.evaluated = true;
+            }
+
+            Object rightValue = LiteralValue.unwrap(caseValue);
+
+            if (this.value == null) {
+                return (rightValue == null);
+            }
+
+            if (this.numberValue != null) {
+                final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
+                if (rightNumberValue != null) {
+                    return (this.numberValue.compareTo(rightNumberValue) == 0);
+                }
+            }
+
+            if (rightValue instanceof Character) {
+                rightValue = rightValue.toString();  // Just a character, no need to use conversionService here
+            }
+            if (rightValue != null &&
+                    this.value.getClass().equals(rightValue.getClass()) &&
+                    Comparable.class.isAssignableFrom(this.value.getClass())) {
+                return (((Comparable<Object>)this.value).compareTo(rightValue) == 0);
+            }
+            return this.value.equals(rightValue);
+
+        }
+
     }
 
 
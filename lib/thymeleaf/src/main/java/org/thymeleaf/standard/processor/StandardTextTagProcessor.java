@@ -21,13 +21,12 @@
 
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.AttributeName;
-import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.model.IProcessableElementTag;
 import org.thymeleaf.processor.element.IElementTagStructureHandler;
 import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.AggregateCharSequence;
+import org.thymeleaf.util.EscapedTextUtils;
 import org.thymeleaf.util.LazyEscapingCharSequence;
-import org.unbescape.html.HtmlEscape;
-import org.unbescape.xml.XmlEscape;
 
 /**
  *
@@ -50,6 +49,13 @@ public StandardTextTagProcessor(final TemplateMode templateMode, final String di
 
 
 
+    @Override
+    protected boolean allowsLazyTextResults() {
+        return true;
+    }
+
+
+
     @Override
     protected void doProcess(
             final ITemplateContext context,
@@ -61,13 +67,13 @@ protected void doProcess(
         final TemplateMode templateMode = getTemplateMode();
 
         /*
-         * Depending on the template mode and the length of the text to be output escaped, we will try to opt for
-         * the most resource-efficient alternative.
+         * Depending on the template mode, we will try to opt for the most resource-efficient alternative.
          *
          *    * If we are outputting RAW, there is no escape to do, just pass through.
          *    * If we are outputting HTML, XML or TEXT we know output will be textual (result of calling .toString() on
-         *      the expression result), and therefore we can decide between an immediate vs lazy escaping alternative
-         *      depending on size. We will perform lazy escaping, writing directly to output Writer, if length > 100.
+         *      the expression result), so we will scan it for chars needing escaping. If there are none (the most
+         *      common case), the text will be output untouched. If there are, escaping will be performed lazily,
+         *      writing directly to output Writer, so that no intermediate escaped String is created.
          *    * If we are outputting JAVASCRIPT or CSS, we will always pass the expression result unchanged to a lazy
          *      escape processor, so that whatever the JS/CSS serializer wants to do, it does it directly on the
          *      output Writer and the entire results are never really needed in memory.
@@ -77,30 +83,22 @@ protected void doProcess(
 
         if (templateMode != TemplateMode.JAVASCRIPT && templateMode != TemplateMode.CSS) {
 
-            final String input = (expressionResult == null? "" : expressionResult.toString());
-
-            if (templateMode == TemplateMode.RAW) {
-                // RAW -> just output
-
-                text = input;
-
-            } else {
-
-                if (input.length() > 100) {
-                    // Might be a large text -> Lazy escaping on the output Writer
-                    text = new LazyEscapingCharSequence(context.getConfiguration(), templateMode, input);
-                } else {
-                    // Not large -> better use a bit more of memory, but be faster
-                    text = produceEscapedOutput(templateMode, input);
-                }
-
-            }
+            // Results of concatenations come as aggregates of their parts, which are scanned and escaped one by one
+            // and then written one after another, so that the whole text is never built
+            final CharSequence input =
+                    (expressionResult == null? "" :
+                            (expressionResult instanceof AggregateCharSequence?
+                                    (CharSequence) expressionResult : expressionResult.toString()));
+            text = EscapedTextUtils.escapeText(context.getConfiguration(), templateMode, input);
 
         } else {
             // JavaScript and CSS serializers always work directly on the output Writer, no need to store the entire
-            // serialized contents in memory (unless the Writer itself wants to do so).
+            // serialized contents in memory (unless the Writer itself wants to do so). They need to receive
+            // textual values as Strings, though.
 
-            text = new LazyEscapingCharSequence(context.getConfiguration(), templateMode, expressionResult);
+            final Object input =
+                    (expressionResult instanceof AggregateCharSequence? expressionResult.toString() : expressionResult);
+            text = new LazyEscapingCharSequence(context.getConfiguration(), templateMode, input);
 
         }
 
@@ -110,25 +108,4 @@ protected void doProcess(
     }
 
 
-    private static String produceEscapedOutput(final TemplateMode templateMode, final String input) {
-
-        switch (templateMode) {
-
-            case TEXT:
-                // fall-through
-            case HTML:
-                return HtmlEscape.escapeHtml4Xml(input);
-            case XML:
-                // Note we are outputting a body content here, so it is important that we use the version
-                // of XML escaping meant for content, not attributes (slight differences)
-                return XmlEscape.escapeXml10(input);
-            default:
-                throw new TemplateProcessingException(
-                        "Unrecognized template mode " + templateMode + ". Cannot produce escaped output for " +
-                        "this template mode.");
-        }
-
-    }
-
-
 }
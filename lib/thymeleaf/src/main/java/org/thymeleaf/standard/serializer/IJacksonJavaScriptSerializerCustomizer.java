@@ -0,0 +1,87 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * <p>
+ *   Customizer for the Jackson-based serialization performed by {@link StandardJavaScriptSerializer} when the
+ *   Jackson library is present at the classpath.
+ * </p>
+ * <p>
+ *   Customizers can modify the {@code ObjectMapper} used for serialization once it has been configured by
+ *   Thymeleaf (e.g. in order to register modules such as Blackbird or Afterburner, which replace the
+ *   reflection-based property accessors with generated ones), and also compute the {@code ObjectWriter}
+ *   that will be used for serializing values of each type (e.g. in order to apply Jackson views). Object
+ *   writers are computed only once for each type, and then reused.
+ * </p>
+ * <p>
+ *   Note that object writers should be created from the {@code ObjectMapper} passed as an argument so that they
+ *   apply the escaping rules and date formats configured by Thymeleaf for JavaScript inlining.
+ * </p>
+ * <p>
+ *   Implementations of this interface should be <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @see StandardJavaScriptSerializer#StandardJavaScriptSerializer(boolean, IJacksonJavaScriptSerializerCustomizer)
+ *
+ * @since 3.1.2
+ *
+ */
+public interface IJacksonJavaScriptSerializerCustomizer {
+
+
+    /**
+     * <p>
+     *   Customizes the {@code ObjectMapper} that will be used for serialization. Called only once, after
+     *   Thymeleaf has applied its own configuration to it.
+     * </p>
+     * <p>
+     *   Default implementation does nothing.
+     * </p>
+     *
+     * @param mapper the object mapper.
+     */
+    default void customizeObjectMapper(final ObjectMapper mapper) {
+        // Nothing to be done by default
+    }
+
+
+    /**
+     * <p>
+     *   Computes the {@code ObjectWriter} that will be used for serializing values of the specified type. Called
+     *   only once per type.
+     * </p>
+     * <p>
+     *   Default implementation returns {@code mapper.writerFor(type)}.
+     * </p>
+     *
+     * @param mapper the object mapper, already configured and customized.
+     * @param type the type of the values to be serialized.
+     * @return the object writer to be used.
+     */
+    default ObjectWriter computeObjectWriter(final ObjectMapper mapper, final Class<?> type) {
+        return mapper.writerFor(type);
+    }
+
+
+}
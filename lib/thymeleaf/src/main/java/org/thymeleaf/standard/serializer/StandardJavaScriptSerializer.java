@@ -24,16 +24,19 @@
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.text.DateFormat;
 import java.text.FieldPosition;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -43,6 +46,7 @@
 import com.fasterxml.jackson.core.json.JsonWriteFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +77,13 @@
  *   Note that, even if Jackson is present in the classpath, its usage can be prevented by means of the
  *   {@code useJacksonIfAvailable} constructor flag.
  * </p>
+ * <p>
+ *   When using Jackson, serialization can be customized by means of an
+ *   {@link IJacksonJavaScriptSerializerCustomizer}, which allows customizing the {@code ObjectMapper} (e.g.
+ *   registering modules) and the {@code ObjectWriter} objects that will be used for each type (e.g. in order
+ *   to apply views). Object writers are computed only once per type, and they always write directly to the
+ *   template output {@code Writer}.
+ * </p>
  * 
  * @author Daniel Fern&aacute;ndez
  * 
@@ -104,6 +115,22 @@ private String computeJacksonPackageNameIfPresent() {
 
 
     public StandardJavaScriptSerializer(final boolean useJacksonIfAvailable) {
+        this(useJacksonIfAvailable, null);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new serializer, specifying a customizer for Jackson-based serialization. This customizer
+     *   will only be used if Jackson is available and {@code useJacksonIfAvailable} is {@code true}.
+     * </p>
+     *
+     * @param useJacksonIfAvailable whether Jackson should be used if present in the classpath.
+     * @param jacksonCustomizer the customizer for Jackson-based serialization (can be null).
+     * @since 3.1.2
+     */
+    public StandardJavaScriptSerializer(
+            final boolean useJacksonIfAvailable, final IJacksonJavaScriptSerializerCustomizer jacksonCustomizer) {
 
         super();
 
@@ -115,7 +142,7 @@ public StandardJavaScriptSerializer(final boolean useJacksonIfAvailable) {
 
             try {
 
-                newDelegate = new JacksonStandardJavaScriptSerializer(jacksonPrefix);
+                newDelegate = new JacksonStandardJavaScriptSerializer(jacksonPrefix, jacksonCustomizer);
 
             } catch (final Exception e) {
                 handleErrorLoggingOnJacksonInitialization(e);
@@ -149,9 +176,11 @@ public void serializeValue(final Object object, final Writer writer) {
     private static final class JacksonStandardJavaScriptSerializer implements IStandardJavaScriptSerializer {
 
         private final ObjectMapper mapper;
+        private final ClassValue<ObjectWriter> writers;
 
 
-        JacksonStandardJavaScriptSerializer(final String jacksonPrefix) {
+        JacksonStandardJavaScriptSerializer(
+                final String jacksonPrefix, final IJacksonJavaScriptSerializerCustomizer customizer) {
 
             super();
 
@@ -180,12 +209,33 @@ private static final class JacksonStandardJavaScriptSerializer implements IStand
                 }
             }
 
+            /*
+             * Finally, apply the customizations (if any), and prepare the object writers that will be used for each
+             * type, so that all the configuration-dependent computations are done only once per type.
+             */
+            final IJacksonJavaScriptSerializerCustomizer mapperCustomizer =
+                    (customizer != null? customizer : new IJacksonJavaScriptSerializerCustomizer() {});
+            mapperCustomizer.customizeObjectMapper(this.mapper);
+
+            final ObjectMapper writersMapper = this.mapper;
+            this.writers = new ClassValue<ObjectWriter>() {
+                @Override
+                protected ObjectWriter computeValue(final Class<?> type) {
+                    return mapperCustomizer.computeObjectWriter(writersMapper, type);
+                }
+            };
+
         }
 
 
         public void serializeValue(final Object object, final Writer writer) {
             try {
-                this.mapper.writeValue(writer, object);
+                if (object == null) {
+                    this.mapper.writeValue(writer, null);
+                } else {
+                    // Object writers write directly to the output Writer, there are no intermediate buffers
+                    this.writers.get(object.getClass()).writeValue(writer, object);
+                }
             } catch (final IOException e) {
                 throw new TemplateProcessingException(
                         "An exception was raised while trying to serialize object to JavaScript using Jackson", e);
@@ -320,6 +370,34 @@ public SerializableString getEscapeSequence(final int ch) {
 
     private static final class DefaultStandardJavaScriptSerializer implements IStandardJavaScriptSerializer {
 
+        /*
+         * Table of the ASCII chars that might need escaping in JSON string literals, computed by asking the escaping
+         * library itself. '<' is also included because '/' is escaped when it follows it (avoiding '</script>').
+         * All non-ASCII chars are escaped.
+         */
+        private static final boolean[] ESCAPED_CHARS = new boolean[128];
+
+        static {
+            for (char c = 0; c < 128; c++) {
+                final String str = String.valueOf(c);
+                ESCAPED_CHARS[c] =
+                        !str.equals(JsonEscape.escapeJson(str, JsonEscapeType.SINGLE_ESCAPE_CHARS_DEFAULT_TO_UHEXA, JsonEscapeLevel.LEVEL_2_ALL_NON_ASCII_PLUS_BASIC_ESCAPE_SET));
+            }
+            ESCAPED_CHARS['<'] = true;
+        }
+
+        /*
+         * Bean introspection is expensive, so the readable properties of each class are computed only once and
+         * cached along with the class itself (by means of a ClassValue, so that classes can still be unloaded).
+         */
+        private static final ClassValue<BeanProperty[]> BEAN_PROPERTIES =
+                new ClassValue<BeanProperty[]>() {
+                    @Override
+                    protected BeanProperty[] computeValue(final Class<?> type) {
+                        return computeBeanProperties(type);
+                    }
+                };
+
 
         public void serializeValue(final Object object, final Writer writer) {
             try {
@@ -393,11 +471,27 @@ private static void writeString(final Writer writer, final String str) throws IO
          * is obviously JSON-based.
          */
             writer.write('"');
-            writer.write(JsonEscape.escapeJson(str, JsonEscapeType.SINGLE_ESCAPE_CHARS_DEFAULT_TO_UHEXA, JsonEscapeLevel.LEVEL_2_ALL_NON_ASCII_PLUS_BASIC_ESCAPE_SET));
+            if (requiresEscaping(str)) {
+                writer.write(JsonEscape.escapeJson(str, JsonEscapeType.SINGLE_ESCAPE_CHARS_DEFAULT_TO_UHEXA, JsonEscapeLevel.LEVEL_2_ALL_NON_ASCII_PLUS_BASIC_ESCAPE_SET));
+            } else {
+                writer.write(str);
+            }
             writer.write('"');
         }
 
 
+        private static boolean requiresEscaping(final String str) {
+            final int strLen = str.length();
+            for (int i = 0; i < strLen; i++) {
+                final char c = str.charAt(i);
+                if (c >= 128 || ESCAPED_CHARS[c]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+
         private static void writeNumber(final Writer writer, final Number number) throws IOException {
             writer.write(number.toString());
         }
@@ -416,94 +510,71 @@ private static void writeDate(final Writer writer, final Date date) throws IOExc
 
 
         private static void writeArray(final Writer writer, final Object arrayObj) throws IOException {
+            // Primitive arrays are written directly, avoiding the boxing of each of their elements
             writer.write('[');
             if (arrayObj instanceof Object[]) {
                 final Object[] array = (Object[]) arrayObj;
-                boolean first = true;
-                for (final Object element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, element);
+                    writeValue(writer, array[i]);
                 }
             } else if (arrayObj instanceof boolean[]) {
                 final boolean[] array = (boolean[]) arrayObj;
-                boolean first = true;
-                for (final boolean element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Boolean.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof byte[]) {
                 final byte[] array = (byte[]) arrayObj;
-                boolean first = true;
-                for (final byte element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Byte.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof short[]) {
                 final short[] array = (short[]) arrayObj;
-                boolean first = true;
-                for (final short element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Short.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof int[]) {
                 final int[] array = (int[]) arrayObj;
-                boolean first = true;
-                for (final int element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Integer.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof long[]) {
                 final long[] array = (long[]) arrayObj;
-                boolean first = true;
-                for (final long element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Long.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof float[]) {
                 final float[] array = (float[]) arrayObj;
-                boolean first = true;
-                for (final float element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Float.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else if (arrayObj instanceof double[]) {
                 final double[] array = (double[]) arrayObj;
-                boolean first = true;
-                for (final double element: array) {
-                    if (first) {
-                        first = false;
-                    } else {
+                for (int i = 0; i < array.length; i++) {
+                    if (i > 0) {
                         writer.write(',');
                     }
-                    writeValue(writer, Double.valueOf(element));
+                    writer.write(String.valueOf(array[i]));
                 }
             } else {
                 throw new IllegalArgumentException("Cannot write value \"" + arrayObj + "\" of class " + arrayObj.getClass().getName() + " as an array");
@@ -550,27 +621,41 @@ private static void writeKeyValue(final Writer writer, final Object key, final O
 
 
         private static void writeObject(final Writer writer, final Object object) throws IOException {
+            // Properties are written directly to the output, without building an intermediate map
+            final BeanProperty[] properties = BEAN_PROPERTIES.get(object.getClass());
+            writer.write('{');
+            for (int i = 0; i < properties.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeString(writer, properties[i].name);
+                writer.write(':');
+                writeValue(writer, properties[i].read(object));
+            }
+            writer.write('}');
+        }
+
+
+        private static BeanProperty[] computeBeanProperties(final Class<?> type) {
             try {
-                final PropertyDescriptor[] descriptors =
-                        Introspector.getBeanInfo(object.getClass()).getPropertyDescriptors();
-                final Map<String,Object> properties = new LinkedHashMap<String, Object>(descriptors.length + 1, 1.0f);
+                final PropertyDescriptor[] descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+                final List<BeanProperty> properties = new ArrayList<BeanProperty>(descriptors.length);
                 for (final PropertyDescriptor descriptor : descriptors) {
                     final Method readMethod =  descriptor.getReadMethod();
                     if (readMethod != null) {
                         final String name = descriptor.getName();
                         if (!"class".equals(name.toLowerCase())) {
-                            final Object value = readMethod.invoke(object);
-                            properties.put(name, value);
+                            final MethodHandle readHandle =
+                                    MethodHandles.publicLookup().unreflect(readMethod).asType(BeanProperty.READ_METHOD_TYPE);
+                            properties.add(new BeanProperty(name, readHandle));
                         }
                     }
                 }
-                writeMap(writer, properties);
+                return properties.toArray(new BeanProperty[properties.size()]);
             } catch (final IllegalAccessException e) {
-                throw new IllegalArgumentException("Could not perform introspection on object of class " + object.getClass().getName(), e);
-            } catch (final InvocationTargetException e) {
-                throw new IllegalArgumentException("Could not perform introspection on object of class " + object.getClass().getName(), e);
+                throw new IllegalArgumentException("Could not perform introspection on object of class " + type.getName(), e);
             } catch (final IntrospectionException e) {
-                throw new IllegalArgumentException("Could not perform introspection on object of class " + object.getClass().getName(), e);
+                throw new IllegalArgumentException("Could not perform introspection on object of class " + type.getName(), e);
             }
         }
 
@@ -584,6 +669,33 @@ private static void writeEnum(final Writer writer, final Object object) throws I
         }
 
 
+
+        private static final class BeanProperty {
+
+            static final MethodType READ_METHOD_TYPE = MethodType.methodType(Object.class, Object.class);
+
+            final String name;
+            final MethodHandle readHandle;
+
+            BeanProperty(final String name, final MethodHandle readHandle) {
+                super();
+                this.name = name;
+                this.readHandle = readHandle;
+            }
+
+            Object read(final Object object) {
+                try {
+                    return this.readHandle.invokeExact(object);
+                } catch (final Error e) {
+                    throw e;
+                } catch (final Throwable t) {
+                    throw new IllegalArgumentException("Could not perform introspection on object of class " + object.getClass().getName(), t);
+                }
+            }
+
+        }
+
+
     }
 
     private void handleErrorLoggingOnJacksonInitialization(Throwable e)  {
@@ -22,6 +22,7 @@
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /*
@@ -524,6 +525,7 @@ private static final class BufferPool {
         private final char[][] pool;
         private final boolean[] allocated;
         private final int poolBufferSize;
+        private final ReentrantLock lock = new ReentrantLock();
 
         private BufferPool(final int poolSize, final int poolBufferSize) {
 
@@ -540,37 +542,47 @@ private BufferPool(final int poolSize, final int poolBufferSize) {
 
         }
 
-        private synchronized char[] allocateBuffer(final int bufferSize) {
-            if (bufferSize != this.poolBufferSize) {
-                // We will only pool buffers of the default size. If a different size is required, we just
-                // create it without pooling.
-                return new char[bufferSize];
-            }
-            for (int i = 0; i < this.pool.length; i++) {
-                if (!this.allocated[i]) {
-                    this.allocated[i] = true;
-                    return this.pool[i];
+        private char[] allocateBuffer(final int bufferSize) {
+            this.lock.lock();
+            try {
+                if (bufferSize != this.poolBufferSize) {
+                    // We will only pool buffers of the default size. If a different size is required, we just
+                    // create it without pooling.
+                    return new char[bufferSize];
                 }
+                for (int i = 0; i < this.pool.length; i++) {
+                    if (!this.allocated[i]) {
+                        this.allocated[i] = true;
+                        return this.pool[i];
+                    }
+                }
+                return new char[bufferSize];
+            } finally {
+                this.lock.unlock();
             }
-            return new char[bufferSize];
         }
 
-        private synchronized void releaseBuffer(final char[] buffer) {
-            if (buffer == null) {
-                return;
-            }
-            if (buffer.length != this.poolBufferSize) {
-                // This buffer cannot be part of the pool - only buffers with a specific size are contained
-                return;
-            }
-            for (int i = 0; i < this.pool.length; i++) {
-                if (this.pool[i] == buffer) {
-                    // Found it. Mark it as non-allocated
-                    this.allocated[i] = false;
+        private void releaseBuffer(final char[] buffer) {
+            this.lock.lock();
+            try {
+                if (buffer == null) {
+                    return;
+                }
+                if (buffer.length != this.poolBufferSize) {
+                    // This buffer cannot be part of the pool - only buffers with a specific size are contained
                     return;
                 }
+                for (int i = 0; i < this.pool.length; i++) {
+                    if (this.pool[i] == buffer) {
+                        // Found it. Mark it as non-allocated
+                        this.allocated[i] = false;
+                        return;
+                    }
+                }
+                // The buffer wasn't part of our pool. Just return.
+            } finally {
+                this.lock.unlock();
             }
-            // The buffer wasn't part of our pool. Just return.
         }
 
 
@@ -28,6 +28,22 @@
  */
 final class TextParsingUtil {
 
+    /*
+     * Tables of the (ASCII) chars that are relevant to each of the scanning operations that are performed on
+     * the entire text of templates. These allow skipping non-relevant chars (the vast majority) in tight loops
+     * that perform only one table lookup per char, instead of a chain of comparisons.
+     */
+    private static final int RELEVANT_CHARS_TABLE_SIZE = 128;
+    private static final boolean[] STRUCTURE_START_CHARS =
+            createRelevantCharsTable('\n', '[');
+    private static final boolean[] STRUCTURE_START_OR_LITERAL_MARKER_CHARS =
+            createRelevantCharsTable('\n', '[', '/', '\'', '"', '`');
+    private static final boolean[] STRUCTURE_END_AVOID_QUOTES_CHARS =
+            createRelevantCharsTable('\n', '"', '\'', ']');
+    private static final boolean[] COMMENT_BLOCK_END_CHARS =
+            createRelevantCharsTable('\n', '/');
+
+
 
     
     private TextParsingUtil() {
@@ -35,6 +51,30 @@ private TextParsingUtil() {
     }
 
 
+    private static boolean[] createRelevantCharsTable(final char... relevantChars) {
+        final boolean[] table = new boolean[RELEVANT_CHARS_TABLE_SIZE];
+        for (final char c : relevantChars) {
+            table[c] = true;
+        }
+        return table;
+    }
+
+
+    /*
+     * Returns the position of the first char in the [offset, maxi) range that is either non-ASCII or marked as
+     * relevant in the specified table, or maxi if there is none.
+     */
+    private static int skipNonRelevantChars(
+            final char[] text, final int offset, final int maxi, final boolean[] relevantChars) {
+        int i = offset;
+        char c;
+        while (i < maxi && (c = text[i]) < RELEVANT_CHARS_TABLE_SIZE && !relevantChars[c]) {
+            i++;
+        }
+        return i;
+    }
+
+
     
     
     
@@ -51,9 +91,8 @@ static int findNextStructureEndAvoidQuotes(
         int colIndex = offset;
 
         int i = offset;
-        int n = (maxi - offset);
 
-        while (n-- != 0) {
+        while ((i = skipNonRelevantChars(text, i, maxi, STRUCTURE_END_AVOID_QUOTES_CHARS)) < maxi) {
 
             c = text[i];
 
@@ -89,9 +128,8 @@ static int findNextCommentBlockEnd(
         int colIndex = offset;
 
         int i = offset;
-        int n = (maxi - offset);
 
-        while (n-- != 0) {
+        while ((i = skipNonRelevantChars(text, i, maxi, COMMENT_BLOCK_END_CHARS)) < maxi) {
 
             c = text[i];
 
@@ -153,9 +191,16 @@ static int findNextLiteralEnd(
         int colIndex = offset;
 
         int i = offset;
-        int n = (maxi - offset);
 
-        while (n-- != 0) {
+        while (i < maxi) {
+
+            // Tight loop for skipping all chars not being either a new line or the literal marker
+            while (i < maxi && (c = text[i]) != '\n' && c != literalMarker) {
+                i++;
+            }
+            if (i == maxi) {
+                break;
+            }
 
             c = text[i];
 
@@ -190,10 +235,12 @@ static int findNextStructureStartOrLiteralMarker(
 
         int colIndex = offset;
 
+        final boolean[] relevantChars =
+                (processCommentsAndLiterals? STRUCTURE_START_OR_LITERAL_MARKER_CHARS : STRUCTURE_START_CHARS);
+
         int i = offset;
-        int n = (maxi - offset);
 
-        while (n-- != 0) {
+        while ((i = skipNonRelevantChars(text, i, maxi, relevantChars)) < maxi) {
 
             c = text[i];
             
@@ -241,6 +241,23 @@ public int length() {
 
 
 
+    /*
+     * Direct access to the aggregated components, so that operations that need to go through all the chars in
+     * the sequence (e.g. scanning for chars needing escaping) can do it component by component instead of
+     * paying for the component lookup in charAt(int) for every single char.
+     */
+    int getComponentCount() {
+        return this.values.length;
+    }
+
+
+    CharSequence getComponent(final int n) {
+        return this.values[n];
+    }
+
+
+
+
     public char charAt(final int index) {
         if ((index < 0) || (index >= this.length)) {
             throw new StringIndexOutOfBoundsException(index);
@@ -24,9 +24,9 @@
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Locale;
-import java.util.Map;
 import java.util.TimeZone;
-import java.util.concurrent.ConcurrentHashMap;
+
+import org.thymeleaf.cache.StandardCache;
 
 
 /**
@@ -39,7 +39,14 @@
 public final class DateUtils {
     
     
-    private static final Map<DateFormatKey,DateFormat> dateFormats = new ConcurrentHashMap<DateFormatKey, DateFormat>(4, 0.9f, 2);
+    /*
+     * Bounded cache of pools of DateFormat objects (which are NOT thread-safe), so that a large amount of different
+     * patterns/locales/time zones does not make the amount of memory retained by this class grow without limit.
+     */
+    private static final int DATE_FORMATS_CACHE_MAX_SIZE = 500;
+    private static final StandardCache<DateFormatKey,FormatPool<DateFormat>> dateFormats =
+            new StandardCache<DateFormatKey,FormatPool<DateFormat>>(
+                    "DATE_FORMATS_CACHE", false, 16, DATE_FORMATS_CACHE_MAX_SIZE, null);
 
     /*
      * This SimpleDateFormat defines an almost-ISO8601 formatter.
@@ -48,9 +55,10 @@ public final class DateUtils {
      * timezone as "+02:00" or "Z" instead of "+0200") was not added until Java SE 7. So the use of this
      * SimpleDateFormat object requires additional post-processing.
      *
-     * Note SimpleDateFormat objects are NOT thread-safe, so use of this object must be synchronized.
+     * Note SimpleDateFormat objects are NOT thread-safe, so this is a pool of them instead of a single instance.
      */
-    private static final SimpleDateFormat ISO8601_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZZZ");
+    private static final FormatPool<DateFormat> ISO8601_DATE_FORMATS =
+            new FormatPool<DateFormat>(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZZZ"));
 
     
     
@@ -508,10 +516,21 @@ private static String formatDate(final Object target, final String pattern, fina
             return null;
         }
 
+        final java.util.Date targetDate;
+        if (target instanceof Calendar) {
+            targetDate = ((Calendar) target).getTime();
+        } else if (target instanceof java.util.Date) {
+            targetDate = (java.util.Date) target;
+        } else {
+            throw new IllegalArgumentException(
+                    "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
+        }
+
         final DateFormatKey key = new DateFormatKey(target, pattern, locale);
-        
-        DateFormat dateFormat = dateFormats.get(key);
-        if (dateFormat == null) {
+
+        FormatPool<DateFormat> dateFormatPool = dateFormats.get(key);
+        if (dateFormatPool == null) {
+            final DateFormat dateFormat;
             if (StringUtils.isEmptyOrWhitespace(pattern)) {
                 dateFormat = DateFormat.getDateTimeInstance(DateFormat.LONG, DateFormat.LONG, locale);
             } else {
@@ -520,21 +539,11 @@ private static String formatDate(final Object target, final String pattern, fina
             if (key.timeZone != null) {
                 dateFormat.setTimeZone(key.timeZone);
             }
-            dateFormats.put(key, dateFormat);
-        }
-        
-        if (target instanceof Calendar) {
-            synchronized (dateFormat) {
-                return dateFormat.format(((Calendar) target).getTime());
-            }
-        } else if (target instanceof java.util.Date) {
-            synchronized (dateFormat) {
-                return dateFormat.format((java.util.Date)target);
-            }
-        } else {
-            throw new IllegalArgumentException(
-                    "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
+            dateFormatPool = new FormatPool<DateFormat>(dateFormat);
+            dateFormats.put(key, dateFormatPool);
         }
+
+        return dateFormatPool.format(targetDate);
         
     }
 
@@ -564,10 +573,7 @@ public static String formatISO(final Object target) {
                     "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
         }
 
-        final String formatted;
-        synchronized (ISO8601_DATE_FORMAT) {
-            formatted = ISO8601_DATE_FORMAT.format(targetDate);
-        }
+        final String formatted = ISO8601_DATE_FORMATS.format(targetDate);
 
         final StringBuilder strBuilder = new StringBuilder(formatted.length() + 1);
         strBuilder.append(formatted);
@@ -58,12 +58,20 @@ public static String escapeAttribute(final TemplateMode templateMode, final Stri
          * markup (HTML or XML templates or inlined fragments), we will use HTML escaping/unescaping for TEXT mode.
          * Besides, this is consistent with the fact that TEXT-mode escaped output will also be HTML-escaped by
          * processors and inlining utilities in the Standard Dialects.
+         *
+         * Values are first scanned for chars needing escaping, so that most values avoid the escaping operation.
          */
         switch (templateMode) {
 
             case HTML:
+                if (!EscapedTextUtils.requiresEscaping(EscapedTextUtils.HTML_ESCAPED_CHARS, false, input)) {
+                    return input;
+                }
                 return HtmlEscape.escapeHtml4Xml(input);
             case XML:
+                if (!EscapedTextUtils.requiresEscaping(EscapedTextUtils.XML_ATTRIBUTE_ESCAPED_CHARS, true, input)) {
+                    return input;
+                }
                 return XmlEscape.escapeXml10Attribute(input);
             default:
                 throw new TemplateProcessingException(
@@ -0,0 +1,264 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.unbescape.html.HtmlEscape;
+import org.unbescape.xml.XmlEscape;
+
+
+/**
+ * <p>
+ *   Utility class for escaping texts (element bodies) in markup template modes.
+ * </p>
+ * <p>
+ *   Texts are first scanned for chars that need escaping, so that the (very common) texts that need no escaping
+ *   at all can be output untouched. The rest are escaped directly on the output {@code Writer} by means of a
+ *   {@link LazyEscapingCharSequence}, so that no intermediate escaped {@code String} is ever created.
+ * </p>
+ * <p>
+ *   {@link AggregateCharSequence} texts (e.g. results of concatenations) are scanned and escaped component by
+ *   component, so that the whole text is never built in memory and components needing no escaping are output
+ *   untouched.
+ * </p>
+ * <p>
+ *   This is mostly an <strong>internal class</strong>, and its use is not recommended from user's code.
+ * </p>
+ *
+ * @since 3.1.2
+ *
+ */
+public final class EscapedTextUtils {
+
+    /*
+     * Tables of the ASCII chars that need escaping in each case. These are computed by asking the escaping library
+     * itself, so that the results of the scans are always consistent with it. Regarding non-ASCII chars, HTML
+     * escaping (level 1: only markup-significant chars) never escapes them, but XML escaping always does.
+     */
+    static final boolean[] HTML_ESCAPED_CHARS = new boolean[128];
+    static final boolean[] XML_ESCAPED_CHARS = new boolean[128];
+    static final boolean[] XML_ATTRIBUTE_ESCAPED_CHARS = new boolean[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            final String str = String.valueOf(c);
+            HTML_ESCAPED_CHARS[c] = !str.equals(HtmlEscape.escapeHtml4Xml(str));
+            XML_ESCAPED_CHARS[c] = !str.equals(XmlEscape.escapeXml10(str));
+            XML_ATTRIBUTE_ESCAPED_CHARS[c] = !str.equals(XmlEscape.escapeXml10Attribute(str));
+        }
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Escapes the specified text for being output as an element body in the specified template mode
+     *   ({@code HTML}, {@code XML}, {@code TEXT} -which applies HTML escaping- or {@code RAW} -which applies
+     *   no escaping at all-).
+     * </p>
+     * <p>
+     *   If the text needs no escaping, it is returned untouched. If it does, a {@link LazyEscapingCharSequence}
+     *   will be returned that performs the escaping directly on the output {@code Writer}. In the case of
+     *   {@link AggregateCharSequence} texts, only the components that need escaping will be escaped.
+     * </p>
+     *
+     * @param configuration the engine configuration.
+     * @param templateMode the template mode.
+     * @param input the text to be escaped.
+     * @return the escaped text (or the text to be lazily escaped when written).
+     */
+    public static CharSequence escapeText(
+            final IEngineConfiguration configuration, final TemplateMode templateMode, final CharSequence input) {
+
+        Validate.notNull(templateMode, "Template mode cannot be null");
+
+        if (input == null || templateMode == TemplateMode.RAW) {
+            return input;
+        }
+
+        if (input instanceof AggregateCharSequence) {
+            return escapeAggregate(configuration, templateMode, (AggregateCharSequence) input);
+        }
+
+        if (!requiresEscaping(templateMode, input)) {
+            return input;
+        }
+
+        return new LazyEscapingCharSequence(configuration, templateMode, input);
+
+    }
+
+
+    private static CharSequence escapeAggregate(
+            final IEngineConfiguration configuration, final TemplateMode templateMode, final AggregateCharSequence input) {
+
+        final int componentCount = input.getComponentCount();
+
+        CharSequence[] escapedComponents = null;
+
+        for (int n = 0; n < componentCount; n++) {
+
+            final CharSequence component = input.getComponent(n);
+
+            if (!requiresEscaping(templateMode, component)) {
+                continue;
+            }
+
+            // Escaping is char by char, except for surrogate pairs (non-ASCII chars are escaped as code points
+            // in XML). Should a component end in the middle of a pair, we will just escape the whole text.
+            final int componentLen = component.length();
+            if (n + 1 < componentCount && Character.isHighSurrogate(component.charAt(componentLen - 1))) {
+                return new LazyEscapingCharSequence(configuration, templateMode, input);
+            }
+
+            if (escapedComponents == null) {
+                escapedComponents = new CharSequence[componentCount];
+                for (int m = 0; m < n; m++) {
+                    escapedComponents[m] = input.getComponent(m);
+                }
+            }
+            escapedComponents[n] = new LazyEscapingCharSequence(configuration, templateMode, component);
+
+        }
+
+        if (escapedComponents == null) {
+            return input;
+        }
+
+        for (int n = 0; n < componentCount; n++) {
+            if (escapedComponents[n] == null) {
+                escapedComponents[n] = input.getComponent(n);
+            }
+        }
+
+        return new EscapedAggregateCharSequence(escapedComponents);
+
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Checks whether the specified text contains any chars that need to be escaped when output as an element
+     *   body in the specified template mode ({@code HTML}, {@code XML} or {@code TEXT} -which applies HTML escaping-).
+     * </p>
+     *
+     * @param templateMode the template mode.
+     * @param input the text to be checked.
+     * @return true if the text needs escaping, false if not.
+     */
+    public static boolean requiresEscaping(final TemplateMode templateMode, final CharSequence input) {
+
+        switch (templateMode) {
+
+            case TEXT:
+                // fall-through
+            case HTML:
+                return requiresEscaping(HTML_ESCAPED_CHARS, false, input);
+            case XML:
+                return requiresEscaping(XML_ESCAPED_CHARS, true, input);
+            default:
+                throw new TemplateProcessingException(
+                        "Unrecognized template mode " + templateMode + ". Cannot produce escaped output for " +
+                        "this template mode.");
+        }
+
+    }
+
+
+    static boolean requiresEscaping(
+            final boolean[] escapedChars, final boolean escapeNonAscii, final CharSequence input) {
+        if (input instanceof AggregateCharSequence) {
+            final AggregateCharSequence aggregate = (AggregateCharSequence) input;
+            final int componentCount = aggregate.getComponentCount();
+            for (int n = 0; n < componentCount; n++) {
+                if (requiresEscaping(escapedChars, escapeNonAscii, aggregate.getComponent(n))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        final int inputLen = input.length();
+        for (int i = 0; i < inputLen; i++) {
+            final char c = input.charAt(i);
+            if (c < 128? escapedChars[c] : escapeNonAscii) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+
+
+    private EscapedTextUtils() {
+        super();
+    }
+
+
+
+
+    /*
+     * Result of escaping an AggregateCharSequence, in which the components needing escaping have been replaced by
+     * LazyEscapingCharSequence objects. Unlike AggregateCharSequence itself, this does not need to compute the
+     * length of its components when created, so those are escaped directly on the output Writer.
+     */
+    private static final class EscapedAggregateCharSequence extends AbstractLazyCharSequence {
+
+        private final CharSequence[] components;
+
+        EscapedAggregateCharSequence(final CharSequence[] components) {
+            super();
+            this.components = components;
+        }
+
+        @Override
+        protected String resolveText() {
+            final Writer stringWriter = new FastStringWriter();
+            try {
+                writeUnresolved(stringWriter);
+            } catch (final IOException e) {
+                throw new TemplateProcessingException("An error happened while trying to produce escaped output", e);
+            }
+            return stringWriter.toString();
+        }
+
+        @Override
+        protected void writeUnresolved(final Writer writer) throws IOException {
+            for (final CharSequence component : this.components) {
+                if (component instanceof IWritableCharSequence) {
+                    ((IWritableCharSequence) component).write(writer);
+                } else {
+                    writer.write(component.toString());
+                }
+            }
+        }
+
+    }
+
+
+}
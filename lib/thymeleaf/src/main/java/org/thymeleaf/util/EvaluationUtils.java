@@ -87,13 +87,13 @@ public static BigDecimal evaluateAsNumber(final Object object) {
             } else if (object instanceof BigInteger) {
                 return new BigDecimal((BigInteger)object);
             } else if (object instanceof Byte) {
-                return new BigDecimal(((Byte)object).intValue());
+                return BigDecimal.valueOf(((Byte)object).longValue());
             } else if (object instanceof Short) {
-                return new BigDecimal(((Short)object).intValue());
+                return BigDecimal.valueOf(((Short)object).longValue());
             } else if (object instanceof Integer) {
-                return new BigDecimal(((Integer)object).intValue());
+                return BigDecimal.valueOf(((Integer)object).longValue());
             } else if (object instanceof Long) {
-                return new BigDecimal(((Long)object).longValue());
+                return BigDecimal.valueOf(((Long)object).longValue());
             } else if (object instanceof Float) {
                 //noinspection UnpredictableBigDecimalConstructorCall
                 return new BigDecimal(((Float)object).doubleValue());
@@ -0,0 +1,119 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util;
+
+import java.text.Format;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * <p>
+ *   Lock-free pool of equivalent {@link Format} objects (which are <b>not thread-safe</b>), used by
+ *   the formatting utility classes and by message resolution.
+ * </p>
+ * <p>
+ *   Each pooled instance is borrowed by one thread at a time. If all pooled instances are in use,
+ *   a new one is cloned from the prototype (and returned to the pool afterwards only if there is room
+ *   for it), so threads never wait for each other.
+ * </p>
+ * <p>
+ *   Note per-thread instances (ThreadLocal) are not used because they would be retained by every
+ *   thread in the application, and would be of no use at all with short-lived threads
+ *   (e.g. virtual threads).
+ * </p>
+ * <p>
+ *   This is mostly an <strong>internal class</strong>, and its use is not recommended from user's code.
+ * </p>
+ * <p>
+ *   This class is <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @since 3.1.2
+ *
+ * @param <F> the type of the pooled format objects
+ */
+public final class FormatPool<F extends Format> {
+
+    private static final int POOL_SIZE = 8;
+
+    private final F prototype;
+    private final AtomicReferenceArray<F> pool;
+
+
+    /**
+     * <p>
+     *   Creates a new pool, the instances of which will be cloned from the specified prototype. The prototype
+     *   itself is never used for formatting, so it should not be modified after being passed to the pool.
+     * </p>
+     *
+     * @param prototype the format object from which pooled instances will be cloned.
+     */
+    public FormatPool(final F prototype) {
+        super();
+        Validate.notNull(prototype, "Prototype cannot be null");
+        this.prototype = prototype;
+        this.pool = new AtomicReferenceArray<F>(POOL_SIZE);
+    }
+
+
+    /**
+     * <p>
+     *   Formats the specified object by means of one of the pooled format objects.
+     * </p>
+     *
+     * @param target the object to be formatted (e.g. an {@code Object[]} of arguments for a
+     *               {@link java.text.MessageFormat}).
+     * @return the formatted text.
+     */
+    public String format(final Object target) {
+        final F format = borrow();
+        try {
+            return format.format(target);
+        } finally {
+            release(format);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private F borrow() {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            // First a plain read, so that empty slots do not need a write
+            if (this.pool.get(i) != null) {
+                final F format = this.pool.getAndSet(i, null);
+                if (format != null) {
+                    return format;
+                }
+            }
+        }
+        return (F) this.prototype.clone();
+    }
+
+
+    private void release(final F format) {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (this.pool.get(i) == null && this.pool.compareAndSet(i, null, format)) {
+                return;
+            }
+        }
+        // Pool is full: just let the instance be garbage collected
+    }
+
+}
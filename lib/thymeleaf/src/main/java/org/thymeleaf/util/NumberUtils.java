@@ -25,6 +25,9 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+
+import org.thymeleaf.cache.StandardCache;
 
 /**
  * 
@@ -35,6 +38,16 @@
  */
 public final class NumberUtils {
 
+
+    /*
+     * Bounded cache of pools of NumberFormat objects (which are NOT thread-safe). Creating these objects
+     * (and their DecimalFormatSymbols) is expensive, so they are reused across calls with the same configuration.
+     */
+    private static final int NUMBER_FORMATS_CACHE_MAX_SIZE = 500;
+    private static final StandardCache<NumberFormatKey,FormatPool<NumberFormat>> numberFormats =
+            new StandardCache<NumberFormatKey,FormatPool<NumberFormat>>(
+                    "NUMBER_FORMATS_CACHE", false, 16, NUMBER_FORMATS_CACHE_MAX_SIZE, null);
+
     
     
     public static String format(final Number target, final Integer minIntegerDigits, final Locale locale) {
@@ -202,17 +215,25 @@ private static String formatNumber(final Number target, final Integer minInteger
             return null;
         }
 
-        DecimalFormat format = (DecimalFormat)NumberFormat.getNumberInstance(locale);
-        format.setMinimumFractionDigits(fractionDigits.intValue());
-        format.setMaximumFractionDigits(fractionDigits.intValue());
-        if (minIntegerDigits != null) {
-            format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+        final NumberFormatKey key =
+                new NumberFormatKey(NumberFormatType.NUMBER, minIntegerDigits, fractionDigits, thousandsPointType, decimalPointType, locale);
+
+        FormatPool<NumberFormat> formatPool = numberFormats.get(key);
+        if (formatPool == null) {
+            DecimalFormat format = (DecimalFormat)NumberFormat.getNumberInstance(locale);
+            format.setMinimumFractionDigits(fractionDigits.intValue());
+            format.setMaximumFractionDigits(fractionDigits.intValue());
+            if (minIntegerDigits != null) {
+                format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+            }
+            format.setDecimalSeparatorAlwaysShown(decimalPointType != NumberPointType.NONE && fractionDigits.intValue() > 0);
+            format.setGroupingUsed(thousandsPointType != NumberPointType.NONE);
+            format.setDecimalFormatSymbols(computeDecimalFormatSymbols(decimalPointType, thousandsPointType, locale));
+            formatPool = new FormatPool<NumberFormat>(format);
+            numberFormats.put(key, formatPool);
         }
-        format.setDecimalSeparatorAlwaysShown(decimalPointType != NumberPointType.NONE && fractionDigits.intValue() > 0);
-        format.setGroupingUsed(thousandsPointType != NumberPointType.NONE);
-        format.setDecimalFormatSymbols(computeDecimalFormatSymbols(decimalPointType, thousandsPointType, locale));
-        
-        return format.format(target);
+
+        return formatPool.format(target);
     }
 
 
@@ -282,9 +303,16 @@ public static String formatCurrency(final Number target, final Locale locale) {
             return null;
         }
 
-        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        final NumberFormatKey key =
+                new NumberFormatKey(NumberFormatType.CURRENCY, null, null, null, null, locale);
 
-        return format.format(target);
+        FormatPool<NumberFormat> formatPool = numberFormats.get(key);
+        if (formatPool == null) {
+            formatPool = new FormatPool<NumberFormat>(NumberFormat.getCurrencyInstance(locale));
+            numberFormats.put(key, formatPool);
+        }
+
+        return formatPool.format(target);
     }
 
     /**
@@ -308,18 +336,89 @@ public static String formatPercent(final Number target, final Integer minInteger
             return null;
         }
 
-        NumberFormat format = NumberFormat.getPercentInstance(locale);
-        format.setMinimumFractionDigits(fractionDigits.intValue());
-        format.setMaximumFractionDigits(fractionDigits.intValue());
-        if (minIntegerDigits != null) {
-            format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+        final NumberFormatKey key =
+                new NumberFormatKey(NumberFormatType.PERCENT, minIntegerDigits, fractionDigits, null, null, locale);
+
+        FormatPool<NumberFormat> formatPool = numberFormats.get(key);
+        if (formatPool == null) {
+            NumberFormat format = NumberFormat.getPercentInstance(locale);
+            format.setMinimumFractionDigits(fractionDigits.intValue());
+            format.setMaximumFractionDigits(fractionDigits.intValue());
+            if (minIntegerDigits != null) {
+                format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+            }
+            formatPool = new FormatPool<NumberFormat>(format);
+            numberFormats.put(key, formatPool);
         }
 
-        return format.format(target);
+        return formatPool.format(target);
     }
 
 
     private NumberUtils() {
         super();
     }
+
+
+
+
+    private enum NumberFormatType { NUMBER, CURRENCY, PERCENT }
+
+
+    private static final class NumberFormatKey {
+
+        final NumberFormatType type;
+        final Integer minIntegerDigits;
+        final Integer fractionDigits;
+        final NumberPointType thousandsPointType;
+        final NumberPointType decimalPointType;
+        final Locale locale;
+
+        NumberFormatKey(final NumberFormatType type, final Integer minIntegerDigits, final Integer fractionDigits,
+                        final NumberPointType thousandsPointType, final NumberPointType decimalPointType,
+                        final Locale locale) {
+            super();
+            this.type = type;
+            this.minIntegerDigits = minIntegerDigits;
+            this.fractionDigits = fractionDigits;
+            this.thousandsPointType = thousandsPointType;
+            this.decimalPointType = decimalPointType;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + this.type.hashCode();
+            result = prime * result + ((this.minIntegerDigits == null) ? 0 : this.minIntegerDigits.hashCode());
+            result = prime * result + ((this.fractionDigits == null) ? 0 : this.fractionDigits.hashCode());
+            result = prime * result + ((this.thousandsPointType == null) ? 0 : this.thousandsPointType.hashCode());
+            result = prime * result + ((this.decimalPointType == null) ? 0 : this.decimalPointType.hashCode());
+            result = prime * result + this.locale.hashCode();
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            final NumberFormatKey other = (NumberFormatKey) obj;
+            return this.type == other.type &&
+                    Objects.equals(this.minIntegerDigits, other.minIntegerDigits) &&
+                    Objects.equals(this.fractionDigits, other.fractionDigits) &&
+                    this.thousandsPointType == other.thousandsPointType &&
+                    this.decimalPointType == other.decimalPointType &&
+                    this.locale.equals(other.locale);
+        }
+
+    }
+
 }
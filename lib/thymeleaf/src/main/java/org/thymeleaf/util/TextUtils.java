@@ -1120,6 +1120,10 @@ public static boolean contains(
             return true;
         }
 
+        if (caseSensitive) {
+            return containsCaseSensitive(text, textOffset, textLen, fragment, fragmentOffset, fragmentLen);
+        }
+
         char c1, c2;
 
         for (int i = 0,j = 0; i < textLen; i++) {
@@ -1372,6 +1376,10 @@ public static boolean contains(
             return true;
         }
 
+        if (caseSensitive) {
+            return containsCaseSensitive(text, textOffset, textLen, fragment, fragmentOffset, fragmentLen);
+        }
+
         char c1, c2;
 
         for (int i = 0,j = 0; i < textLen; i++) {
@@ -1426,6 +1434,77 @@ public static boolean contains(
 
 
 
+    /*
+     * Case-sensitive versions of the "contains" algorithm, which first look for the first char of the fragment
+     * in a tight loop (the same way String#indexOf(String) does), and only then check the rest of the fragment.
+     */
+
+    private static boolean containsCaseSensitive(
+            final char[] text, final int textOffset, final int textLen,
+            final char[] fragment, final int fragmentOffset, final int fragmentLen) {
+
+        final char first = fragment[fragmentOffset];
+        final int max = textOffset + (textLen - fragmentLen);
+
+        for (int i = textOffset; i <= max; i++) {
+
+            // Look for first char
+            while (i <= max && text[i] != first) {
+                i++;
+            }
+            if (i > max) {
+                return false;
+            }
+
+            // Found first char, now look at the rest of the fragment
+            int j = i + 1;
+            final int end = i + fragmentLen;
+            for (int k = fragmentOffset + 1; j < end && text[j] == fragment[k]; j++, k++);
+            if (j == end) {
+                return true;
+            }
+
+        }
+
+        return false;
+
+    }
+
+
+    private static boolean containsCaseSensitive(
+            final CharSequence text, final int textOffset, final int textLen,
+            final CharSequence fragment, final int fragmentOffset, final int fragmentLen) {
+
+        final char first = fragment.charAt(fragmentOffset);
+        final int max = textOffset + (textLen - fragmentLen);
+
+        for (int i = textOffset; i <= max; i++) {
+
+            // Look for first char
+            while (i <= max && text.charAt(i) != first) {
+                i++;
+            }
+            if (i > max) {
+                return false;
+            }
+
+            // Found first char, now look at the rest of the fragment
+            int j = i + 1;
+            final int end = i + fragmentLen;
+            for (int k = fragmentOffset + 1; j < end && text.charAt(j) == fragment.charAt(k); j++, k++);
+            if (j == end) {
+                return true;
+            }
+
+        }
+
+        return false;
+
+    }
+
+
+
+
     /**
      * <p>
      *   Compares two texts lexicographically.
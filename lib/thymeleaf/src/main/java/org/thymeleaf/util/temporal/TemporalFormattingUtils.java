@@ -28,7 +28,9 @@
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.util.Locale;
+import java.util.Objects;
 
+import org.thymeleaf.cache.StandardCache;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.util.StringUtils;
 import org.thymeleaf.util.Validate;
@@ -44,6 +46,12 @@ public final class TemporalFormattingUtils {
 
     // Even though Java comes with several patterns for ISO8601, we use the same pattern of Thymeleaf #dates utility.
     private static final DateTimeFormatter ISO8601_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZZZ");
+
+    // DateTimeFormatter objects are immutable and thread-safe, but expensive to build, so they are cached.
+    private static final int FORMATTERS_CACHE_MAX_SIZE = 500;
+    private static final StandardCache<FormatterKey,DateTimeFormatter> formatters =
+            new StandardCache<FormatterKey,DateTimeFormatter>(
+                    "TEMPORAL_FORMATTERS_CACHE", false, 16, FORMATTERS_CACHE_MAX_SIZE, null);
     
     private final Locale locale;
     private final ZoneId defaultZoneId;
@@ -176,12 +184,21 @@ private String formatDate(final Object target, final String pattern, final Local
         }
         Locale formattingLocale = localeOverride != null ? localeOverride : this.locale;
         try {
-            DateTimeFormatter formatter;
             if (StringUtils.isEmptyOrWhitespace(pattern)) {
-                formatter = TemporalObjects.formatterFor(target, formattingLocale);
+                final FormatterKey key = new FormatterKey(null, target.getClass(), formattingLocale, null);
+                DateTimeFormatter formatter = formatters.get(key);
+                if (formatter == null) {
+                    formatter = TemporalObjects.formatterFor(target, formattingLocale);
+                    formatters.put(key, formatter);
+                }
                 return formatter.format(TemporalObjects.temporal(target));
             } else {
-                formatter = computeFormatter(pattern, target.getClass(), formattingLocale, zoneId);
+                final FormatterKey key = new FormatterKey(pattern, target.getClass(), formattingLocale, zoneId);
+                DateTimeFormatter formatter = formatters.get(key);
+                if (formatter == null) {
+                    formatter = computeFormatter(pattern, target.getClass(), formattingLocale, zoneId);
+                    formatters.put(key, formatter);
+                }
                 return formatter.format(TemporalObjects.zonedTime(target, this.defaultZoneId));
             }
         } catch (final Exception e) {
@@ -212,4 +229,53 @@ private static DateTimeFormatter computeFormatter(final String pattern, final Cl
         return DateTimeFormatter.ofPattern(pattern, locale).withZone(zoneId);
     }
 
+
+
+
+    private static final class FormatterKey {
+
+        final String pattern;
+        final Class<?> targetClass;
+        final Locale locale;
+        final ZoneId zoneId;
+
+        FormatterKey(final String pattern, final Class<?> targetClass, final Locale locale, final ZoneId zoneId) {
+            super();
+            this.pattern = pattern;
+            this.targetClass = targetClass;
+            this.locale = locale;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((this.pattern == null) ? 0 : this.pattern.hashCode());
+            result = prime * result + this.targetClass.hashCode();
+            result = prime * result + this.locale.hashCode();
+            result = prime * result + ((this.zoneId == null) ? 0 : this.zoneId.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            final FormatterKey other = (FormatterKey) obj;
+            return Objects.equals(this.pattern, other.pattern) &&
+                    this.targetClass == other.targetClass &&
+                    this.locale.equals(other.locale) &&
+                    Objects.equals(this.zoneId, other.zoneId);
+        }
+
+    }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+
+
+public final class TemplateEngineConcurrencyTest {
+
+    private static final int TASKS = 5000;
+    private static final int DISTINCT_TEMPLATES = 50;
+
+
+
+    @Test
+    public void testConcurrentRendering() throws Exception {
+
+        final StandardCacheManager cacheManager = new StandardCacheManager();
+        // Small caches so that the FIFO eviction code is exercised concurrently
+        cacheManager.setTemplateCacheMaxSize(DISTINCT_TEMPLATES / 5);
+        cacheManager.setExpressionCacheMaxSize(DISTINCT_TEMPLATES / 5);
+
+        // Engine is NOT initialized here: concurrent initialization is also part of the test
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setCacheManager(cacheManager);
+
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.clear();
+        calendar.set(2022, Calendar.DECEMBER, 24, 11, 30);
+
+        final ExecutorService executor = createExecutor();
+        try {
+
+            final List<Future<String>> results = new ArrayList<Future<String>>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                final int templateIndex = i % DISTINCT_TEMPLATES;
+                results.add(executor.submit(() -> {
+                    final Context context = new Context(Locale.US);
+                    context.setVariable("items", Arrays.asList("a", "b", "c"));
+                    context.setVariable("date", calendar);
+                    return templateEngine.process(
+                            "<p th:each=\"i : ${items}\" th:text=\"${i} + '-" + templateIndex + "'\">x</p>" +
+                            "<span th:text=\"${#calendars.format(date, 'yyyy-MM-dd')}\">d</span>", context);
+                }));
+            }
+
+            for (int i = 0; i < TASKS; i++) {
+                final int templateIndex = i % DISTINCT_TEMPLATES;
+                Assertions.assertEquals(
+                        "<p>a-" + templateIndex + "</p><p>b-" + templateIndex + "</p><p>c-" + templateIndex + "</p>" +
+                        "<span>2022-12-24</span>",
+                        results.get(i).get(60, TimeUnit.SECONDS));
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        Assertions.assertTrue(templateEngine.isInitialized());
+
+    }
+
+
+
+    /*
+     * Virtual threads will be used when available in the running JVM (they are looked up by reflection because
+     * tests are compiled for Java 8). Otherwise, a large pool of platform threads is used.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(64);
+        }
+    }
+
+}
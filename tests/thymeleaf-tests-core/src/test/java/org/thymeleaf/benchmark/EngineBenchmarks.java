@@ -0,0 +1,533 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmark;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.standard.serializer.IStandardJavaScriptSerializer;
+import org.thymeleaf.standard.serializer.StandardJavaScriptSerializer;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+import org.thymeleaf.util.DateUtils;
+
+
+/*
+ * Micro-benchmarks for specific areas of the engine, meant to be executed manually when working on their
+ * performance (comparing results before and after a change). They are not a part of the test suite, as they
+ * do not check anything about performance: the correctness of the features being measured is checked by the
+ * corresponding unit tests.
+ *
+ * Usage: EngineBenchmarks [benchmark...] (all benchmarks will be executed if none is specified)
+ *
+ * Each benchmark is executed once for warming up, and then timed for the same amount of executions.
+ */
+public final class EngineBenchmarks {
+
+    private static final String TEXT_BLOCK =
+            "This is a line of static text with [brackets], 'quotes' and \"double quotes\" in it.\n" +
+            "And this is another one, which contains a value: [[${n}]] and an unescaped one: [(${n})]\n";
+
+    private static final String JAVASCRIPT_BLOCK =
+            "var message = \"A string literal with [brackets] and an escaped \\\" quote\";\n" +
+            "var other = 'Another literal containing /* no comment */ and // no comment either';\n" +
+            "/* A block comment with some [brackets] in it */\n" +
+            "// A line comment\n" +
+            "var value = [[${n}]];\n" +
+            "var items = [1, 2, 3].map(function(i) { return i * 2; });\n";
+
+    private static final String NESTED_ITERATION_TEMPLATE =
+            "<div>\n" +
+            "  <table th:each=\"table : ${tables}\" th:id=\"${'t' + tableStat.index}\">\n" +
+            "    <tr th:each=\"row : ${table}\" th:class=\"${rowStat.odd}? 'odd' : 'even'\">\n" +
+            "      <td th:each=\"cell : ${row}\" th:text=\"${cell}\">cell</td>\n" +
+            "    </tr>\n" +
+            "  </table>\n" +
+            "</div>";
+
+    private static final String[] OPERATOR_EXPRESSIONS =
+            new String[] {
+                    "${i} > 0", "${i} >= 10", "${i} < 100", "${i} <= ${j}", "${i} == 3", "${i} != ${j}",
+                    "${i} + 1", "${i} - ${j}", "${i} * 2", "${i} / 2", "${i} % 3", "-${i}",
+                    "${i} % 2 == 0", "${price} > 0", "${price} <= ${limit}"
+            };
+
+    private static final Map<String,Benchmark> BENCHMARKS = new LinkedHashMap<String, Benchmark>();
+
+    static {
+        BENCHMARKS.put("date-formatting",
+                new Benchmark(1, "64 threads x 20000 formats", EngineBenchmarks::dateFormatting));
+        BENCHMARKS.put("text-parsing",
+                new Benchmark(50, "5000 TEXT blocks", () -> textParsing(TemplateMode.TEXT, TEXT_BLOCK)));
+        BENCHMARKS.put("javascript-parsing",
+                new Benchmark(50, "5000 JAVASCRIPT blocks", () -> textParsing(TemplateMode.JAVASCRIPT, JAVASCRIPT_BLOCK)));
+        BENCHMARKS.put("default-js-serialization",
+                new Benchmark(20, "5000 beans", () -> javaScriptSerialization(new StandardJavaScriptSerializer(false))));
+        BENCHMARKS.put("jackson-js-serialization",
+                new Benchmark(20, "5000 beans", () -> javaScriptSerialization(new StandardJavaScriptSerializer(true))));
+        BENCHMARKS.put("nested-iteration",
+                new Benchmark(200, "2210 nested iterations", EngineBenchmarks::nestedIteration));
+        BENCHMARKS.put("conditional-sections",
+                new Benchmark(500, "4 sections of 500 rows", EngineBenchmarks::conditionalSections));
+        BENCHMARKS.put("switch",
+                new Benchmark(100, "1000 items x 30 literal cases", EngineBenchmarks::literalCaseSwitch));
+        BENCHMARKS.put("expression-operators",
+                new Benchmark(100, "1000 items x 15 expressions", EngineBenchmarks::expressionOperators));
+    }
+
+
+
+
+    private EngineBenchmarks() {
+        super();
+    }
+
+
+
+
+    public static void main(final String[] args) throws Exception {
+
+        final List<String> names = (args.length == 0? new ArrayList<String>(BENCHMARKS.keySet()) : Arrays.asList(args));
+
+        for (final String name : names) {
+            final Benchmark benchmark = BENCHMARKS.get(name);
+            if (benchmark == null) {
+                throw new IllegalArgumentException(
+                        "Unknown benchmark \"" + name + "\". Available benchmarks are: " + BENCHMARKS.keySet());
+            }
+            benchmark.execute(name);
+        }
+
+    }
+
+
+
+
+    /*
+     * #dates/#calendars formatting performed by a large amount of threads concurrently, using the same pattern
+     * and locale (the typical case of a date column in a list page).
+     */
+    private static Operation dateFormatting() {
+
+        final int threads = 64;
+        final int formatsPerThread = 20000;
+
+        final Calendar[] calendars = new Calendar[100];
+        for (int i = 0; i < calendars.length; i++) {
+            calendars[i] = Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.US);
+            calendars[i].clear();
+            calendars[i].set(2000 + (i % 20), i % 12, 1 + (i % 28), i % 24, i % 60, i % 60);
+        }
+
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(threads);
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < formatsPerThread; i++) {
+                    DateUtils.format(calendars[i % calendars.length], "yyyy-MM-dd HH:mm:ss", Locale.US);
+                }
+                return null;
+            });
+        }
+
+        return () -> {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (final Future<Object> result : executor.invokeAll(tasks)) {
+                    result.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        };
+
+    }
+
+
+
+
+    /*
+     * Parsing (and processing) of large TEXT and JAVASCRIPT templates which contain mostly static text, so that
+     * the most relevant part of the work is scanning the template for structures. String templates are not
+     * cacheable, so they are parsed in every execution.
+     */
+    private static Operation textParsing(final TemplateMode templateMode, final String block) {
+
+        final int blocks = 5000;
+
+        final StringBuilder templateBuilder = new StringBuilder(block.length() * blocks);
+        for (int i = 0; i < blocks; i++) {
+            templateBuilder.append(block);
+        }
+        final String template = templateBuilder.toString();
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(templateMode);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("n", Integer.valueOf(42));
+
+        return () -> templateEngine.process(template, context);
+
+    }
+
+
+
+
+    /*
+     * Serialization of a large list of beans (the typical case of inlining a model object into a
+     * <script th:inline="javascript"> block).
+     */
+    private static Operation javaScriptSerialization(final IStandardJavaScriptSerializer serializer) {
+
+        final int beans = 5000;
+
+        final List<Item> items = new ArrayList<Item>(beans);
+        for (int i = 0; i < beans; i++) {
+            items.add(new Item(i));
+        }
+
+        return () -> serializer.serializeValue(items, new StringWriter());
+
+    }
+
+
+
+
+    /*
+     * Processing of a cached template that contains three levels of nested th:each iterations (10 tables,
+     * 20 rows, 10 cells).
+     */
+    private static Operation nestedIteration() {
+
+        final List<List<List<String>>> tables = new ArrayList<List<List<String>>>(10);
+        for (int t = 0; t < 10; t++) {
+            final List<List<String>> rows = new ArrayList<List<String>>(20);
+            for (int r = 0; r < 20; r++) {
+                final List<String> cells = new ArrayList<String>(10);
+                for (int c = 0; c < 10; c++) {
+                    cells.add(t + "-" + r + "-" + c);
+                }
+                rows.add(cells);
+            }
+            tables.add(rows);
+        }
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("tables", tables);
+
+        return () -> templateEngine.process(NESTED_ITERATION_TEMPLATE, context);
+
+    }
+
+
+
+
+    /*
+     * Processing of a cached template in which most of the markup lives inside large sections that are
+     * discarded by means of th:if, th:unless and th:remove.
+     */
+    private static Operation conditionalSections() {
+
+        final StringBuilder sectionBuilder = new StringBuilder();
+        sectionBuilder.append("<table>\n");
+        for (int i = 0; i < 500; i++) {
+            sectionBuilder.append("  <tr><td th:text=\"${n}\">").append(i).append("</td><td><a href=\"#\">link</a></td></tr>\n");
+        }
+        sectionBuilder.append("</table>\n");
+        final String section = sectionBuilder.toString();
+
+        final String template =
+                "<div>\n" +
+                "<section th:if=\"${admin}\">" + section + "</section>\n" +
+                "<section th:unless=\"${!admin}\">" + section + "</section>\n" +
+                "<section th:remove=\"all\">" + section + "</section>\n" +
+                "<section th:remove=\"body\">" + section + "</section>\n" +
+                "<p th:text=\"${n}\">n</p>\n" +
+                "</div>";
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("admin", Boolean.FALSE);
+        context.setVariable("n", Integer.valueOf(42));
+
+        return () -> templateEngine.process(template, context);
+
+    }
+
+
+
+
+    /*
+     * Processing of a cached template containing a th:switch with a large amount of literal th:case values,
+     * executed inside an iteration.
+     */
+    private static Operation literalCaseSwitch() {
+
+        final int cases = 30;
+        final int items = 1000;
+
+        final StringBuilder templateBuilder = new StringBuilder();
+        templateBuilder.append("<ul><li th:each=\"item : ${items}\" th:switch=\"${item.status}\">");
+        for (int i = 0; i < cases; i++) {
+            templateBuilder.append("<span th:case=\"'STATUS").append(i).append("'\">").append(i).append("</span>");
+        }
+        templateBuilder.append("<span th:case=\"*\">?</span></li></ul>");
+        final String template = templateBuilder.toString();
+
+        // One out of (cases + 1) items will go to the default case
+        final List<StatusItem> statusItems = new ArrayList<StatusItem>(items);
+        for (int i = 0; i < items; i++) {
+            statusItems.add(new StatusItem("STATUS" + (i % (cases + 1))));
+        }
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("items", statusItems);
+
+        return () -> templateEngine.process(template, context);
+
+    }
+
+
+
+
+    /*
+     * Evaluation of the Standard Expression arithmetic and comparison operators on the kind of operands usually
+     * found inside iterations (small integers, and doubles compared against integer literals).
+     */
+    private static Operation expressionOperators() {
+
+        final int items = 1000;
+
+        final StringBuilder templateBuilder = new StringBuilder();
+        templateBuilder.append("<p th:each=\"i : ${numbers}\">");
+        for (final String expression : OPERATOR_EXPRESSIONS) {
+            templateBuilder.append("<b th:text=\"").append(expression).append("\">x</b>");
+        }
+        templateBuilder.append("</p>");
+        final String template = templateBuilder.toString();
+
+        final List<Integer> numbers = new ArrayList<Integer>(items);
+        for (int i = 0; i < items; i++) {
+            numbers.add(Integer.valueOf(i));
+        }
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("numbers", numbers);
+        context.setVariable("j", Long.valueOf(7L));
+        context.setVariable("price", Double.valueOf(12.5));
+        context.setVariable("limit", Integer.valueOf(100));
+
+        return () -> templateEngine.process(template, context);
+
+    }
+
+
+
+
+    /*
+     * Per-thread allocation counters are only offered by some JVMs (e.g. HotSpot) by means of an extension
+     * of the standard ThreadMXBean interface, which we access by reflection.
+     */
+    private static long allocatedBytes() {
+        try {
+            final Object allocated =
+                    Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class)
+                            .invoke(ManagementFactory.getThreadMXBean(), Long.valueOf(Thread.currentThread().getId()));
+            return ((Long) allocated).longValue();
+        } catch (final Exception e) {
+            return -1L;
+        }
+    }
+
+
+
+
+    private interface Operation {
+
+        void execute() throws Exception;
+
+    }
+
+
+    private interface OperationFactory {
+
+        Operation create() throws Exception;
+
+    }
+
+
+    private static final class Benchmark {
+
+        private final int executions;
+        private final String description;
+        private final OperationFactory operationFactory;
+
+        Benchmark(final int executions, final String description, final OperationFactory operationFactory) {
+            super();
+            this.executions = executions;
+            this.description = description;
+            this.operationFactory = operationFactory;
+        }
+
+        void execute(final String name) throws Exception {
+
+            final Operation operation = this.operationFactory.create();
+
+            for (int i = 0; i < this.executions; i++) {
+                operation.execute();
+            }
+
+            final long allocatedStart = allocatedBytes();
+            final long start = System.nanoTime();
+            for (int i = 0; i < this.executions; i++) {
+                operation.execute();
+            }
+            final long nanos = System.nanoTime() - start;
+            final long allocated = allocatedBytes() - allocatedStart;
+
+            // Allocations are only measured at the current thread
+            System.out.println(
+                    String.format(Locale.US, "%-24s %d x %s: %d ms (%d ns per execution)%s",
+                            name, Integer.valueOf(this.executions), this.description,
+                            Long.valueOf(nanos / 1000000L), Long.valueOf(nanos / this.executions),
+                            (allocatedStart < 0L? "" : ", " + (allocated / this.executions) + " bytes allocated per execution")));
+
+        }
+
+    }
+
+
+
+
+    /*
+     * Bean used by the JavaScript serialization benchmarks (public, so that it can be introspected)
+     */
+    public static final class Item {
+
+        private final int id;
+        private final String name;
+        private final boolean active;
+        private final double score;
+        private final List<String> tags;
+        private final int[] values;
+
+        Item(final int id) {
+            super();
+            this.id = id;
+            this.name = "Item \u00ED\u00F1 /" + id + "/";
+            this.active = (id % 2 == 0);
+            this.score = id + 0.5;
+            this.tags = Arrays.asList("a", "b");
+            this.values = new int[] { id, id + 1, id + 2 };
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean isActive() {
+            return this.active;
+        }
+
+        public double getScore() {
+            return this.score;
+        }
+
+        public List<String> getTags() {
+            return this.tags;
+        }
+
+        public int[] getValues() {
+            return this.values;
+        }
+
+    }
+
+
+
+
+    /*
+     * Bean used by the switch benchmark
+     */
+    public static final class StatusItem {
+
+        private final String status;
+
+        StatusItem(final String status) {
+            super();
+            this.status = status;
+        }
+
+        public String getStatus() {
+            return this.status;
+        }
+
+    }
+
+
+}
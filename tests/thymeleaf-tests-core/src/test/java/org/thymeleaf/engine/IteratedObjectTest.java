@@ -0,0 +1,248 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.StringWriter;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IThrottledTemplateProcessor;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+
+
+public final class IteratedObjectTest {
+
+    private static final String TEMPLATE =
+            "<p th:each=\"i : ${items}\" th:text=\"${i} + '/' + ${iStat.count} + '/' + ${iStat.size}\">x</p>";
+
+
+    private final TemplateEngine templateEngine;
+
+
+    public IteratedObjectTest() {
+        super();
+        this.templateEngine = new TemplateEngine();
+    }
+
+
+
+
+    @Test
+    public void testPrimitiveArrays() {
+
+        Assertions.assertEquals("<p>1/1/2</p><p>2/2/2</p>", process(new int[] { 1, 2 }));
+        Assertions.assertEquals("<p>1/1/2</p><p>2/2/2</p>", process(new long[] { 1L, 2L }));
+        Assertions.assertEquals("<p>1.5/1/2</p><p>2.5/2/2</p>", process(new double[] { 1.5d, 2.5d }));
+        Assertions.assertEquals("<p>1.5/1/1</p>", process(new float[] { 1.5f }));
+        Assertions.assertEquals("<p>true/1/2</p><p>false/2/2</p>", process(new boolean[] { true, false }));
+        Assertions.assertEquals("<p>7/1/1</p>", process(new byte[] { 7 }));
+        Assertions.assertEquals("<p>7/1/1</p>", process(new short[] { 7 }));
+        Assertions.assertEquals("<p>a/1/2</p><p>b/2/2</p>", process(new char[] { 'a', 'b' }));
+        Assertions.assertEquals("<p>a/1/2</p><p>b/2/2</p>", process(new String[] { "a", "b" }));
+        Assertions.assertEquals("", process(new int[0]));
+
+    }
+
+
+    @Test
+    public void testStreams() {
+
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final Stream<String> stream = Stream.of("a", "b", "c").onClose(() -> closed.set(true));
+        Assertions.assertEquals("<p>a/1/3</p><p>b/2/3</p><p>c/3/3</p>", process(stream));
+        Assertions.assertTrue(closed.get());
+
+        // Size cannot be known without traversing, so it will not be available
+        final Stream<Integer> unsized = Stream.iterate(Integer.valueOf(1), i -> Integer.valueOf(i.intValue() + 1)).limit(2);
+        Assertions.assertEquals("<p>1/1/null</p><p>2/2/null</p>", process(unsized));
+
+        final AtomicBoolean intClosed = new AtomicBoolean(false);
+        Assertions.assertEquals(
+                "<p>0/1/2</p><p>1/2/2</p>", process(IntStream.range(0, 2).onClose(() -> intClosed.set(true))));
+        Assertions.assertTrue(intClosed.get());
+
+        Assertions.assertEquals("<p>x/1/1</p>", process(Arrays.asList("x").spliterator()));
+
+    }
+
+
+    @Test
+    public void testStreamClosedOnError() {
+
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final Stream<Object> stream = Stream.of((Object) "a").onClose(() -> closed.set(true));
+
+        final Context context = new Context();
+        context.setVariable("items", stream);
+        Assertions.assertThrows(TemplateProcessingException.class, () ->
+                this.templateEngine.process("<p th:each=\"i : ${items}\" th:text=\"${i.unknownProperty}\">x</p>", context));
+        Assertions.assertTrue(closed.get());
+
+    }
+
+
+    @Test
+    public void testStreamClosedOnThrottledDispose() {
+
+        // Stream is infinite: iteration can only finish by abandoning processing
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final Stream<Integer> stream =
+                Stream.iterate(Integer.valueOf(0), i -> Integer.valueOf(i.intValue() + 1)).onClose(() -> closed.set(true));
+
+        final Context context = new Context();
+        context.setVariable("items", stream);
+        final IThrottledTemplateProcessor throttledProcessor =
+                this.templateEngine.processThrottled("<p th:each=\"i : ${items}\" th:text=\"${i}\">x</p>", context);
+
+        final StringWriter writer = new StringWriter();
+        throttledProcessor.process(100, writer);
+        throttledProcessor.process(100, writer);
+        Assertions.assertFalse(throttledProcessor.isFinished());
+        Assertions.assertTrue(writer.toString().startsWith("<p>0</p><p>1</p>"));
+        Assertions.assertFalse(closed.get());
+
+        throttledProcessor.dispose();
+        Assertions.assertTrue(closed.get());
+
+    }
+
+
+    @Test
+    public void testStreamClosedOnThrottledFinish() {
+
+        final AtomicInteger closed = new AtomicInteger(0);
+        final Stream<String> stream = Stream.of("a", "b", "c").onClose(() -> closed.incrementAndGet());
+
+        final Context context = new Context();
+        context.setVariable("items", stream);
+        final IThrottledTemplateProcessor throttledProcessor =
+                this.templateEngine.processThrottled("<p th:each=\"i : ${items}\" th:text=\"${i}\">x</p>", context);
+
+        final StringWriter writer = new StringWriter();
+        while (!throttledProcessor.isFinished()) {
+            throttledProcessor.process(5, writer);
+        }
+        Assertions.assertEquals("<p>a</p><p>b</p><p>c</p>", writer.toString());
+        Assertions.assertEquals(1, closed.get());
+
+        // Once processing has finished, there is nothing left to be released
+        throttledProcessor.dispose();
+        Assertions.assertEquals(1, closed.get());
+
+    }
+
+
+    @Test
+    public void testLazySize() {
+
+        final CountingCollection collection = new CountingCollection(Arrays.asList("a", "b"));
+
+        final Context context = new Context();
+        context.setVariable("items", collection);
+        Assertions.assertEquals(
+                "<p>a</p><p>b</p>", this.templateEngine.process("<p th:each=\"i : ${items}\" th:text=\"${i}\">x</p>", context));
+        Assertions.assertEquals(0, collection.sizeCalls.get());
+
+        Assertions.assertEquals("<p>a/1/2</p><p>b/2/2</p>", process(collection));
+        Assertions.assertEquals(1, collection.sizeCalls.get());
+
+    }
+
+
+    @Test
+    public void testNestedIterations() {
+
+        final List<List<List<String>>> tables =
+                Arrays.asList(
+                        Arrays.asList(Arrays.asList("0-0-0", "0-0-1"), Arrays.asList("0-1-0", "0-1-1")),
+                        Arrays.asList(Arrays.asList("1-0-0", "1-0-1"), Arrays.asList("1-1-0", "1-1-1")));
+
+        final Context context = new Context();
+        context.setVariable("tables", tables);
+
+        final String template =
+                "<table th:each=\"table : ${tables}\" th:id=\"${'t' + tableStat.index}\">" +
+                "<tr th:each=\"row : ${table}\" th:class=\"${rowStat.odd}? 'odd' : 'even'\">" +
+                "<td th:each=\"cell : ${row}\" th:text=\"${cell}\">cell</td>" +
+                "</tr>" +
+                "</table>";
+
+        // Processed twice, as execution state is reused across iterations and elements
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(
+                    "<table id=\"t0\">" +
+                    "<tr class=\"odd\"><td>0-0-0</td><td>0-0-1</td></tr>" +
+                    "<tr class=\"even\"><td>0-1-0</td><td>0-1-1</td></tr>" +
+                    "</table>" +
+                    "<table id=\"t1\">" +
+                    "<tr class=\"odd\"><td>1-0-0</td><td>1-0-1</td></tr>" +
+                    "<tr class=\"even\"><td>1-1-0</td><td>1-1-1</td></tr>" +
+                    "</table>",
+                    this.templateEngine.process(template, context));
+        }
+
+    }
+
+
+
+
+    private String process(final Object items) {
+        final Context context = new Context();
+        context.setVariable("items", items);
+        return this.templateEngine.process(TEMPLATE, context);
+    }
+
+
+
+
+    private static final class CountingCollection extends AbstractCollection<String> {
+
+        private final List<String> delegate;
+        final AtomicInteger sizeCalls = new AtomicInteger(0);
+
+        CountingCollection(final List<String> delegate) {
+            super();
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return this.delegate.iterator();
+        }
+
+        @Override
+        public int size() {
+            this.sizeCalls.incrementAndGet();
+            return this.delegate.size();
+        }
+
+    }
+
+}
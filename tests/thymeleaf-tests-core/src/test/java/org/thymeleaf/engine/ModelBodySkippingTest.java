@@ -0,0 +1,233 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.IThrottledTemplateProcessor;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.EngineContext;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+/*
+ * Checks the direct skipping of element bodies that are going to be discarded anyway (th:if, th:unless,
+ * th:remove...) performed by TemplateModel and Model, including Model modifications and throttled execution.
+ */
+public final class ModelBodySkippingTest {
+
+    private static final String[] TEMPLATES = new String[] {
+            // Discarded bodies inside iterated (gathered) models
+            "<ul>\n  <li th:each=\"i : ${items}\"><span th:if=\"${i % 2 == 0}\">even <b th:text=\"${i}\">x</b></span>" +
+                    "<span th:unless=\"${i % 2 == 0}\">odd <b th:text=\"${i}\">x</b></span></li>\n</ul>",
+            "<div th:each=\"i : ${items}\"><p th:each=\"j : ${items}\" th:if=\"${i == j}\">" +
+                    "<i th:text=\"${i}\">i</i><b th:if=\"${j > 2}\">big<em>!</em></b></p></div>",
+            // th:remove in markup built from a TemplateModel and in iterated models
+            "<div><p th:remove=\"all\">a<b th:text=\"${n}\">b</b></p><p th:remove=\"body\">a<b>b</b></p>" +
+                    "<p th:remove=\"tag\">a<b th:text=\"${n}\">b</b></p><p th:remove=\"all-but-first\"><b>1</b><b>2</b></p></div>",
+            "<ul><li th:each=\"i : ${items}\"><p th:remove=\"all\">a<b th:text=\"${i}\">b</b></p>" +
+                    "<p th:remove=\"body\">a<b>b</b></p><i th:text=\"${i}\">i</i></li></ul>",
+            // Unmatched close tags inside (and around) discarded bodies
+            "<div><p th:if=\"${n == 0}\">a</span>b<i>c</i></em></p><span th:text=\"${n}\">n</span></div>",
+            "<div th:each=\"i : ${items}\"><p th:if=\"${i == 2}\">a</span>b</p></b><span th:text=\"${i}\">i</span></div>",
+            // Unclosed elements inside discarded bodies
+            "<div><p th:if=\"${n == 0}\"><br><img src=\"x\"><input></p><span th:text=\"${n}\">n</span></div>",
+            // Long discarded section, so that throttled processing stops in many different places
+            "<div><section th:if=\"${n == 0}\"><p th:each=\"i : ${items}\" th:text=\"${i}\">i</p>text<b>b</b></section>" +
+                    "<section th:if=\"${n == 42}\"><p th:each=\"i : ${items}\"><b th:if=\"${i > 2}\">b</b><i th:text=\"${i}\">i</i></p></section></div>",
+            // Sibling top-level sections discarded by each of the different attributes
+            "<div>\n<section th:if=\"${n == 0}\"><table><tr><td th:text=\"${n}\">0</td><td><a href=\"#\">a</a></td></tr></table></section>\n" +
+                    "<section th:unless=\"${n == 42}\"><table><tr><td th:text=\"${n}\">0</td></tr></table></section>\n" +
+                    "<section th:remove=\"all\"><table><tr><td th:text=\"${n}\">0</td></tr></table></section>\n" +
+                    "<section th:remove=\"body\"><table><tr><td th:text=\"${n}\">0</td></tr></table></section>\n" +
+                    "<p th:text=\"${n}\">n</p>\n</div>"
+    };
+
+    private static final String[] RESULTS = new String[] {
+            "<ul>\n  <li><span>odd <b>1</b></span></li>\n  <li><span>even <b>2</b></span></li>\n" +
+                    "  <li><span>odd <b>3</b></span></li>\n  <li><span>even <b>4</b></span></li>\n</ul>",
+            "<div><p><i>1</i></p></div><div><p><i>2</i></p></div>" +
+                    "<div><p><i>3</i><b>big<em>!</em></b></p></div><div><p><i>4</i><b>big<em>!</em></b></p></div>",
+            "<div><p></p>a<b>42</b><p><b>1</b></p></div>",
+            "<ul><li><p></p><i>1</i></li><li><p></p><i>2</i></li><li><p></p><i>3</i></li><li><p></p><i>4</i></li></ul>",
+            "<div><span>42</span></div>",
+            "<div></b><span>1</span></div><div><p>a</span>b</p></b><span>2</span></div>" +
+                    "<div></b><span>3</span></div><div></b><span>4</span></div>",
+            "<div><span>42</span></div>",
+            "<div><section><p><i>1</i></p><p><i>2</i></p><p><b>b</b><i>3</i></p><p><b>b</b><i>4</i></p></section></div>",
+            "<div>\n\n\n\n<section></section>\n<p>42</p>\n</div>"
+    };
+
+
+
+    @Test
+    public void testDiscardedBodies() throws Exception {
+
+        for (final boolean cacheable : new boolean[] { false, true }) {
+            final TemplateEngine templateEngine = createTemplateEngine(cacheable);
+            // Executed twice so that, when cacheable, the second time the TemplateModel comes from cache
+            for (int execution = 0; execution < 2; execution++) {
+                for (int i = 0; i < TEMPLATES.length; i++) {
+                    Assertions.assertEquals(RESULTS[i], templateEngine.process(TEMPLATES[i], createContext()), TEMPLATES[i]);
+                }
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testDiscardedBodiesThrottled() throws Exception {
+
+        for (final boolean cacheable : new boolean[] { false, true }) {
+            final TemplateEngine templateEngine = createTemplateEngine(cacheable);
+            for (int i = 0; i < TEMPLATES.length; i++) {
+                // Small output limits will make processing stop (and resume) at every possible event, including
+                // the open tags of discarded elements and positions inside their bodies
+                for (int limit = 1; limit <= 12; limit++) {
+                    final IThrottledTemplateProcessor processor =
+                            templateEngine.processThrottled(TEMPLATES[i], createContext());
+                    final StringWriter writer = new StringWriter();
+                    while (!processor.isFinished()) {
+                        processor.process(limit, writer);
+                    }
+                    Assertions.assertEquals(RESULTS[i], writer.toString(), TEMPLATES[i] + " (limit " + limit + ")");
+                }
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testCloseElementIndexes() throws Exception {
+
+        final IEngineConfiguration configuration = new TemplateEngine().getConfiguration();
+        final TemplateData templateData = TestTemplateDataConfigurationBuilder.build("test", TemplateMode.HTML);
+
+        // Events: TemplateStart, <div>, <p>, a, </span>, </p>, <b>, </b>, </div>, </i>, TemplateEnd
+        final TemplateModel templateModel =
+                configuration.getTemplateManager().parseString(
+                        templateData, "<div><p>a</span></p><b></b></div></i>", 0, 0, TemplateMode.HTML, false);
+
+        final int[] closeElementIndexes =
+                TemplateModel.computeCloseElementIndexes(templateModel.queue, templateModel.queue.length);
+
+        Assertions.assertArrayEquals(new int[] { 0, 8, 5, 0, 0, 0, 7, 0, 0, 0, 0 }, closeElementIndexes);
+
+    }
+
+
+    @Test
+    public void testModelModifiedAfterSkipping() throws Exception {
+
+        final IEngineConfiguration configuration = new TemplateEngine().getConfiguration();
+        final TemplateData templateData = TestTemplateDataConfigurationBuilder.build("test", TemplateMode.HTML);
+
+        // Events: <p>, a, <b>, b, </b>, </p>, <i>, 1, </i>
+        final Model model =
+                new Model(configuration.getTemplateManager().parseString(
+                        templateData, "<p th:if=\"${n == 0}\">a<b>b</b></p><i th:text=\"${n}\">1</i>", 0, 0, TemplateMode.HTML, false));
+        final IModelFactory modelFactory = configuration.getModelFactory(TemplateMode.HTML);
+
+        // First execution computes the positions of close tags, needed for skipping the body of <p>
+        Assertions.assertEquals("<i>42</i>", process(configuration, templateData, model));
+
+        // All of these modifications change the position of the close tag of <p>
+        model.remove(1);
+        Assertions.assertEquals("<i>42</i>", process(configuration, templateData, model));
+
+        model.insert(0, modelFactory.createText("x"));
+        Assertions.assertEquals("x<i>42</i>", process(configuration, templateData, model));
+
+        model.insert(2, modelFactory.createText("y"));
+        model.insert(3, modelFactory.createText("z"));
+        Assertions.assertEquals("x<i>42</i>", process(configuration, templateData, model));
+
+        model.replace(0, modelFactory.createOpenElementTag("em"));
+        model.insert(1, modelFactory.createCloseElementTag("em"));
+        Assertions.assertEquals("<em></em><i>42</i>", process(configuration, templateData, model));
+
+        final Model otherModel = new Model(configuration, TemplateMode.HTML);
+        otherModel.addModel(
+                configuration.getTemplateManager().parseString(
+                        templateData, "<div th:if=\"${n == 0}\"><p>a</p></div>b", 0, 0, TemplateMode.HTML, false));
+        model.reset();
+        model.addModel(otherModel);
+        Assertions.assertEquals("b", process(configuration, templateData, model));
+
+        model.insertModel(0, otherModel);
+        Assertions.assertEquals("bb", process(configuration, templateData, model));
+
+    }
+
+
+
+
+    private static String process(
+            final IEngineConfiguration configuration, final TemplateData templateData, final Model model) {
+
+        final Map<String,Object> variables = new HashMap<String, Object>();
+        variables.put("n", Integer.valueOf(42));
+        final EngineContext context = new EngineContext(configuration, templateData, null, Locale.US, variables);
+
+        final StringWriter writer = new StringWriter();
+        final OutputTemplateHandler outputHandler = new OutputTemplateHandler(writer);
+        outputHandler.setContext(context);
+
+        final ProcessorTemplateHandler processorHandler = new ProcessorTemplateHandler();
+        processorHandler.setContext(context);
+        processorHandler.setNext(outputHandler);
+
+        model.process(processorHandler);
+
+        return writer.toString();
+
+    }
+
+
+    private static TemplateEngine createTemplateEngine(final boolean cacheable) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(cacheable);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Context context = new Context(Locale.US);
+        context.setVariable("items", Arrays.asList(Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3), Integer.valueOf(4)));
+        context.setVariable("n", Integer.valueOf(42));
+        return context;
+    }
+
+}
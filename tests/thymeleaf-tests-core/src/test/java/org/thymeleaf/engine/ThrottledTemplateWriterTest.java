@@ -0,0 +1,202 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class ThrottledTemplateWriterTest {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz<>/=\" \n";
+
+
+    public ThrottledTemplateWriterTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testWriterOverflow() throws Exception {
+
+        final Random random = new Random(71);
+        final int[] limits = new int[] { 1, 7, 100, 1023, 1024, 1025, 5000 };
+
+        for (final int limit : limits) {
+            for (int run = 0; run < 10; run++) {
+
+                final String text = randomText(random, 1 + random.nextInt(20000));
+
+                final TemplateFlowController flowController = new TemplateFlowController();
+                final ThrottledTemplateWriter writer = new ThrottledTemplateWriter("test", flowController);
+
+                final StringWriter output = new StringWriter();
+                writer.setOutput(output);
+                writer.allow(limit);
+                writeRandomly(random, writer, text);
+                Assertions.assertEquals(Math.min(limit, text.length()), output.getBuffer().length());
+
+                drain(writer, limit, text.length());
+                Assertions.assertEquals(text, output.toString());
+                Assertions.assertEquals(text.length(), writer.getWrittenCount());
+                Assertions.assertEquals(Math.max(0, text.length() - limit), writer.getMaxOverflowSize());
+                // Overflow segments are 1024 chars, and they are never re-allocated
+                Assertions.assertEquals(
+                        Math.max(0, (writer.getMaxOverflowSize() + 1023) / 1024 - 1), writer.getOverflowGrowCount());
+
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testWriterOverflowSegmentReuse() throws Exception {
+
+        final TemplateFlowController flowController = new TemplateFlowController();
+        final ThrottledTemplateWriter writer = new ThrottledTemplateWriter("test", flowController);
+
+        final StringWriter output = new StringWriter();
+        final StringBuilder expected = new StringBuilder();
+        writer.setOutput(output);
+
+        // Alternating overflows and partial drains should keep using the same segments
+        final Random random = new Random(23);
+        writer.allow(0);
+        for (int i = 0; i < 1000; i++) {
+            final String text = randomText(random, 1 + random.nextInt(600));
+            expected.append(text);
+            writer.write(text);
+            writer.allow(500);
+            writer.allow(0);
+        }
+        writer.allow(Integer.MAX_VALUE);
+
+        Assertions.assertEquals(expected.toString(), output.toString());
+        Assertions.assertTrue(writer.getOverflowGrowCount() <= (writer.getMaxOverflowSize() / 1024) + 1);
+
+    }
+
+
+    @Test
+    public void testOutputStreamOverflow() throws Exception {
+
+        final Random random = new Random(37);
+        final Charset[] charsets =
+                new Charset[] { Charset.forName("UTF-8"), Charset.forName("ISO-8859-1"), Charset.forName("Shift-JIS") };
+        final String[] alphabets =
+                new String[] { ALPHABET + "\u00e1\u00f1\u3042\u30a2", ALPHABET + "\u00e1\u00f1", ALPHABET + "\u3042\u30a2" };
+        final int[] limits = new int[] { 1, 16, 100, 1000, 4096 };
+
+        for (int c = 0; c < charsets.length; c++) {
+            final Charset charset = charsets[c];
+            for (final int limit : limits) {
+                for (int run = 0; run < 5; run++) {
+
+                    final String text = randomText(random, 1 + random.nextInt(20000), alphabets[c]);
+                    final byte[] expected = text.getBytes(charset);
+
+                    final TemplateFlowController flowController = new TemplateFlowController();
+                    final ThrottledTemplateWriter writer = new ThrottledTemplateWriter("test", flowController);
+
+                    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    writer.setOutput(output, charset, limit);
+                    writer.allow(limit);
+                    writeRandomly(random, writer, text);
+                    writer.flush();
+
+                    drain(writer, limit, expected.length);
+                    Assertions.assertArrayEquals(expected, output.toByteArray());
+                    Assertions.assertEquals(expected.length, writer.getWrittenCount());
+
+                    writer.release();
+
+                }
+            }
+        }
+
+    }
+
+
+
+
+    private static void drain(final ThrottledTemplateWriter writer, final int limit, final int total) throws IOException {
+        while (writer.isOverflown()) {
+            final int before = writer.getWrittenCount();
+            writer.allow(limit);
+            writer.flush();
+            Assertions.assertTrue(writer.getWrittenCount() > before);
+            Assertions.assertTrue(writer.getWrittenCount() - before <= limit);
+        }
+        Assertions.assertEquals(total, writer.getWrittenCount());
+    }
+
+
+    private static void writeRandomly(final Random random, final ThrottledTemplateWriter writer, final String text)
+            throws IOException {
+        int i = 0;
+        while (i < text.length()) {
+            final int len = Math.min(text.length() - i, random.nextInt(3000));
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (len > 0) {
+                        writer.write(text.charAt(i));
+                        i++;
+                    }
+                    break;
+                case 1:
+                    writer.write(text, i, len);
+                    i += len;
+                    break;
+                case 2:
+                    writer.write(text.substring(i, i + len));
+                    i += len;
+                    break;
+                default:
+                    writer.write(text.toCharArray(), i, len);
+                    i += len;
+                    break;
+            }
+        }
+    }
+
+
+    private static String randomText(final Random random, final int len) {
+        return randomText(random, len, ALPHABET + "\u00e1\u00f1\u3042\u30a2");
+    }
+
+
+    private static String randomText(final Random random, final int len, final String alphabet) {
+        final StringBuilder strBuilder = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            strBuilder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return strBuilder.toString();
+    }
+
+
+}
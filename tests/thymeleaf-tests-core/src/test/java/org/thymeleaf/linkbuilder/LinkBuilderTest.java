@@ -19,16 +19,56 @@
  */
 package org.thymeleaf.linkbuilder;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.context.WebContext;
 import org.thymeleaf.templateresolver.StringTemplateResolver;
+import org.thymeleaf.testing.templateengine.util.JakartaServletMockUtils;
+import org.thymeleaf.web.servlet.IServletWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
 
 
 public class LinkBuilderTest {
 
 
+    private static final String[][] LINK_TEMPLATES = new String[][] {
+            { "@{/orders/{id}/items(id=${id},page=${page})}", "<a href=\"[/fromthebuilder/orders/42/items?page=3]\">" },
+            { "@{/orders/{id}/items/{id}(id=${id})}", "<a href=\"[/fromthebuilder/orders/42/items/42]\">" },
+            { "@{/orders/{/id}/items(id=${path})}", "<a href=\"[/fromthebuilder/orders/a%2Fb%20c%3Fd/items]\">" },
+            { "@{/orders/{id}/items(id=${path})}", "<a href=\"[/fromthebuilder/orders/a/b%20c%3Fd/items]\">" },
+            { "@{/search?q={term}&x=1(term=${term},page=${page})}", "<a href=\"[/fromthebuilder/search?q=x%26y%3Dz?%23&amp;x=1&amp;page=3]\">" },
+            { "@{/search/{term}?q={term}(term=${term})}", "<a href=\"[/fromthebuilder/search/x&amp;y=z%3F%23?q=x%26y%3Dz?%23]\">" },
+            { "@{/a/{averylongname}?q={y}(averylongname='',y=${path})}", "<a href=\"[/fromthebuilder/a/?q=a/b%20c?d]\">" },
+            { "@{/list(ids=${ids},empty=${null},flag)}", "<a href=\"[/fromthebuilder/list?ids=1&amp;ids&amp;ids=3%204&amp;empty=&amp;flag]\">" },
+            { "@{/list/{ids}(ids=${ids})}", "<a href=\"[/fromthebuilder/list/1,,3%204]\">" },
+            { "@{/orders/{id}#section-{id}(id=${id},page=${page})}", "<a href=\"[/fromthebuilder/orders/42?page=3#section-{id}]\">" },
+            { "@{#top(page=${page})}", "<a href=\"[#top?page=3]\">" },
+            { "@{~/other/app/{id}(id=${id},page=${page})}", "<a href=\"[/other/app/42?page=3]\">" },
+            { "@{~/other/app}", "<a href=\"[/other/app]\">" },
+            { "@{http://example.com/{id}/x?a=b(id=${id},c=${term})}", "<a href=\"[http://example.com/42/x?a=b&amp;c=x%26y%3Dz?%23]\">" },
+            { "@{//example.com/{id}(id=${id})}", "<a href=\"[//example.com/42]\">" },
+            { "@{relative/{id}/{missing}(id=${id})}", "<a href=\"[relative/42/{missing}]\">" },
+            { "@{relative/{id}/{missing}}", "<a href=\"[relative/{id}/{missing}]\">" },
+            { "@{/}", "<a href=\"[/fromthebuilder/]\">" },
+            { "@{/plain}", "<a href=\"[/fromthebuilder/plain]\">" },
+            { "@{/plain#frag}", "<a href=\"[/fromthebuilder/plain#frag]\">" },
+            { "@{/unicode/{name}(name=${unicode},q=${unicode})}", "<a href=\"[/fromthebuilder/unicode/caf%C3%A9%20%C3%B1?q=caf%C3%A9%20%C3%B1]\">" },
+            { "@{mailto:someone@example.com}", "<a href=\"[mailto:someone@example.com]\">" }
+    };
+
+
     public LinkBuilderTest() {
         super();
     }
@@ -72,6 +112,137 @@ public void testLinkBuilderWithECFactory01() throws Exception {
 
     }
 
+
+
+    @Test
+    public void testLinkBuilderTemplates() throws Exception {
+
+        final Context ctx = new Context();
+        ctx.setVariable("id", Integer.valueOf(42));
+        ctx.setVariable("page", Integer.valueOf(3));
+        ctx.setVariable("path", "a/b c?d");
+        ctx.setVariable("term", "x&y=z?#");
+        ctx.setVariable("ids", Arrays.asList("1", null, "3 4"));
+        ctx.setVariable("unicode", "caf\u00E9 \u00F1");
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.setLinkBuilder(new TestLinkBuilder());
+
+        // Executed twice so that the results obtained from already-analyzed (cached) link bases are checked too
+        for (int i = 0; i < 2; i++) {
+            for (final String[] linkTemplate : LINK_TEMPLATES) {
+                final String result = templateEngine.process("<a th:href=\"" + linkTemplate[0] + "\">", ctx);
+                Assertions.assertEquals(linkTemplate[1], result, linkTemplate[0]);
+            }
+        }
+
+    }
+
+
+
+    @Test
+    public void testLinkTransformationPolicies() throws Exception {
+
+        final String template = "<a th:href='@{/one}'><a th:href='@{/two}'><a th:href='@{/three(p=1)}'>";
+
+        final AtomicInteger transformations = new AtomicInteger();
+        final Function<String,String> noRewriting = (url) -> { transformations.incrementAndGet(); return url; };
+        final Function<String,String> rewriting = (url) -> { transformations.incrementAndGet(); return url + ";s=1"; };
+
+        final String plain =
+                "<a href='/app/one'><a href='/app/two'><a href='/app/three?p=1'>";
+        final String rewritten =
+                "<a href='/app/one;s=1'><a href='/app/two;s=1'><a href='/app/three?p=1;s=1'>";
+
+        transformations.set(0);
+        Assertions.assertEquals(rewritten, processWithPolicy(template, LinkTransformationPolicy.ALWAYS, null, rewriting));
+        Assertions.assertEquals(3, transformations.get());
+
+        transformations.set(0);
+        Assertions.assertEquals(plain, processWithPolicy(template, LinkTransformationPolicy.NEVER, null, rewriting));
+        Assertions.assertEquals(0, transformations.get());
+
+        transformations.set(0);
+        Assertions.assertEquals(plain, processWithPolicy(template, LinkTransformationPolicy.ONCE_PER_REQUEST, null, noRewriting));
+        Assertions.assertEquals(1, transformations.get());
+
+        transformations.set(0);
+        Assertions.assertEquals(rewritten, processWithPolicy(template, LinkTransformationPolicy.ONCE_PER_REQUEST, null, rewriting));
+        Assertions.assertEquals(3, transformations.get());
+
+        // Policy overridden for a specific request
+        transformations.set(0);
+        Assertions.assertEquals(plain, processWithPolicy(template, LinkTransformationPolicy.ALWAYS, "never", rewriting));
+        Assertions.assertEquals(0, transformations.get());
+
+    }
+
+
+
+    @Test
+    public void testOncePerRequestLinkTransformationWithAbsoluteFirstLink() throws Exception {
+
+        final String template =
+                "<a th:href='@{http://example.com/x}'><a th:href='@{//example.com/y}'>" +
+                "<a th:href='@{/one}'><a th:href='@{~/two}'><a th:href='@{http://example.com/z}'>";
+
+        final AtomicInteger transformations = new AtomicInteger();
+        // As done by Servlet containers, external links are not rewritten
+        final Function<String,String> rewriting =
+                (url) -> { transformations.incrementAndGet(); return (url.startsWith("/") && !url.startsWith("//")? url + ";s=1" : url); };
+
+        transformations.set(0);
+        Assertions.assertEquals(
+                "<a href='http://example.com/x'><a href='//example.com/y'>" +
+                "<a href='/app/one;s=1'><a href='/two;s=1'><a href='http://example.com/z'>",
+                processWithPolicy(template, LinkTransformationPolicy.ONCE_PER_REQUEST, null, rewriting));
+        Assertions.assertEquals(5, transformations.get());
+
+        final Function<String,String> noRewriting = (url) -> { transformations.incrementAndGet(); return url; };
+
+        transformations.set(0);
+        Assertions.assertEquals(
+                "<a href='http://example.com/x'><a href='//example.com/y'>" +
+                "<a href='/app/one'><a href='/two'><a href='http://example.com/z'>",
+                processWithPolicy(template, LinkTransformationPolicy.ONCE_PER_REQUEST, null, noRewriting));
+        Assertions.assertEquals(3, transformations.get());
+
+    }
+
+
+    private static String processWithPolicy(
+            final String template, final LinkTransformationPolicy policy, final String requestPolicy,
+            final Function<String,String> transformUrlFunction) {
+
+        final ServletContext servletContext = JakartaServletMockUtils.buildServletContext().build();
+        final HttpServletRequest request =
+                JakartaServletMockUtils.buildRequest(servletContext, "/page").contextPath("/app").build();
+        final HttpServletResponse response =
+                JakartaServletMockUtils.buildResponse().transformUrlFunction(transformUrlFunction).build();
+        final IServletWebExchange webExchange =
+                JakartaServletWebApplication.buildApplication(servletContext).buildExchange(request, response);
+        if (requestPolicy != null) {
+            webExchange.setAttributeValue(StandardLinkBuilder.LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME, requestPolicy);
+        }
+
+        final StandardLinkBuilder linkBuilder = new StandardLinkBuilder();
+        linkBuilder.setLinkTransformationPolicy(policy);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.setLinkBuilder(linkBuilder);
+        final String result = templateEngine.process(template, new WebContext(webExchange, Locale.US, Collections.emptyMap()));
+
+        // The application (context) path should have been computed only once for the whole request
+        Mockito.verify(request, Mockito.times(1)).getContextPath();
+        // The same goes for the link transformation policy that applies to the request
+        Mockito.verify(request, Mockito.times(1)).getAttribute(StandardLinkBuilder.LINK_TRANSFORMATION_POLICY_ATTRIBUTE_NAME);
+
+        return result;
+
+    }
+
     
     
 }
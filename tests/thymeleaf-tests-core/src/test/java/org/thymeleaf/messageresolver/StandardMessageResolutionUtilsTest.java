@@ -0,0 +1,154 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.messageresolver;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class StandardMessageResolutionUtilsTest {
+
+
+    private static final String[] MESSAGES = new String[] {
+            "Hello {0}!",
+            "{0}",
+            "{1} and {0}, again {1}",
+            "{0}{1}{2}",
+            "Missing {3} argument",
+            "Leading zero {01}",
+            "It''s {0}",
+            "It's {0}",
+            "'{0}' is quoted",
+            "Typed {0,number,#.##} argument",
+            "Stray } brace {0}",
+            "Choice {0,choice,0#none|1#one|1<many}"
+    };
+
+    private static final Object[][] PARAMETERS = new Object[][] {
+            new Object[0],
+            new Object[] { "John" },
+            new Object[] { "John", null },
+            new Object[] { "a", "b", "c" },
+            new Object[] { Integer.valueOf(12345), "b" },
+            new Object[] { Double.valueOf(1234.5678), Boolean.TRUE, Character.valueOf('c') },
+            new Object[] { createCalendar().getTime(), "b" },
+            new Object[] { new StringBuilder("builder"), "b" }
+    };
+
+
+
+    public StandardMessageResolutionUtilsTest() {
+        super();
+    }
+
+
+
+    @Test
+    public void testFormatMessageSameAsMessageFormat() {
+
+        for (final Locale locale : new Locale[] { Locale.US, new Locale("es", "ES") }) {
+            for (final String message : MESSAGES) {
+                for (final Object[] parameters : PARAMETERS) {
+                    final String expected;
+                    try {
+                        expected = new MessageFormat(message, locale).format(parameters);
+                    } catch (final IllegalArgumentException e) {
+                        // Parameters cannot be applied to this pattern (e.g. a String for a number argument)
+                        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> StandardMessageResolutionUtils.formatMessage(locale, message, parameters), message);
+                        continue;
+                    }
+                    // Execute twice so that the second time the compiled format comes from cache
+                    Assertions.assertEquals(
+                            expected, StandardMessageResolutionUtils.formatMessage(locale, message, parameters), message);
+                    Assertions.assertEquals(
+                            expected, StandardMessageResolutionUtils.formatMessage(locale, message, parameters), message);
+                }
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testFormatMessageNullParameters() {
+        Assertions.assertEquals("Hello {0}!", StandardMessageResolutionUtils.formatMessage(Locale.US, "Hello {0}!", null));
+        Assertions.assertEquals("No placeholders", StandardMessageResolutionUtils.formatMessage(Locale.US, "No placeholders", null));
+        Assertions.assertNull(StandardMessageResolutionUtils.formatMessage(Locale.US, null, null));
+    }
+
+
+    @Test
+    public void testFormatMessageConcurrently() throws Exception {
+
+        // More threads than pooled MessageFormat instances, so that the pool overflows
+        final ExecutorService executor = Executors.newFixedThreadPool(32);
+        final String message = "Typed {0,number,#.##} argument {1}";
+        try {
+
+            final List<Future<String>> results = new ArrayList<Future<String>>(2000);
+            for (int i = 0; i < 2000; i++) {
+                final Object[] parameters = new Object[] { Double.valueOf(i / 7.0d), "p" + i };
+                results.add(executor.submit(
+                        () -> StandardMessageResolutionUtils.formatMessage(Locale.US, message, parameters)));
+            }
+
+            for (int i = 0; i < 2000; i++) {
+                final Object[] parameters = new Object[] { Double.valueOf(i / 7.0d), "p" + i };
+                Assertions.assertEquals(
+                        new MessageFormat(message, Locale.US).format(parameters), results.get(i).get(60, TimeUnit.SECONDS));
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+    }
+
+
+    @Test
+    public void testFormatMessageWrongPattern() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> StandardMessageResolutionUtils.formatMessage(Locale.US, "Wrong { 0 } pattern", new Object[] { "a" }));
+    }
+
+
+
+    private static Calendar createCalendar() {
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.US);
+        calendar.clear();
+        calendar.set(2022, Calendar.DECEMBER, 24, 11, 30);
+        return calendar;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.messageresolver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+
+public class StandardMessageResolverTest {
+
+
+    private static final Locale LOCALE_ES = new Locale("es");
+
+
+
+    public StandardMessageResolverTest() {
+        super();
+    }
+
+
+
+    @Test
+    public void testFlattenedMessages() {
+
+        for (final Locale locale : new Locale[] { Locale.ENGLISH, LOCALE_ES, new Locale("es", "ES") }) {
+            Assertions.assertEquals(process(false, false, locale), process(true, false, locale));
+            Assertions.assertEquals(process(false, false, locale), process(true, true, locale));
+        }
+
+        final String expectedEs =
+                "<p>Hola John!</p>\n" +
+                "<p>Goodbye</p>\n" +
+                "<p>From defaults</p>\n" +
+                "<p>From template</p>\n" +
+                "<p>??absent.key_es??</p>\n" +
+                "<p></p>\n";
+        Assertions.assertEquals(expectedEs, process(true, false, LOCALE_ES));
+
+    }
+
+
+    @Test
+    public void testFlattenedMessagesDefaultsModification() {
+
+        final StandardMessageResolver messageResolver = new StandardMessageResolver();
+        messageResolver.setUseFlattenedMessages(true);
+        final TemplateEngine templateEngine = createTemplateEngine(messageResolver);
+
+        final Context context = new Context(Locale.ENGLISH);
+        Assertions.assertTrue(templateEngine.process("flattened", context).contains("<p>??only.default_en??</p>"));
+
+        // Modifying default messages needs to invalidate already built flattened messages
+        messageResolver.addDefaultMessage("only.default", "Added later");
+        Assertions.assertTrue(templateEngine.process("flattened", context).contains("<p>Added later</p>"));
+
+    }
+
+
+
+    private static String process(final boolean useFlattenedMessages, final boolean prebuild, final Locale locale) {
+
+        final StandardMessageResolver messageResolver = new StandardMessageResolver();
+        messageResolver.setUseFlattenedMessages(useFlattenedMessages);
+        messageResolver.addDefaultMessage("only.default", "From defaults");
+        messageResolver.addDefaultMessage("overridden.default", "Overridden");
+
+        final TemplateEngine templateEngine = createTemplateEngine(messageResolver);
+        if (prebuild) {
+            messageResolver.prebuildFlattenedMessages(
+                    templateEngine.getConfiguration(), Collections.singleton("flattened"), Arrays.asList(locale));
+        }
+
+        final Context context = new Context(locale);
+        context.setVariable("name", "John");
+        return templateEngine.process("flattened", context);
+
+    }
+
+
+    private static TemplateEngine createTemplateEngine(final StandardMessageResolver messageResolver) {
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("messageresolver/");
+        templateResolver.setSuffix(".html");
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setMessageResolver(messageResolver);
+        return templateEngine;
+
+    }
+
+}
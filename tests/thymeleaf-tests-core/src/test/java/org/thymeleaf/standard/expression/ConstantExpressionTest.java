@@ -0,0 +1,127 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public class ConstantExpressionTest {
+
+
+
+    public ConstantExpressionTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testConstantExpressions() throws Exception {
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        final IExpressionContext context = new ExpressionContext(templateEngine.getConfiguration(), Locale.US);
+        final IStandardExpressionParser parser = StandardExpressions.getExpressionParser(templateEngine.getConfiguration());
+
+        checkConstant(parser, context, "'prefix-' + 'x'", "prefix-x", true);
+        checkConstant(parser, context, "|literal|", "literal", true);
+        checkConstant(parser, context, "(2 + 3) * 4 > 10 and !false", "true", true);
+        checkConstant(parser, context, "${false}? 'a'", null, true);
+        checkConstant(parser, context, "${true}? 'a' : 'b'", "a", true);
+        checkConstant(parser, context, "null ?: 'default'", "default", true);
+        checkConstant(parser, context, "-(1 - 3)", "2", true);
+        checkConstant(parser, context, "${one} + 'x'", null, false);
+        checkConstant(parser, context, "${{true}}? 'a' : 'b'", null, false);
+        checkConstant(parser, context, "true? _ : 'b'", null, false);
+
+        final ComplexExpression expression = (ComplexExpression) parser.parseExpression(context, "'a' + 'b' + 'c'");
+        Assertions.assertEquals("('a' + 'b') + 'c'", expression.getStringRepresentation());
+        Assertions.assertSame(
+                ComplexExpression.executeComplex(context, expression, StandardExpressionExecutionContext.NORMAL),
+                ComplexExpression.executeComplex(context, expression, StandardExpressionExecutionContext.NORMAL));
+
+    }
+
+
+    @Test
+    public void testConstantsNotSentToEvaluator() throws Exception {
+
+        final AtomicInteger evaluations = new AtomicInteger(0);
+        final IStandardVariableExpressionEvaluator ognlEvaluator = new OGNLVariableExpressionEvaluator(true);
+
+        final StandardDialect dialect = new StandardDialect();
+        dialect.setVariableExpressionEvaluator(
+                (context, expression, expContext) -> {
+                    evaluations.incrementAndGet();
+                    return ognlEvaluator.evaluate(context, expression, expContext);
+                });
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setDialect(dialect);
+        templateEngine.setTemplateResolver(templateResolver);
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("items", Collections.nCopies(3, "x"));
+
+        final String template =
+                "<p th:each=\"item : ${items}\"><b th:if=\"${false}\">no</b><i th:unless=\"${false}\" " +
+                "th:classappend=\"${false}? 'a'\" th:text=\"${true}? ${item} : 'none'\">yes</i></p>";
+
+        Assertions.assertEquals(
+                "<p><i>x</i></p><p><i>x</i></p><p><i>x</i></p>", templateEngine.process(template, context));
+
+        // Only ${items} and the three ${item} should have needed the evaluator
+        Assertions.assertEquals(4, evaluations.get());
+
+    }
+
+
+
+
+    private static void checkConstant(
+            final IStandardExpressionParser parser, final IExpressionContext context, final String input,
+            final Object expectedValue, final boolean expectedConstant) {
+
+        final IStandardExpression expression = parser.parseExpression(context, input);
+        Assertions.assertEquals(expectedConstant, ComplexExpression.computeConstants(expression), input);
+        if (expectedConstant) {
+            final Object value = expression.execute(context);
+            Assertions.assertEquals(expectedValue, (value == null ? null : value.toString()), input);
+        }
+
+    }
+
+
+}
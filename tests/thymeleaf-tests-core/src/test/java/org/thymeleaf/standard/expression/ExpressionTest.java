@@ -261,6 +261,23 @@ public void testExpression() throws Exception {
         test("pep_ito_", "pep_ito_");
         test("_pep_ito_", "_pep_ito_");
 
+        // Operators on mixed Integer, Long and Double operands
+        test("${twelve} &gt; 0", "true");
+        test("${twelve} &gt;= 10", "true");
+        test("${twelve} &lt; 100", "true");
+        test("${twelve} &lt;= ${seven}", "false");
+        test("${twelve} == 3", "false");
+        test("${twelve} != ${seven}", "true");
+        test("${twelve} + 1", "13");
+        test("${twelve} - ${seven}", "5");
+        test("${twelve} * 2", "24");
+        test("${twelve} / 2", "6");
+        test("${twelve} % 3", "0");
+        test("-${twelve}", "-12");
+        test("${twelve} % 2 == 0", "true");
+        test("${price} &gt; 0", "true");
+        test("${price} &lt;= ${limit}", "true");
+
     }
 
     
@@ -332,6 +349,10 @@ protected void setUp() throws Exception {
         objects.put("logins", logins);
         objects.put("loginsArray", logins.toArray(new String[logins.size()]));
         objects.put("size", "Size is 5");
+        objects.put("twelve", Integer.valueOf(12));
+        objects.put("seven", Long.valueOf(7L));
+        objects.put("price", Double.valueOf(12.5));
+        objects.put("limit", Integer.valueOf(100));
         
         this.contextES.setVariables(objects);
         this.contextEN.setVariables(objects);
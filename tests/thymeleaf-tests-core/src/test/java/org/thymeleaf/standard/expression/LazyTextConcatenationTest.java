@@ -0,0 +1,105 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+import org.thymeleaf.util.AggregateCharSequence;
+
+
+public class LazyTextConcatenationTest {
+
+
+
+    public LazyTextConcatenationTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testConcatenation() throws Exception {
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        final IExpressionContext context = new ExpressionContext(templateEngine.getConfiguration(), Locale.US);
+        final IStandardExpressionParser parser = StandardExpressions.getExpressionParser(templateEngine.getConfiguration());
+
+        final Expression expression = (Expression) parser.parseExpression(context, "|Hello ${true}, | + 3 + 2 + '.'");
+
+        final Object lazyResult = expression.executeWithLazyText(context, StandardExpressionExecutionContext.NORMAL);
+        Assertions.assertTrue(lazyResult instanceof AggregateCharSequence);
+        Assertions.assertEquals("Hello true, 32.", lazyResult.toString());
+
+        Assertions.assertEquals("Hello true, 32.", expression.execute(context));
+        Assertions.assertEquals("5.", parser.parseExpression(context, "3 + 2 + '.'").execute(context));
+        Assertions.assertEquals(Boolean.TRUE, parser.parseExpression(context, "('a' + 'b') == 'ab'").execute(context));
+
+    }
+
+
+    @Test
+    public void testTextOutput() throws Exception {
+
+        final Context context = new Context(Locale.US);
+        context.setVariable("name", "<Jane>");
+
+        Assertions.assertEquals(
+                "<p>Hello &lt;Jane&gt;!</p><p>Hello Jane!</p>",
+                process(TemplateMode.HTML,
+                        "<p th:text=\"|Hello ${name}!|\">x</p><p th:text=\"'Hello ' + 'Jane' + '!'\">x</p>", context));
+        Assertions.assertEquals(
+                "<p>Hello &lt;Jane&gt; &#xe9;!</p><p>Hello Jane!</p>",
+                process(TemplateMode.XML,
+                        "<p th:text=\"|Hello ${name} \u00E9!|\">x</p><p th:text=\"'Hello ' + 'Jane' + '!'\">x</p>", context));
+        Assertions.assertEquals(
+                "Hello &lt;Jane&gt;!",
+                process(TemplateMode.TEXT, "[# th:text=\"|Hello ${name}!|\"/]", context));
+        Assertions.assertEquals(
+                "var a = \"Hello <Jane>!\";",
+                process(TemplateMode.JAVASCRIPT, "var a = [# th:text=\"|Hello ${name}!|\"/];", context));
+
+    }
+
+
+
+
+    private static String process(final TemplateMode templateMode, final String template, final Context context) {
+
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setTemplateMode(templateMode);
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        return templateEngine.process(template, context);
+
+    }
+
+
+}
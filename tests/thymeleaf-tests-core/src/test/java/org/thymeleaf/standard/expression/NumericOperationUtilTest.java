@@ -0,0 +1,131 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.util.EvaluationUtils;
+
+
+public class NumericOperationUtilTest {
+
+    private static final Object[] VALUES =
+            new Object[] {
+                    Byte.valueOf((byte)-3), Short.valueOf((short)7), Integer.valueOf(0), Integer.valueOf(1),
+                    Integer.valueOf(-1), Integer.valueOf(12), Integer.valueOf(Integer.MAX_VALUE),
+                    Integer.valueOf(Integer.MIN_VALUE), Long.valueOf(100L), Long.valueOf(-4L),
+                    Long.valueOf(Long.MAX_VALUE), Long.valueOf(Long.MIN_VALUE), Long.valueOf((1L << 53) + 1L),
+                    Long.valueOf(3037000500L), BigInteger.valueOf(3L), BigInteger.ONE.shiftLeft(64),
+                    Float.valueOf(0.5f), Double.valueOf(0.1), Double.valueOf(-0.0), Double.valueOf(12.0),
+                    Double.valueOf(1.0e300), Double.valueOf(9007199254740993.0), new BigDecimal("2.50"),
+                    "12", " -3 ", "abc", Boolean.TRUE
+            };
+
+
+
+    public NumericOperationUtilTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testArithmetic() throws Exception {
+
+        for (final Object left : VALUES) {
+            for (final Object right : VALUES) {
+                check("add", left, right, NumericOperationUtil::add, BigDecimal::add);
+                check("subtract", left, right, NumericOperationUtil::subtract, BigDecimal::subtract);
+                check("multiply", left, right, NumericOperationUtil::multiply, BigDecimal::multiply);
+                check("divide", left, right, NumericOperationUtil::divide, NumericOperationUtilTest::divide);
+                check("remainder", left, right, NumericOperationUtil::remainder, BigDecimal::remainder);
+                check("compare", left, right, NumericOperationUtil::compare, (l,r) -> Integer.valueOf(l.compareTo(r)));
+            }
+            check("negate", left, null, (l,r) -> NumericOperationUtil.negate(l), (l,r) -> l.negate());
+        }
+
+    }
+
+
+    @Test
+    public void testResultScale() throws Exception {
+
+        Assertions.assertEquals(new BigDecimal("5"), NumericOperationUtil.add(Integer.valueOf(2), BigInteger.valueOf(3)));
+        Assertions.assertEquals(new BigDecimal("2.5"), NumericOperationUtil.divide(Integer.valueOf(5), Integer.valueOf(2)));
+        Assertions.assertEquals(new BigDecimal("33.3333333333"), NumericOperationUtil.divide(Integer.valueOf(100), Integer.valueOf(3)));
+        Assertions.assertEquals(new BigDecimal("-4"), NumericOperationUtil.negate(Long.valueOf(4L)));
+        Assertions.assertEquals(new BigDecimal("18446744073709551614"),
+                NumericOperationUtil.multiply(Long.valueOf(Long.MAX_VALUE), Integer.valueOf(2)));
+        Assertions.assertEquals(Integer.valueOf(0), NumericOperationUtil.compare(Double.valueOf(-0.0), Integer.valueOf(0)));
+        Assertions.assertNull(NumericOperationUtil.compare(Integer.valueOf(1), "abc"));
+
+    }
+
+
+
+
+    private static BigDecimal divide(final BigDecimal left, final BigDecimal right) {
+        try {
+            return left.divide(right);
+        } catch (final ArithmeticException ignored) {
+            if (right.signum() == 0) {
+                throw ignored;
+            }
+            return left.divide(right, Math.max(Math.max(left.scale(), right.scale()), 10), RoundingMode.HALF_UP);
+        }
+    }
+
+
+    private static void check(
+            final String operation, final Object left, final Object right,
+            final BiFunction<Object,Object,Object> fast, final BiFunction<BigDecimal,BigDecimal,Object> reference) {
+
+        Object expected;
+        try {
+            final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(left);
+            final BigDecimal rightNumberValue =
+                    (right == null ? BigDecimal.ZERO : EvaluationUtils.evaluateAsNumber(right));
+            expected =
+                    (leftNumberValue == null || rightNumberValue == null ?
+                            null : reference.apply(leftNumberValue, rightNumberValue));
+        } catch (final ArithmeticException e) {
+            expected = e.getClass();
+        }
+
+        Object result;
+        try {
+            result = fast.apply(left, right);
+        } catch (final ArithmeticException e) {
+            result = e.getClass();
+        }
+
+        // Note BigDecimal#equals also checks the scale of the results
+        Assertions.assertEquals(expected, result, operation + " (" + left + ", " + right + ")");
+
+    }
+
+
+}
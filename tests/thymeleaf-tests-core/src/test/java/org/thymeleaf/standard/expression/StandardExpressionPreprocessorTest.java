@@ -0,0 +1,100 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+
+
+public class StandardExpressionPreprocessorTest {
+
+    // The pattern formerly used for finding preprocessing fragments, used here as a reference
+    private static final Pattern PREPROCESS_EVAL_PATTERN = Pattern.compile("\\_\\_(.*?)\\_\\_", Pattern.DOTALL);
+
+
+
+    public StandardExpressionPreprocessorTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testPreprocess() throws Exception {
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        final IExpressionContext context = new ExpressionContext(templateEngine.getConfiguration(), Locale.US);
+
+        final String[] inputs =
+                new String[] {
+                        "${one}", "${one_two}", "${a}__", "__${a}", "__'x'__", " __'x'__ ", "${a[__2 + 1__]}",
+                        "${a[__2 + 1__].b[__'c' + 'd'__]}", "__'x'___",
+                        "a \\_\\_'x'\\_\\_ b", "__'\\_\\_'__", "__'x'__\\_\\_", "__'x'__ + __'y'", "__\n'x'\n__",
+                        "_'x'_", "${'__'}"
+                };
+
+        for (final String input : inputs) {
+            // Executed twice, so that the second time the cached preprocessing plan is used
+            Assertions.assertEquals(reference(context, input), StandardExpressionPreprocessor.preprocess(context, input), input);
+            Assertions.assertEquals(reference(context, input), StandardExpressionPreprocessor.preprocess(context, input), input);
+        }
+
+    }
+
+
+
+
+    private static String reference(final IExpressionContext context, final String input) {
+
+        final Matcher matcher = PREPROCESS_EVAL_PATTERN.matcher(input);
+        if (!matcher.find()) {
+            return unescape(input);
+        }
+
+        final StringBuilder strBuilder = new StringBuilder();
+        int curr = 0;
+        do {
+            strBuilder.append(unescape(input.substring(curr, matcher.start(0))));
+            final IStandardExpression expression =
+                    StandardExpressionParser.parseExpression(context, unescape(matcher.group(1)), false);
+            strBuilder.append(expression.execute(context, StandardExpressionExecutionContext.RESTRICTED));
+            curr = matcher.end(0);
+        } while (matcher.find());
+        strBuilder.append(unescape(input.substring(curr)));
+
+        return strBuilder.toString().trim();
+
+    }
+
+
+    private static String unescape(final String input) {
+        return input.replace("\\_\\_", "__");
+    }
+
+
+}
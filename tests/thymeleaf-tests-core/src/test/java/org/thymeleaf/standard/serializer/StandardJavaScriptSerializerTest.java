@@ -20,7 +20,15 @@
 package org.thymeleaf.standard.serializer;
 
 import java.io.StringWriter;
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -58,6 +66,61 @@ public boolean isOdd() {
         public abstract boolean isOdd();
     }
 
+    public static class PublicView {
+        // Only used as a Jackson view
+    }
+
+
+    public static class ViewBean {
+
+        @JsonView(PublicView.class)
+        public String getName() {
+            return "</script>";
+        }
+
+        public String getSecret() {
+            return "secret";
+        }
+
+    }
+
+
+    public static class ItemBean {
+
+        private final int id;
+
+        public ItemBean(final int id) {
+            super();
+            this.id = id;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return "Item \u00ED\u00F1 /" + this.id + "/";
+        }
+
+        public boolean isActive() {
+            return (this.id % 2 == 0);
+        }
+
+        public double getScore() {
+            return this.id + 0.5;
+        }
+
+        public List<String> getTags() {
+            return Arrays.asList("a", "b");
+        }
+
+        public int[] getValues() {
+            return new int[] { this.id, this.id + 1, this.id + 2 };
+        }
+
+    }
+
+
     public StandardJavaScriptSerializerTest() {
         super();
     }
@@ -163,5 +226,73 @@ public void testPrintAnonymousEnumJacksonJS02() {
 
 
 
+    @Test
+    public void testPrintBeanListDefaultJS() {
+
+        final IStandardJavaScriptSerializer serializer = new StandardJavaScriptSerializer(false);
+
+        final List<ItemBean> items = Arrays.asList(new ItemBean(1), new ItemBean(2));
+
+        // Executed twice so that the second serialization uses the bean metadata cached by the first one
+        for (int i = 0; i < 2; i++) {
+            final StringWriter stringWriter = new StringWriter();
+            serializer.serializeValue(items, stringWriter);
+            Assertions.assertEquals(
+                    "[{\"active\":false,\"id\":1,\"name\":\"Item \\u00ED\\u00F1 /1/\",\"score\":1.5," +
+                    "\"tags\":[\"a\",\"b\"],\"values\":[1,2,3]}," +
+                    "{\"active\":true,\"id\":2,\"name\":\"Item \\u00ED\\u00F1 /2/\",\"score\":2.5," +
+                    "\"tags\":[\"a\",\"b\"],\"values\":[2,3,4]}]",
+                    stringWriter.toString());
+        }
+
+    }
+
+
+
+    @Test
+    public void testJacksonCustomizer() {
+
+        final AtomicInteger mapperCustomizations = new AtomicInteger();
+        final List<Class<?>> writerTypes = new ArrayList<Class<?>>();
+
+        final IStandardJavaScriptSerializer serializer =
+                new StandardJavaScriptSerializer(true, new IJacksonJavaScriptSerializerCustomizer() {
+
+                    @Override
+                    public void customizeObjectMapper(final ObjectMapper mapper) {
+                        mapperCustomizations.incrementAndGet();
+                        mapper.disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+                    }
+
+                    @Override
+                    public ObjectWriter computeObjectWriter(final ObjectMapper mapper, final Class<?> type) {
+                        synchronized (writerTypes) {
+                            writerTypes.add(type);
+                        }
+                        return mapper.writerWithView(PublicView.class).forType(type);
+                    }
+
+                });
+
+        for (int i = 0; i < 3; i++) {
+            final StringWriter stringWriter = new StringWriter();
+            serializer.serializeValue(new ViewBean(), stringWriter);
+            // Thymeleaf's escaping configuration must still apply to the customized writer
+            Assertions.assertEquals("{\"name\":\"<\\/script>\"}", stringWriter.toString());
+        }
+
+        final StringWriter stringWriter = new StringWriter();
+        serializer.serializeValue(VALUE0, stringWriter);
+        Assertions.assertEquals("\"<\\/script>\\u0026#22;\"", stringWriter.toString());
+
+        Assertions.assertEquals(1, mapperCustomizations.get());
+        Assertions.assertEquals(2, writerTypes.size());
+        Assertions.assertEquals(ViewBean.class, writerTypes.get(0));
+        Assertions.assertEquals(String.class, writerTypes.get(1));
+
+    }
+
+
+
 
-}
\ No newline at end of file
+}
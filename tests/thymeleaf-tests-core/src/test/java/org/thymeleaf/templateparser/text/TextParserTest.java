@@ -409,6 +409,20 @@ public void test() throws Exception {
                         "){4,9}(lla){5,1}OEE(div){5,4}CES(div){5,5}CEE(div){5,10}]",
                 Boolean.FALSE);
 
+        // Structure starts, literal markers and new lines found after runs of skipped (incl. non-ASCII) chars
+        testDoc(
+                "var a = \"[x] /* no */ \\\" q\";\n/* [c] */\n// [l]\nvar v = [[${n}]];",
+                "[T(var a = \"[x] /* no */ \\\" q\";\n){1,1}T(/* [c] */){2,1}T(\n){2,10}T(// [l]\n){3,1}T(var v = [[${n}]];){4,1}]",
+                "[T(var a = \"[x] /* no */ \\\" q\";\n/* [c] */\n// [l]\nvar v = [[${n}]];){1,1}]");
+        testDoc(
+                "x = '\u00ED[\u00F1]' + `[t]\n` + /*[(${n})]*/ 0;\n\u00E1\u00E9[[${m}]]\u00F3",
+                "[T(x = '\u00ED[\u00F1]' + `[t]\n` + ){1,1}T([(${n})]){2,7}T(;\n\u00E1\u00E9[[${m}]]\u00F3){2,19}]",
+                "[T(x = '\u00ED[\u00F1]' + `[t]\n` + /*[(${n})]*/ 0;\n\u00E1\u00E9[[${m}]]\u00F3){1,1}]");
+        testDoc(
+                "\u00E1\u00E9 [[${n}]] [no] \n[(${n})]\u00F3/*[# th:if=\"${a}\"]*/ \u00FA /*[/]*/",
+                "[T(\u00E1\u00E9 [[${n}]] [no] \n[(${n})]\u00F3){1,1}OES(){2,12}A(th:if){2,15}(=){2,20}(\"${a}\"){2,21}OEE(){2,27}T( \u00FA ){2,30}CES(){2,35}CEE(){2,37}]",
+                "[T(\u00E1\u00E9 [[${n}]] [no] \n[(${n})]\u00F3/*){1,1}OES(){2,12}A(th:if){2,15}(=){2,20}(\"${a}\"){2,21}OEE(){2,27}T(*/ \u00FA /*){2,28}CES(){2,35}CEE(){2,37}T(*/){2,38}]");
+
 
         System.out.println("TOTAL Test executions: " + totalTestExecutions);
         
@@ -19,7 +19,15 @@
  */
 package org.thymeleaf.util;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -53,4 +61,43 @@ public void testCreateToday() {
         Assertions.assertEquals(today.get(Calendar.SECOND), 0);
         Assertions.assertEquals(today.get(Calendar.MILLISECOND), 0);
     }
+
+    @Test
+    public void testConcurrentFormat() throws Exception {
+        final int threads = 16; // Well above the size of the format pools, so that they overflow
+        final int formatsPerThread = 500;
+
+        final Calendar[] calendars = new Calendar[100];
+        final String[] expected = new String[calendars.length];
+        for (int i = 0; i < calendars.length; i++) {
+            calendars[i] = Calendar.getInstance(TimeZone.getTimeZone("GMT"), Locale.US);
+            calendars[i].clear();
+            calendars[i].set(2000 + (i % 20), i % 12, 1 + (i % 28), i % 24, i % 60, i % 60);
+            expected[i] = String.format(Locale.US, "%04d-%02d-%02d %02d:%02d:%02d",
+                    2000 + (i % 20), 1 + (i % 12), 1 + (i % 28), i % 24, i % 60, i % 60);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(threads);
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    boolean ok = true;
+                    for (int i = 0; i < formatsPerThread; i++) {
+                        final int idx = i % calendars.length;
+                        ok &= expected[idx].equals(DateUtils.format(calendars[idx], "yyyy-MM-dd HH:mm:ss", Locale.US));
+                    }
+                    return Boolean.valueOf(ok);
+                }));
+            }
+            // Formats shared by several threads at the same time would mix their outputs
+            for (final Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get(60, TimeUnit.SECONDS).booleanValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.context.TestTemplateEngineConfigurationBuilder;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.unbescape.html.HtmlEscape;
+import org.unbescape.xml.XmlEscape;
+
+
+public class EscapedTextUtilsTest {
+
+
+    private static final String[] TEXTS = new String[] {
+            "", "Hello", "Hello World 123 !#$%()*+,-./:;=?@[\\]^_`{|}~",
+            "caf\u00E9 \u00F1 \u4E2D\uD83D\uDE00", "a < b", "a > b", "a & b", "\"quoted\"", "'quoted'",
+            "tab\tand\nnew line\r", "control \u0001 char", "del \u007F char", "<p class=\"x\">caf\u00E9 & co</p>"
+    };
+
+
+    public EscapedTextUtilsTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testEscapeText() throws Exception {
+
+        final IEngineConfiguration configuration = TestTemplateEngineConfigurationBuilder.build();
+
+        for (final String text : TEXTS) {
+
+            checkEscapeText(configuration, TemplateMode.HTML, text, HtmlEscape.escapeHtml4Xml(text));
+            checkEscapeText(configuration, TemplateMode.TEXT, text, HtmlEscape.escapeHtml4Xml(text));
+            checkEscapeText(configuration, TemplateMode.XML, text, XmlEscape.escapeXml10(text));
+
+            final CharSequence raw = EscapedTextUtils.escapeText(configuration, TemplateMode.RAW, text);
+            Assertions.assertSame(text, raw);
+
+        }
+
+    }
+
+
+    @Test
+    public void testEscapeAggregate() throws Exception {
+
+        final IEngineConfiguration configuration = TestTemplateEngineConfigurationBuilder.build();
+
+        for (final String text : TEXTS) {
+
+            // Split at every position, including the middle of surrogate pairs
+            for (int i = 0; i <= text.length(); i++) {
+                final AggregateCharSequence aggregate =
+                        new AggregateCharSequence(text.substring(0, i), text.substring(i), "");
+                checkEscapeAggregate(configuration, TemplateMode.HTML, aggregate, HtmlEscape.escapeHtml4Xml(text));
+                checkEscapeAggregate(configuration, TemplateMode.TEXT, aggregate, HtmlEscape.escapeHtml4Xml(text));
+                checkEscapeAggregate(configuration, TemplateMode.XML, aggregate, XmlEscape.escapeXml10(text));
+            }
+
+            for (final String other : TEXTS) {
+                final AggregateCharSequence aggregate = new AggregateCharSequence(text, other);
+                checkEscapeAggregate(configuration, TemplateMode.HTML, aggregate, HtmlEscape.escapeHtml4Xml(text + other));
+                checkEscapeAggregate(configuration, TemplateMode.XML, aggregate, XmlEscape.escapeXml10(text + other));
+            }
+
+        }
+
+    }
+
+
+    @Test
+    public void testEscapeAttribute() throws Exception {
+
+        for (final String text : TEXTS) {
+            Assertions.assertEquals(HtmlEscape.escapeHtml4Xml(text), EscapedAttributeUtils.escapeAttribute(TemplateMode.HTML, text));
+            Assertions.assertEquals(XmlEscape.escapeXml10Attribute(text), EscapedAttributeUtils.escapeAttribute(TemplateMode.XML, text));
+        }
+
+    }
+
+
+    private static void checkEscapeText(
+            final IEngineConfiguration configuration, final TemplateMode templateMode,
+            final String text, final String expected) throws Exception {
+
+        final CharSequence escaped = EscapedTextUtils.escapeText(configuration, templateMode, text);
+
+        if (expected.equals(text)) {
+            // Fast path: no escaping needed, so the original text should have been returned untouched
+            Assertions.assertSame(text, escaped);
+            Assertions.assertFalse(EscapedTextUtils.requiresEscaping(templateMode, text));
+            return;
+        }
+
+        Assertions.assertTrue(EscapedTextUtils.requiresEscaping(templateMode, text));
+        Assertions.assertTrue(escaped instanceof LazyEscapingCharSequence);
+
+        final StringWriter writer = new StringWriter();
+        ((LazyEscapingCharSequence) escaped).write(writer);
+        Assertions.assertEquals(expected, writer.toString());
+        Assertions.assertEquals(expected, escaped.toString());
+
+    }
+
+
+    private static void checkEscapeAggregate(
+            final IEngineConfiguration configuration, final TemplateMode templateMode,
+            final AggregateCharSequence aggregate, final String expected) throws Exception {
+
+        final CharSequence escaped = EscapedTextUtils.escapeText(configuration, templateMode, aggregate);
+
+        if (expected.equals(aggregate.toString())) {
+            Assertions.assertSame(aggregate, escaped);
+            Assertions.assertFalse(EscapedTextUtils.requiresEscaping(templateMode, aggregate));
+            return;
+        }
+
+        Assertions.assertTrue(EscapedTextUtils.requiresEscaping(templateMode, aggregate));
+        Assertions.assertTrue(escaped instanceof IWritableCharSequence);
+
+        final StringWriter writer = new StringWriter();
+        ((IWritableCharSequence) escaped).write(writer);
+        Assertions.assertEquals(expected, writer.toString());
+        Assertions.assertEquals(expected, escaped.toString());
+
+    }
+
+
+}
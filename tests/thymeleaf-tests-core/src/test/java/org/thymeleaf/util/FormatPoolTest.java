@@ -0,0 +1,114 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util;
+
+import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public final class FormatPoolTest {
+
+    private static final int TASKS = 2000;
+    private static final int THREADS = 32; // Well above the pool size, so that the pool overflows
+    private static final String PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+
+
+
+    @Test
+    public void testFormat() {
+
+        final FormatPool<SimpleDateFormat> pool = new FormatPool<SimpleDateFormat>(createFormat());
+        final Date date = new Date(1671881400000L);
+
+        Assertions.assertEquals("2022-12-24 11:30:00.000", pool.format(date));
+        // Second call is served from the pooled instance
+        Assertions.assertEquals("2022-12-24 11:30:00.000", pool.format(date));
+
+    }
+
+
+    @Test
+    public void testMessageFormat() {
+
+        final FormatPool<MessageFormat> pool =
+                new FormatPool<MessageFormat>(new MessageFormat("{0,number,#.##} of {1}", Locale.US));
+
+        Assertions.assertEquals("1.5 of items", pool.format(new Object[] { Double.valueOf(1.5), "items" }));
+        Assertions.assertEquals("1234.57 of items", pool.format(new Object[] { Double.valueOf(1234.567), "items" }));
+
+    }
+
+
+    @Test
+    public void testConcurrentFormat() throws Exception {
+
+        final FormatPool<SimpleDateFormat> pool = new FormatPool<SimpleDateFormat>(createFormat());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+
+            final List<Future<String>> results = new ArrayList<Future<String>>(TASKS);
+            for (int i = 0; i < TASKS; i++) {
+                final Date date = createDate(i);
+                results.add(executor.submit(() -> pool.format(date)));
+            }
+
+            // A SimpleDateFormat shared by several threads at the same time would mix their outputs
+            final SimpleDateFormat expectedFormat = createFormat();
+            for (int i = 0; i < TASKS; i++) {
+                Assertions.assertEquals(
+                        expectedFormat.format(createDate(i)), results.get(i).get(60, TimeUnit.SECONDS));
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+    }
+
+
+
+    private static SimpleDateFormat createFormat() {
+        final SimpleDateFormat format = new SimpleDateFormat(PATTERN, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+
+    private static Date createDate(final int index) {
+        // Different year, day, hour, second and millisecond for every index
+        return new Date(1000000000000L + (index * 31622400001L) / 7L);
+    }
+
+}
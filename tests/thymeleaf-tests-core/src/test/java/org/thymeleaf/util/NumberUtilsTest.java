@@ -1,7 +1,11 @@
 package org.thymeleaf.util;
 
+import java.lang.reflect.Field;
+import java.util.Locale;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.thymeleaf.cache.StandardCache;
 
 public class NumberUtilsTest {
 
@@ -36,4 +40,67 @@ public void testSequence() {
     }
 
 
+
+    @Test
+    public void testFormatsNotSharedAcrossKeys() {
+
+        final Double target = Double.valueOf(1234.5);
+
+        // Interleaved, so that each call finds the format cached by the previous one if keys were wrong
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("1,234.50",
+                    NumberUtils.format(target, 1, NumberPointType.DEFAULT, 2, NumberPointType.DEFAULT, Locale.US));
+            Assertions.assertEquals("1.234,50",
+                    NumberUtils.format(target, 1, NumberPointType.DEFAULT, 2, NumberPointType.DEFAULT, Locale.GERMANY));
+            Assertions.assertEquals("1234.50",
+                    NumberUtils.format(target, 1, NumberPointType.NONE, 2, NumberPointType.DEFAULT, Locale.US));
+            Assertions.assertEquals("1 234,5",
+                    NumberUtils.format(target, 1, NumberPointType.WHITESPACE, 1, NumberPointType.COMMA, Locale.US));
+            Assertions.assertEquals("001,234.500",
+                    NumberUtils.format(target, 6, NumberPointType.DEFAULT, 3, NumberPointType.DEFAULT, Locale.US));
+            Assertions.assertEquals("$0.50", NumberUtils.formatCurrency(Double.valueOf(0.5), Locale.US));
+            Assertions.assertEquals("50%", NumberUtils.formatPercent(Double.valueOf(0.5), 1, 0, Locale.US));
+            Assertions.assertEquals("50.0%", NumberUtils.formatPercent(Double.valueOf(0.5), 1, 1, Locale.US));
+        }
+
+    }
+
+
+    @Test
+    public void testFormatsCacheIsBounded() throws Exception {
+
+        final Integer target = Integer.valueOf(7);
+
+        // 30 x 25 = 750 distinct keys, more than the cache can hold. Done twice so that
+        // formats evicted during the first pass are created again during the second one.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int minIntegerDigits = 1; minIntegerDigits <= 30; minIntegerDigits++) {
+                for (int fractionDigits = 0; fractionDigits < 25; fractionDigits++) {
+                    final StringBuilder expected = new StringBuilder();
+                    for (int i = 1; i < minIntegerDigits; i++) {
+                        expected.append('0');
+                    }
+                    expected.append('7');
+                    if (fractionDigits > 0) {
+                        expected.append('.');
+                        for (int i = 0; i < fractionDigits; i++) {
+                            expected.append('0');
+                        }
+                    }
+                    Assertions.assertEquals(expected.toString(),
+                            NumberUtils.format(
+                                    target, minIntegerDigits, NumberPointType.NONE,
+                                    fractionDigits, NumberPointType.POINT, Locale.US));
+                }
+            }
+        }
+
+        final Field cacheField = NumberUtils.class.getDeclaredField("numberFormats");
+        cacheField.setAccessible(true);
+        final StandardCache<?,?> cache = (StandardCache<?,?>) cacheField.get(null);
+        Assertions.assertTrue(cache.size() <= 500, "Cache size should be bounded, but is " + cache.size());
+
+    }
+
+
 }
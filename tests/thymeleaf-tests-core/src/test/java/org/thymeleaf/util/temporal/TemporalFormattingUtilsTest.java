@@ -0,0 +1,127 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util.temporal;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.cache.StandardCache;
+
+
+public final class TemporalFormattingUtilsTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+    private static final Locale SPANISH = new Locale("es", "ES");
+
+
+
+    @Test
+    public void testFormattersNotSharedAcrossLocales() {
+
+        final TemporalFormattingUtils english = new TemporalFormattingUtils(Locale.ENGLISH, UTC);
+        final TemporalFormattingUtils spanish = new TemporalFormattingUtils(SPANISH, UTC);
+        final LocalDate date = LocalDate.of(2022, 3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("March", english.format(date, "MMMM", null));
+            Assertions.assertEquals("marzo", spanish.format(date, "MMMM", null));
+            Assertions.assertEquals("marzo", english.format(date, "MMMM", SPANISH, null));
+            Assertions.assertEquals(
+                    DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG).withLocale(Locale.ENGLISH).format(date),
+                    english.format(date));
+            Assertions.assertEquals(
+                    DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG).withLocale(SPANISH).format(date),
+                    spanish.format(date));
+        }
+
+    }
+
+
+    @Test
+    public void testFormattersNotSharedAcrossZones() {
+
+        final TemporalFormattingUtils utils = new TemporalFormattingUtils(Locale.ENGLISH, UTC);
+        final Instant instant = Instant.parse("2022-03-01T10:15:30Z");
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("10:15", utils.format(instant, "HH:mm", UTC));
+            Assertions.assertEquals("19:15", utils.format(instant, "HH:mm", TOKYO));
+            Assertions.assertEquals("10:15", utils.format(instant, "HH:mm", null));
+        }
+
+    }
+
+
+    @Test
+    public void testFormattersNotSharedAcrossTargetClasses() {
+
+        final TemporalFormattingUtils utils = new TemporalFormattingUtils(Locale.ENGLISH, UTC);
+        final LocalDate date = LocalDate.of(2022, 3, 1);
+        final LocalTime time = LocalTime.of(10, 15, 30);
+        final LocalDateTime dateTime = LocalDateTime.of(date, time);
+
+        // Style patterns produce a different kind of formatter depending on the class of the target
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(
+                    DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(Locale.ENGLISH).format(date),
+                    utils.format(date, "SHORT", null));
+            Assertions.assertEquals(
+                    DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT).withLocale(Locale.ENGLISH).format(time),
+                    utils.format(time, "SHORT", null));
+            Assertions.assertEquals(
+                    DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT).withLocale(Locale.ENGLISH).format(dateTime),
+                    utils.format(dateTime, "SHORT", null));
+        }
+
+    }
+
+
+    @Test
+    public void testFormattersCacheIsBounded() throws Exception {
+
+        final TemporalFormattingUtils utils = new TemporalFormattingUtils(Locale.ENGLISH, UTC);
+        final LocalDate date = LocalDate.of(2022, 3, 1);
+
+        // More distinct patterns than the cache can hold. Done twice so that formatters
+        // evicted during the first pass are created again during the second one.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 750; i++) {
+                Assertions.assertEquals("p" + i + " 2022", utils.format(date, "'p" + i + "' yyyy", null));
+            }
+        }
+
+        final Field cacheField = TemporalFormattingUtils.class.getDeclaredField("formatters");
+        cacheField.setAccessible(true);
+        final StandardCache<?,?> cache = (StandardCache<?,?>) cacheField.get(null);
+        Assertions.assertTrue(cache.size() <= 500, "Cache size should be bounded, but is " + cache.size());
+
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring.reactive.data.Album;
+import org.thymeleaf.spring5.SpringWebFluxTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+/*
+ * FULL mode output is encoded into a sequence of buffers, so multi-byte chars (and surrogate pairs) will
+ * often be split between two of them. Chunked modes cannot be tested with this output because the testing
+ * infrastructure decodes each returned chunk separately.
+ */
+public final class SpringReactive14Test {
+
+    private static SpringWebFluxTemplateEngine templateEngine;
+
+
+    @BeforeAll
+    public static void initTemplateEngine() {
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(ReactiveTestUtils.TEMPLATE_PATH_BASE);
+        templateResolver.setSuffix(".html");
+
+        templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+    }
+
+
+
+
+    @Test
+    public void testFullModeMultiByte() throws Exception {
+
+        final String[] names =
+                new String[] {
+                        "\u00c1lbum n\u00famero", "\u4e2d\u6587\u5c08\u8f2f", "\ud83c\udfb5\ud83c\udfb6 Music",
+                        "Caf\u00e9 \ud83d\ude00 \u00e0 la carte", "Plain ASCII name" };
+
+        for (final int albumCount : new int[] { 0, 1, 10, 500, 3000 }) {
+
+            final List<Album> albums = new ArrayList<Album>();
+            for (int i = 0; i < albumCount; i++) {
+                albums.add(new Album(i, names[i % names.length] + " " + i));
+            }
+
+            final Context ctx = new Context();
+            ctx.setVariable("albums", albums);
+
+            for (final String charsetName : new String[] { "UTF-8", "UTF-16", "ISO-8859-1", "Shift_JIS" }) {
+
+                final Charset charset = Charset.forName(charsetName);
+
+                final String expected = templateEngine.process("reactive01", ctx);
+
+                final List<DataBuffer> resultBuffers =
+                        Flux.from(
+                                templateEngine.processStream(
+                                        "reactive01", null, ctx, new DefaultDataBufferFactory(), MediaType.TEXT_HTML, charset))
+                                .collectList().block();
+
+                Assertions.assertEquals(1, resultBuffers.size());
+                // Unmappable chars are replaced, same as an OutputStreamWriter would do
+                Assertions.assertEquals(
+                        new String(expected.getBytes(charset), charset),
+                        ReactiveTestUtils.bufferAsString(resultBuffers.get(0), charset));
+
+            }
+
+        }
+
+    }
+
+
+
+    @Test
+    public void testFullModeBufferAllocation() throws Exception {
+
+        for (final int albumCount : new int[] { 0, 3000 }) {
+
+            final List<Album> albums = new ArrayList<Album>();
+            for (int i = 0; i < albumCount; i++) {
+                albums.add(new Album(i, "Album " + i));
+            }
+
+            final Context ctx = new Context();
+            ctx.setVariable("albums", albums);
+
+            final String expected = templateEngine.process("reactive01", ctx);
+            final int expectedBytes = expected.getBytes(StandardCharsets.UTF_8).length;
+
+            final AllocationRecordingDataBufferFactory bufferFactory = new AllocationRecordingDataBufferFactory();
+            final List<DataBuffer> resultBuffers =
+                    Flux.from(
+                            templateEngine.processStream(
+                                    "reactive01", null, ctx, bufferFactory, MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                            .collectList().block();
+
+            Assertions.assertEquals(1, resultBuffers.size());
+            Assertions.assertEquals(expected, ReactiveTestUtils.bufferAsString(resultBuffers.get(0), StandardCharsets.UTF_8));
+
+            // The first buffer is allocated with the default size of the factory, the rest (if any) are 8 KB
+            // buffers, and all of them are completely filled before allocating the next one.
+            final int firstBufferSize = DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY;
+            Assertions.assertEquals(Integer.valueOf(-1), bufferFactory.allocations.get(0));
+            for (int i = 1; i < bufferFactory.allocations.size(); i++) {
+                Assertions.assertEquals(Integer.valueOf(8192), bufferFactory.allocations.get(i));
+            }
+            Assertions.assertEquals(
+                    1 + (Math.max(0, expectedBytes - firstBufferSize) + 8191) / 8192, bufferFactory.allocations.size());
+
+        }
+
+    }
+
+
+
+
+    private static final class AllocationRecordingDataBufferFactory implements DataBufferFactory {
+
+        // Requested size of each allocated buffer (-1 for the default size)
+        private final List<Integer> allocations = new ArrayList<Integer>();
+        private final DefaultDataBufferFactory delegate = new DefaultDataBufferFactory();
+
+        @Override
+        public DataBuffer allocateBuffer() {
+            this.allocations.add(Integer.valueOf(-1));
+            return this.delegate.allocateBuffer();
+        }
+
+        @Override
+        public DataBuffer allocateBuffer(final int initialCapacity) {
+            this.allocations.add(Integer.valueOf(initialCapacity));
+            return this.delegate.allocateBuffer(initialCapacity);
+        }
+
+        @Override
+        public DataBuffer wrap(final ByteBuffer byteBuffer) {
+            return this.delegate.wrap(byteBuffer);
+        }
+
+        @Override
+        public DataBuffer wrap(final byte[] bytes) {
+            return this.delegate.wrap(bytes);
+        }
+
+        @Override
+        public DataBuffer join(final List<? extends DataBuffer> dataBuffers) {
+            return this.delegate.join(dataBuffers);
+        }
+
+    }
+
+
+}
@@ -0,0 +1,153 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring.reactive.data.AlbumRepository;
+import org.thymeleaf.spring5.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring5.context.webflux.ReactiveDataDriverContextVariable;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+public final class SpringReactive16Test {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private static SpringWebFluxTemplateEngine templateEngine;
+
+
+    @BeforeAll
+    public static void initTemplateEngine() {
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(ReactiveTestUtils.TEMPLATE_PATH_BASE);
+        templateResolver.setSuffix(".html");
+
+        templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+    }
+
+
+
+
+    @Test
+    public void testAdaptiveBufferSize() throws Exception {
+
+        final String expected = ReactiveTestUtils.readExpectedNormalizedResults("reactive02-02", CHARSET);
+
+        // With no limit in chunk size, each buffer of data-driver elements will produce one output buffer
+        final List<DataBuffer> fixedResultBuffers =
+                process(new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), 1),
+                        Integer.MAX_VALUE);
+        final List<DataBuffer> adaptiveResultBuffers =
+                process(new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), 1, 1, 1000),
+                        Integer.MAX_VALUE);
+
+        Assertions.assertTrue(
+                adaptiveResultBuffers.size() < fixedResultBuffers.size() / 2,
+                adaptiveResultBuffers.size() + " buffers returned with adaptive buffer size, " +
+                fixedResultBuffers.size() + " with fixed buffer size");
+
+        Assertions.assertEquals(expected, asNormalizedString(fixedResultBuffers));
+        Assertions.assertEquals(expected, asNormalizedString(adaptiveResultBuffers));
+
+    }
+
+
+    @Test
+    public void testAdaptiveBufferSizeChunked() throws Exception {
+
+        final String expected = ReactiveTestUtils.readExpectedNormalizedResults("reactive02-02", CHARSET);
+
+        for (final int responseMaxChunkSizeBytes : new int[] { 16, 100, 1024, 65536 }) {
+
+            final List<DataBuffer> resultBuffers =
+                    process(new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), 10, 2, 100),
+                            responseMaxChunkSizeBytes);
+
+            for (final DataBuffer buffer : resultBuffers) {
+                Assertions.assertTrue(buffer.readableByteCount() <= responseMaxChunkSizeBytes);
+            }
+            Assertions.assertEquals(expected, asNormalizedString(resultBuffers));
+
+        }
+
+    }
+
+
+    @Test
+    public void testAdaptiveBufferSizeBounds() throws Exception {
+
+        final Flux<Object> dataStream = Flux.empty();
+
+        final ReactiveDataDriverContextVariable dataDriver = new ReactiveDataDriverContextVariable(dataStream, 10, 5, 50);
+        Assertions.assertEquals(10, dataDriver.getBufferSizeElements());
+        Assertions.assertEquals(5, dataDriver.getMinBufferSizeElements());
+        Assertions.assertEquals(50, dataDriver.getMaxBufferSizeElements());
+
+        final ReactiveDataDriverContextVariable fixedDataDriver = new ReactiveDataDriverContextVariable(dataStream, 10);
+        Assertions.assertEquals(10, fixedDataDriver.getMinBufferSizeElements());
+        Assertions.assertEquals(10, fixedDataDriver.getMaxBufferSizeElements());
+
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> new ReactiveDataDriverContextVariable(dataStream, 10, 0, 50));
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> new ReactiveDataDriverContextVariable(dataStream, 10, 20, 50));
+        Assertions.assertThrows(
+                IllegalArgumentException.class, () -> new ReactiveDataDriverContextVariable(dataStream, 10, 5, 8));
+
+    }
+
+
+
+
+    private static List<DataBuffer> process(
+            final ReactiveDataDriverContextVariable dataDriver, final int responseMaxChunkSizeBytes) {
+        final Context ctx = new Context();
+        ctx.setVariable("albums", dataDriver);
+        return Flux.from(
+                    templateEngine.processStream(
+                            "reactive02", null, ctx, new DefaultDataBufferFactory(),
+                            MediaType.TEXT_HTML, CHARSET, responseMaxChunkSizeBytes))
+                .collectList().block();
+    }
+
+
+    private static String asNormalizedString(final List<DataBuffer> buffers) {
+        return buffers.stream()
+                .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                .map(ReactiveTestUtils::normalizeResult)
+                .collect(Collectors.joining());
+    }
+
+
+}
@@ -0,0 +1,253 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring.reactive.data.Album;
+import org.thymeleaf.spring.reactive.data.AlbumRepository;
+import org.thymeleaf.spring5.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring5.context.webflux.ReactiveDataDriverContextVariable;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+public final class SpringReactive17Test {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    // SSE batching needs Reactor 3.5+, but Spring 5.x applications normally run on Reactor 3.4
+    private static final boolean BATCHING_AVAILABLE =
+            ClassUtils.hasMethod(Flux.class, "windowTimeout", int.class, Duration.class, boolean.class);
+
+    private static SpringWebFluxTemplateEngine templateEngine;
+
+
+    @BeforeAll
+    public static void initTemplateEngine() {
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(ReactiveTestUtils.TEMPLATE_PATH_BASE);
+        templateResolver.setSuffix(".html");
+
+        templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+    }
+
+
+
+
+    @Test
+    public void testSseBatching() throws Exception {
+
+        for (final int responseMaxChunkSizeBytes : new int[] { 100, 1024, Integer.MAX_VALUE }) {
+
+            final List<DataBuffer> resultBuffers =
+                    process(new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), 1),
+                            responseMaxChunkSizeBytes);
+
+            final ReactiveDataDriverContextVariable batchingDataDriver =
+                    createDataDriver(
+                            Flux.fromIterable(AlbumRepository.findAllAlbums()), 1,
+                            Duration.ofMillis(200), Integer.MAX_VALUE, null);
+            final List<DataBuffer> batchedResultBuffers = process(batchingDataDriver, responseMaxChunkSizeBytes);
+
+            for (final DataBuffer buffer : batchedResultBuffers) {
+                Assertions.assertTrue(buffer.readableByteCount() <= responseMaxChunkSizeBytes);
+            }
+            // With small chunks, buffers will already be full (events are larger than them)
+            Assertions.assertTrue(
+                    responseMaxChunkSizeBytes < 1024 ?
+                            batchedResultBuffers.size() <= resultBuffers.size() :
+                            batchedResultBuffers.size() < resultBuffers.size(),
+                    batchedResultBuffers.size() + " buffers returned with batching, " +
+                    resultBuffers.size() + " without");
+
+            // SSE output is compared without normalizing, as events must be kept intact
+            Assertions.assertEquals(asString(resultBuffers), asString(batchedResultBuffers));
+
+        }
+
+    }
+
+
+    @Test
+    public void testSseBatchingReactorVersion() throws Exception {
+
+        final ReactiveDataDriverContextVariable batchingDataDriver =
+                createDataDriver(
+                        Flux.fromIterable(AlbumRepository.findAllAlbums()), 1,
+                        Duration.ofMillis(200), Integer.MAX_VALUE, null);
+
+        if (BATCHING_AVAILABLE) {
+            Assertions.assertFalse(process(batchingDataDriver, Integer.MAX_VALUE).isEmpty());
+        } else {
+            // An old version of Reactor should be reported as such, not as a NoSuchMethodError
+            Assertions.assertThrows(
+                    TemplateProcessingException.class, () -> process(batchingDataDriver, Integer.MAX_VALUE));
+        }
+
+    }
+
+
+    @Test
+    public void testSseBatchingMaxSize() throws Exception {
+
+        // The data-driver never completes and the batching delay is too long for this test: only the max
+        // size of batches can make events be sent.
+        final List<Album> albums = AlbumRepository.findAllAlbums().subList(0, 50);
+        final ReactiveDataDriverContextVariable dataDriver =
+                createDataDriver(
+                        Flux.concat(Flux.fromIterable(albums), Flux.never()), 1,
+                        Duration.ofMinutes(10), 2048, null);
+
+        final String firstBatch =
+                Flux.from(
+                        templateEngine.processStream(
+                                "reactive11", null, createContext(dataDriver), new DefaultDataBufferFactory(),
+                                MediaType.TEXT_EVENT_STREAM, CHARSET, Integer.MAX_VALUE))
+                        .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                        .next()
+                        .block(Duration.ofSeconds(10));
+
+        Assertions.assertNotNull(firstBatch);
+        Assertions.assertTrue(firstBatch.startsWith("event: head\n"));
+        Assertions.assertTrue(firstBatch.contains("event: message\n"));
+        Assertions.assertTrue(firstBatch.endsWith("\n\n"));
+
+    }
+
+
+    @Test
+    public void testSseHeartbeat() throws Exception {
+
+        final Album album = AlbumRepository.findAllAlbums().get(0);
+        final ReactiveDataDriverContextVariable dataDriver =
+                createDataDriver(
+                        Flux.concat(Flux.just(album), Flux.never()), 1,
+                        null, Integer.MAX_VALUE, Duration.ofMillis(50));
+
+        for (final int responseMaxChunkSizeBytes : new int[] { 100, Integer.MAX_VALUE }) {
+
+            final List<String> output =
+                    Flux.from(
+                            templateEngine.processStream(
+                                    "reactive11", null, createContext(dataDriver), new DefaultDataBufferFactory(),
+                                    MediaType.TEXT_EVENT_STREAM, CHARSET, responseMaxChunkSizeBytes))
+                            .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                            .takeUntil(str -> str.equals(":\n\n"))
+                            .collectList()
+                            .block(Duration.ofSeconds(10));
+
+            final String outputStr = String.join("", output);
+            // Heartbeat is sent once the stream is idle, after the event for the only published value
+            Assertions.assertTrue(outputStr.endsWith("\n\n:\n\n"));
+            Assertions.assertTrue(outputStr.contains("data:           <td>" + album.getName() + "</td>\n"));
+
+        }
+
+    }
+
+
+    @Test
+    public void testSseHeartbeatNotSentOnCompletion() throws Exception {
+
+        final ReactiveDataDriverContextVariable dataDriver =
+                createDataDriver(
+                        Flux.fromIterable(AlbumRepository.findAllAlbums()), 10,
+                        null, Integer.MAX_VALUE, Duration.ofMillis(50));
+
+        final List<DataBuffer> resultBuffers = process(dataDriver, Integer.MAX_VALUE);
+        final List<DataBuffer> expectedBuffers =
+                process(new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), 10),
+                        Integer.MAX_VALUE);
+
+        Assertions.assertEquals(asString(expectedBuffers), asString(resultBuffers));
+
+    }
+
+
+    @Test
+    public void testSseConfigurationValidation() throws Exception {
+
+        final Flux<Album> albums = Flux.fromIterable(AlbumRepository.findAllAlbums());
+
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> createDataDriver(albums, 1, Duration.ZERO, Integer.MAX_VALUE, null));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> createDataDriver(albums, 1, Duration.ofMillis(200), 0, null));
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> createDataDriver(albums, 1, null, Integer.MAX_VALUE, Duration.ofMillis(-50)));
+
+    }
+
+
+
+
+    private static Context createContext(final ReactiveDataDriverContextVariable dataDriver) {
+        final Context ctx = new Context();
+        ctx.setVariable("albums", dataDriver);
+        return ctx;
+    }
+
+
+    private static List<DataBuffer> process(
+            final ReactiveDataDriverContextVariable dataDriver, final int responseMaxChunkSizeBytes) {
+        return Flux.from(
+                    templateEngine.processStream(
+                            "reactive11", null, createContext(dataDriver), new DefaultDataBufferFactory(),
+                            MediaType.TEXT_EVENT_STREAM, CHARSET, responseMaxChunkSizeBytes))
+                .collectList().block();
+    }
+
+
+    private static ReactiveDataDriverContextVariable createDataDriver(
+            final Flux<?> dataStream, final int bufferSizeElements,
+            final Duration sseBatchingMaxDelay, final int sseBatchingMaxSizeBytes, final Duration sseHeartbeatInterval) {
+        return new ReactiveDataDriverContextVariable(
+                dataStream, bufferSizeElements, bufferSizeElements, bufferSizeElements, null, 0L,
+                sseBatchingMaxDelay, sseBatchingMaxSizeBytes, sseHeartbeatInterval);
+    }
+
+
+    private static String asString(final List<DataBuffer> buffers) {
+        return buffers.stream()
+                .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                .collect(Collectors.joining());
+    }
+
+
+}
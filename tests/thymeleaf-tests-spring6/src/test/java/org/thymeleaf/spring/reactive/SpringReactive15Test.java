@@ -0,0 +1,184 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring.reactive.data.Album;
+import org.thymeleaf.spring.reactive.data.AlbumRepository;
+import org.thymeleaf.spring6.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+
+public final class SpringReactive15Test {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+
+
+
+    @Test
+    public void testChunkedBufferAllocation() throws Exception {
+
+        final SpringWebFluxTemplateEngine templateEngine = createTemplateEngine(null);
+        final int responseMaxChunkSizeBytes = 1024 * 1024;
+
+        final Context ctx = new Context();
+        ctx.setVariable("albums", AlbumRepository.findAllAlbums());
+
+        // Once the size of the output for this template is known, buffers should be allocated accordingly
+        for (int i = 0; i < 3; i++) {
+
+            final List<DataBuffer> resultBuffers =
+                    process(templateEngine, "reactive01", ctx, responseMaxChunkSizeBytes);
+
+            Assertions.assertEquals(1, resultBuffers.size());
+            Assertions.assertTrue(
+                    resultBuffers.get(0).capacity() < 2 * resultBuffers.get(0).readableByteCount() + 4096,
+                    "Buffer of capacity " + resultBuffers.get(0).capacity() + " allocated for " +
+                    resultBuffers.get(0).readableByteCount() + " bytes of output");
+            Assertions.assertEquals(
+                    ReactiveTestUtils.readExpectedNormalizedResults("reactive01-02", CHARSET),
+                    asNormalizedString(resultBuffers));
+
+        }
+
+    }
+
+
+
+
+    @Test
+    public void testDataDrivenCoalescing() throws Exception {
+
+        final SpringWebFluxTemplateEngine templateEngine = createTemplateEngine(null);
+        final SpringWebFluxTemplateEngine coalescingTemplateEngine = createTemplateEngine(Duration.ofMillis(200));
+        final String expected = ReactiveTestUtils.readExpectedNormalizedResults("reactive02-02", CHARSET);
+
+        for (final int responseMaxChunkSizeBytes : new int[] { 16, 100, 1024, Integer.MAX_VALUE }) {
+
+            final List<DataBuffer> resultBuffers =
+                    process(templateEngine, "reactive02", createDataDrivenContext(1), responseMaxChunkSizeBytes);
+            final List<DataBuffer> coalescedResultBuffers =
+                    process(coalescingTemplateEngine, "reactive02", createDataDrivenContext(1), responseMaxChunkSizeBytes);
+
+            for (final DataBuffer buffer : coalescedResultBuffers) {
+                Assertions.assertTrue(buffer.readableByteCount() > 0);
+                Assertions.assertTrue(buffer.readableByteCount() <= responseMaxChunkSizeBytes);
+            }
+
+            Assertions.assertEquals(expected, asNormalizedString(resultBuffers));
+            Assertions.assertEquals(expected, asNormalizedString(coalescedResultBuffers));
+            if (responseMaxChunkSizeBytes > 16) {
+                Assertions.assertTrue(
+                        coalescedResultBuffers.size() < resultBuffers.size(),
+                        coalescedResultBuffers.size() + " buffers returned with coalescing, " +
+                        resultBuffers.size() + " without");
+            }
+
+        }
+
+    }
+
+
+
+
+    @Test
+    public void testDataDrivenCoalescingMaxDelay() throws Exception {
+
+        final SpringWebFluxTemplateEngine templateEngine = createTemplateEngine(Duration.ofMillis(100));
+
+        // The data-driver will never complete, but output for the available data should be sent anyway
+        final Album album = AlbumRepository.findAllAlbums().get(0);
+        final Context ctx = new Context();
+        ctx.setVariable("albums", new ReactiveDataDriverContextVariable(Flux.concat(Flux.just(album), Flux.never()), 1));
+
+        final String output =
+                Flux.from(
+                        templateEngine.processStream(
+                                "reactive02", null, ctx, new DefaultDataBufferFactory(),
+                                MediaType.TEXT_HTML, CHARSET, Integer.MAX_VALUE))
+                        .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                        .filter(str -> str.contains(album.getName()))
+                        .next()
+                        .block(Duration.ofSeconds(10));
+
+        Assertions.assertNotNull(output);
+
+    }
+
+
+
+
+    private static SpringWebFluxTemplateEngine createTemplateEngine(final Duration coalescingMaxDelay) {
+
+        final ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(ReactiveTestUtils.TEMPLATE_PATH_BASE);
+        templateResolver.setSuffix(".html");
+
+        final SpringWebFluxTemplateEngine templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setDataDrivenCoalescingMaxDelay(coalescingMaxDelay);
+
+        return templateEngine;
+
+    }
+
+
+    private static Context createDataDrivenContext(final int bufferSizeElements) {
+        final Context ctx = new Context();
+        ctx.setVariable(
+                "albums",
+                new ReactiveDataDriverContextVariable(Flux.fromIterable(AlbumRepository.findAllAlbums()), bufferSizeElements));
+        return ctx;
+    }
+
+
+    private static List<DataBuffer> process(
+            final SpringWebFluxTemplateEngine templateEngine, final String template, final Context ctx,
+            final int responseMaxChunkSizeBytes) {
+        return Flux.from(
+                    templateEngine.processStream(
+                            template, null, ctx, new DefaultDataBufferFactory(),
+                            MediaType.TEXT_HTML, CHARSET, responseMaxChunkSizeBytes))
+                .collectList().block();
+    }
+
+
+    private static String asNormalizedString(final List<DataBuffer> buffers) {
+        return buffers.stream()
+                .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                .map(ReactiveTestUtils::normalizeResult)
+                .collect(Collectors.joining());
+    }
+
+
+}
@@ -0,0 +1,148 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+import reactor.core.publisher.Flux;
+
+/*
+ * Checks that streams being iterated (e.g. Files.lines(...) or database cursors) are closed when the output
+ * stream is cancelled before the template has been completely processed (e.g. because the client went away).
+ */
+public final class SpringReactive18Test {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private static final String TEMPLATE =
+            "<div><p th:each=\"i : ${items}\" th:text=\"${i}\">x</p></div>";
+    private static final String DATA_DRIVEN_TEMPLATE =
+            "<div><p th:each=\"i : ${items}\" th:text=\"${i}\">x</p><p th:each=\"a : ${albums}\" th:text=\"${a}\">a</p></div>";
+
+    private static SpringWebFluxTemplateEngine templateEngine;
+
+
+    @BeforeAll
+    public static void initTemplateEngine() {
+
+        templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+
+    }
+
+
+
+
+    @Test
+    public void testIteratedStreamClosedOnCancelChunked() throws Exception {
+
+        // Stream is infinite: iteration can only finish by cancelling
+        final AtomicInteger closed = new AtomicInteger(0);
+        final Context ctx = new Context();
+        ctx.setVariable("items", infiniteStream(closed));
+
+        final List<DataBuffer> resultBuffers = process(TEMPLATE, ctx, 64, 3);
+
+        Assertions.assertEquals(3, resultBuffers.size());
+        Assertions.assertTrue(asString(resultBuffers).startsWith("<div><p>0</p><p>1</p>"));
+        Assertions.assertEquals(1, closed.get());
+
+    }
+
+
+    @Test
+    public void testIteratedStreamClosedOnCancelDataDriven() throws Exception {
+
+        final AtomicInteger closed = new AtomicInteger(0);
+        final Context ctx = new Context();
+        ctx.setVariable("items", infiniteStream(closed));
+        ctx.setVariable("albums", new ReactiveDataDriverContextVariable(Flux.just("one", "two"), 1));
+
+        final List<DataBuffer> resultBuffers = process(DATA_DRIVEN_TEMPLATE, ctx, 64, 3);
+
+        Assertions.assertEquals(3, resultBuffers.size());
+        Assertions.assertTrue(asString(resultBuffers).startsWith("<div><p>0</p><p>1</p>"));
+        Assertions.assertEquals(1, closed.get());
+
+    }
+
+
+    @Test
+    public void testIteratedStreamClosedOnCompletion() throws Exception {
+
+        final AtomicInteger closed = new AtomicInteger(0);
+        final Context ctx = new Context();
+        ctx.setVariable("items", Stream.of("a", "b", "c").onClose(() -> closed.incrementAndGet()));
+        ctx.setVariable("albums", new ReactiveDataDriverContextVariable(Flux.just("one", "two"), 1));
+
+        final List<DataBuffer> resultBuffers = process(DATA_DRIVEN_TEMPLATE, ctx, 16, Integer.MAX_VALUE);
+
+        Assertions.assertEquals(
+                "<div><p>a</p><p>b</p><p>c</p><p>one</p><p>two</p></div>", asString(resultBuffers));
+        // Closed exactly once: completion of the output stream does not close it again
+        Assertions.assertEquals(1, closed.get());
+
+    }
+
+
+
+
+    private static Stream<Integer> infiniteStream(final AtomicInteger closed) {
+        return Stream.iterate(Integer.valueOf(0), i -> Integer.valueOf(i.intValue() + 1))
+                .onClose(() -> closed.incrementAndGet());
+    }
+
+
+    private static List<DataBuffer> process(
+            final String template, final Context ctx, final int responseMaxChunkSizeBytes, final int maxBuffers) {
+        return Flux.from(
+                    templateEngine.processStream(
+                            template, null, ctx, new DefaultDataBufferFactory(),
+                            MediaType.TEXT_HTML, CHARSET, responseMaxChunkSizeBytes))
+                .take(maxBuffers)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+
+    private static String asString(final List<DataBuffer> buffers) {
+        return buffers.stream()
+                .map(buffer -> ReactiveTestUtils.bufferAsString(buffer, CHARSET))
+                .collect(Collectors.joining());
+    }
+
+
+}
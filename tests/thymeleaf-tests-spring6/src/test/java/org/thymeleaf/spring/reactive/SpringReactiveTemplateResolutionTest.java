@@ -0,0 +1,246 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring.reactive;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring.reactive.data.AlbumRepository;
+import org.thymeleaf.spring6.SpringWebFluxTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresource.ITemplateResource;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/*
+ * Checks that, when a template resolution scheduler is set, template resources are never read from
+ * non-blocking threads (like the ones of Netty event loops), which are simulated here by means of Reactor's
+ * parallel scheduler. This is the same condition that would be reported by tools like BlockHound.
+ */
+public final class SpringReactiveTemplateResolutionTest {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final int CONCURRENT_REQUESTS = 20;
+
+    private static Scheduler resolutionScheduler;
+    private static DataBufferFactory bufferFactory;
+
+
+    @BeforeAll
+    public static void initScheduler() {
+        resolutionScheduler = Schedulers.newBoundedElastic(4, 100, "thymeleaf-template-resolution");
+        bufferFactory = new DefaultDataBufferFactory();
+    }
+
+
+    @AfterAll
+    public static void disposeScheduler() {
+        resolutionScheduler.dispose();
+    }
+
+
+
+
+    @Test
+    public void testResolutionOutsideNonBlockingThreads() throws Exception {
+
+        for (final int chunkSize : new int[] { Integer.MAX_VALUE, 512 }) {
+
+            final MonitoredTemplateResolver templateResolver = new MonitoredTemplateResolver();
+            final SpringWebFluxTemplateEngine templateEngine = new SpringWebFluxTemplateEngine();
+            templateEngine.setTemplateResolver(templateResolver);
+            templateEngine.setTemplateResolutionScheduler(resolutionScheduler);
+
+            final List<String> results = executeConcurrently(templateEngine, chunkSize);
+
+            final String expected = ReactiveTestUtils.readExpectedNormalizedResults("reactive01-02", CHARSET);
+            for (final String result : results) {
+                Assertions.assertEquals(expected, result);
+            }
+
+            // Template should have been read only once, and never from a non-blocking thread
+            Assertions.assertEquals(1, templateResolver.reads.get());
+            Assertions.assertEquals(0, templateResolver.readsFromNonBlockingThreads.get());
+
+            // Once cached, the template should not be read again
+            executeConcurrently(templateEngine, chunkSize);
+            Assertions.assertEquals(1, templateResolver.reads.get());
+
+        }
+
+    }
+
+
+    @Test
+    public void testNonCacheableResolutionOutsideNonBlockingThreads() throws Exception {
+
+        for (final int chunkSize : new int[] { Integer.MAX_VALUE, 512 }) {
+
+            final MonitoredTemplateResolver templateResolver = new MonitoredTemplateResolver();
+            templateResolver.setCacheable(false);
+            final SpringWebFluxTemplateEngine templateEngine = new SpringWebFluxTemplateEngine();
+            templateEngine.setTemplateResolver(templateResolver);
+            templateEngine.setTemplateResolutionScheduler(resolutionScheduler);
+
+            final List<String> results = executeConcurrently(templateEngine, chunkSize);
+
+            final String expected = ReactiveTestUtils.readExpectedNormalizedResults("reactive01-02", CHARSET);
+            for (final String result : results) {
+                Assertions.assertEquals(expected, result);
+            }
+
+            // Template should have been read once per request, and never from a non-blocking thread
+            Assertions.assertEquals(CONCURRENT_REQUESTS, templateResolver.reads.get());
+            Assertions.assertEquals(0, templateResolver.readsFromNonBlockingThreads.get());
+
+            // Once known not to be cacheable, the template should not be resolved in advance again
+            templateResolver.resolutions.set(0);
+            executeConcurrently(templateEngine, chunkSize);
+            Assertions.assertEquals(CONCURRENT_REQUESTS, templateResolver.resolutions.get());
+            Assertions.assertEquals(2 * CONCURRENT_REQUESTS, templateResolver.reads.get());
+            Assertions.assertEquals(0, templateResolver.readsFromNonBlockingThreads.get());
+
+        }
+
+    }
+
+
+    @Test
+    public void testResolutionInNonBlockingThreadsWithoutScheduler() throws Exception {
+
+        final MonitoredTemplateResolver templateResolver = new MonitoredTemplateResolver();
+        final SpringWebFluxTemplateEngine templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        executeConcurrently(templateEngine, Integer.MAX_VALUE);
+
+        // Without scheduler, templates are read from the thread subscribing to the stream
+        Assertions.assertTrue(templateResolver.readsFromNonBlockingThreads.get() > 0);
+
+    }
+
+
+
+
+    private static List<String> executeConcurrently(
+            final SpringWebFluxTemplateEngine templateEngine, final int chunkSize) {
+
+        return Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> {
+                    final Context ctx = new Context();
+                    ctx.setVariable("albums", AlbumRepository.findAllAlbums());
+                    return Flux.from(
+                                templateEngine.processStream(
+                                        "reactive01", null, ctx, bufferFactory, MediaType.TEXT_HTML, CHARSET, chunkSize))
+                            .map(buffer -> ReactiveTestUtils.normalizeResult(ReactiveTestUtils.bufferAsString(buffer, CHARSET)))
+                            .collect(Collectors.joining())
+                            .subscribeOn(Schedulers.parallel());
+                })
+                .collectList()
+                .block();
+
+    }
+
+
+
+
+    private static final class MonitoredTemplateResolver extends ClassLoaderTemplateResolver {
+
+        final AtomicInteger resolutions = new AtomicInteger(0);
+        final AtomicInteger reads = new AtomicInteger(0);
+        final AtomicInteger readsFromNonBlockingThreads = new AtomicInteger(0);
+
+        MonitoredTemplateResolver() {
+            super();
+            setPrefix(ReactiveTestUtils.TEMPLATE_PATH_BASE);
+            setSuffix(".html");
+        }
+
+        @Override
+        protected ITemplateResource computeTemplateResource(
+                final IEngineConfiguration configuration, final String ownerTemplate, final String template,
+                final String resourceName, final String characterEncoding,
+                final Map<String, Object> templateResolutionAttributes) {
+            resolutions.incrementAndGet();
+            return new MonitoredTemplateResource(
+                    super.computeTemplateResource(
+                            configuration, ownerTemplate, template, resourceName, characterEncoding, templateResolutionAttributes));
+        }
+
+        private final class MonitoredTemplateResource implements ITemplateResource {
+
+            private final ITemplateResource resource;
+
+            MonitoredTemplateResource(final ITemplateResource resource) {
+                super();
+                this.resource = resource;
+            }
+
+            public String getDescription() {
+                return this.resource.getDescription();
+            }
+
+            public String getBaseName() {
+                return this.resource.getBaseName();
+            }
+
+            public boolean exists() {
+                return this.resource.exists();
+            }
+
+            public Reader reader() throws IOException {
+                reads.incrementAndGet();
+                if (Schedulers.isInNonBlockingThread()) {
+                    readsFromNonBlockingThreads.incrementAndGet();
+                }
+                try {
+                    // Slow down reading so that concurrent requests have to wait for the same resolution
+                    Thread.sleep(50L);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return this.resource.reader();
+            }
+
+            public ITemplateResource relative(final String relativeLocation) {
+                return new MonitoredTemplateResource(this.resource.relative(relativeLocation));
+            }
+
+        }
+
+    }
+
+
+}